@@ -1,32 +1,272 @@
 package com.trade.frankenstein.trader.bus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.JsonElement;
+import com.trade.frankenstein.trader.service.market.LatencyHistogram;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.Properties;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Publishes events to Kafka.
+ * <p>
+ * Payloads are serialized exactly once, to compact UTF-8 JSON bytes: typed events and Jackson
+ * trees go straight through the ObjectMapper, Gson trees and strings are encoded as-is. The wire
+ * format is unchanged for consumers (they read the value as a UTF-8 string).
+ * <p>
+ * A topic may set its own producer tuning with trade.bus.topic.&lt;topic&gt;.linger-ms,
+ * .batch-size and .compression; topics with identical overrides share one producer, all others
+ * use the default producer from producer.properties. A dedicated producer's client.id is the
+ * shared one suffixed with the topic that created it. Per-topic sent/error/byte counters and
+ * send-to-ack latency (ms) are kept locally and exported as trade.bus.* meters when a
+ * MeterRegistry is present.
+ */
 @Service
 @Slf4j
 public class EventPublisher {
-    private final Producer<String, String> producer;
+
+    private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final String TOPIC_PROP = "trade.bus.topic.";
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Producer<String, byte[]> producer;
+    private final String clientId;
+    private final Environment env;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Producer<String, byte[]>> byTopic = new ConcurrentHashMap<>();
+    private final Map<String, Producer<String, byte[]>> byProfile = new ConcurrentHashMap<>();
+    private final Map<String, TopicStats> stats = new ConcurrentHashMap<>();
+
+    private static final class TopicStats {
+        final LongAdder sent = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LatencyHistogram ackMs = new LatencyHistogram();
+    }
 
     @Autowired
-    public EventPublisher(Environment env) throws IOException {
+    public EventPublisher(Environment env,
+                          ObjectProvider<ObjectMapper> mapper,
+                          ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
         Properties p = KafkaPropertiesHelper.loadProducerProps();
         this.producer = KafkaProducerFactory.get(p);
+        this.clientId = p.getProperty("client.id", "frankenstein-publisher");
+        this.env = env;
+        this.mapper = mapper.getIfAvailable(ObjectMapper::new);
+        this.meterRegistry = meterRegistry.getIfAvailable();
         log.info("Kafka producer bootstrap.servers={}", p.getProperty("bootstrap.servers"));
     }
 
     public void publish(String topic, String key, String json) {
-        if (json == null) json = "{}";
-        producer.send(new ProducerRecord<>(topic, key, json), (m, e) -> {
-            if (e == null) { log.debug("kafka sent topic={} partition={} offset={}", m.topic(), m.partition(), m.offset()); }
-            else { log.warn("kafka send failed topic={} key={} cause={}", topic, key, e.toString()); }
+        publishBytes(topic, key, json == null ? EMPTY_JSON : json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Typed variant: the event (POJO/record, Jackson or Gson tree) is serialized once to compact
+     * JSON bytes; no intermediate String.
+     */
+    public void publish(String topic, String key, Object event) {
+        final byte[] value;
+        try {
+            value = encode(event);
+        } catch (Exception e) {
+            stats(topic).errors.increment();
+            log.warn("kafka encode failed topic={} key={} cause={}", topic, key, e.toString());
+            return;
+        }
+        publishBytes(topic, key, value);
+    }
+
+    /**
+     * Like {@link #publish} but hands back the broker ack, so callers can pipeline a batch and
+     * then wait for all of it.
+     */
+    public CompletableFuture<RecordMetadata> send(String topic, String key, String json) {
+        CompletableFuture<RecordMetadata> ack = new CompletableFuture<>();
+        final byte[] value = json == null ? EMPTY_JSON : json.getBytes(StandardCharsets.UTF_8);
+        final TopicStats st = stats(topic);
+        final long t0 = System.nanoTime();
+        try {
+            producerFor(topic).send(new ProducerRecord<>(topic, key, value), (m, e) -> {
+                onAck(st, t0, value.length, e);
+                if (e == null) ack.complete(m);
+                else ack.completeExceptionally(e);
+            });
+        } catch (Exception e) {
+            st.errors.increment();
+            ack.completeExceptionally(e);
+        }
+        return ack;
+    }
+
+    /**
+     * Pushes out anything still lingering in the producer buffers.
+     */
+    public void flush() {
+        producer.flush();
+        for (Producer<String, byte[]> p : byProfile.values()) p.flush();
+    }
+
+    /**
+     * Flushes and closes the dedicated per-topic producers; the shared one is process-wide.
+     */
+    @PreDestroy
+    public void close() {
+        for (Producer<String, byte[]> p : byProfile.values()) {
+            try {
+                p.flush();
+                p.close(CLOSE_TIMEOUT);
+            } catch (Exception e) {
+                log.warn("kafka producer close failed: {}", e.toString());
+            }
+        }
+        byProfile.clear();
+    }
+
+    /**
+     * Per-topic sent/errors/bytes and ack latency percentiles (ms).
+     */
+    public Map<String, Map<String, Object>> getTopicStats() {
+        Map<String, Map<String, Object>> out = new TreeMap<>();
+        for (Map.Entry<String, TopicStats> e : stats.entrySet()) {
+            TopicStats st = e.getValue();
+            LatencyHistogram.Snapshot s = st.ackMs.snapshot();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("sent", st.sent.sum());
+            m.put("errors", st.errors.sum());
+            m.put("bytes", st.bytes.sum());
+            m.put("ackP50Ms", s.valueAt(0.5));
+            m.put("ackP99Ms", s.valueAt(0.99));
+            m.put("ackMaxMs", s.max());
+            out.put(e.getKey(), m);
+        }
+        return out;
+    }
+
+    private void publishBytes(String topic, String key, byte[] value) {
+        final TopicStats st = stats(topic);
+        final long t0 = System.nanoTime();
+        try {
+            producerFor(topic).send(new ProducerRecord<>(topic, key, value), (m, e) -> {
+                onAck(st, t0, value.length, e);
+                if (e == null) { log.debug("kafka sent topic={} partition={} offset={}", m.topic(), m.partition(), m.offset()); }
+                else { log.warn("kafka send failed topic={} key={} cause={}", topic, key, e.toString()); }
+            });
+        } catch (Exception e) {
+            st.errors.increment();
+            log.warn("kafka send failed topic={} key={} cause={}", topic, key, e.toString());
+        }
+    }
+
+    private byte[] encode(Object event) throws IOException {
+        if (event == null) return EMPTY_JSON;
+        if (event instanceof byte[]) return (byte[]) event;
+        if (event instanceof CharSequence || event instanceof JsonElement) {
+            return event.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return mapper.writeValueAsBytes(event); // POJOs, records and JsonNode trees
+    }
+
+    private static void onAck(TopicStats st, long t0, int size, Exception e) {
+        if (e == null) {
+            st.sent.increment();
+            st.bytes.add(size);
+            st.ackMs.record((System.nanoTime() - t0) / 1_000_000L);
+        } else {
+            st.errors.increment();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Per-topic producers
+    // ---------------------------------------------------------------------
+
+    private Producer<String, byte[]> producerFor(String topic) {
+        Producer<String, byte[]> p = byTopic.get(topic);
+        if (p != null) return p;
+        return byTopic.computeIfAbsent(topic, t -> {
+            Properties overrides = overridesFor(t);
+            if (overrides.isEmpty()) return producer;
+            String profile = new TreeMap<>(overrides).toString();
+            return byProfile.computeIfAbsent(profile, k -> {
+                log.info("Kafka producer for topic={} overrides={}", t, profile);
+                // a distinct id per producer: no AppInfo MBean clash, separate quota/metrics identity
+                Properties withId = new Properties();
+                withId.putAll(overrides);
+                withId.put("client.id", clientId + "-" + t.replaceAll("[^A-Za-z0-9._-]", "_"));
+                return KafkaProducerFactory.create(withId);
+            });
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * trade.bus.topic.&lt;topic&gt;.* overrides; a dotted topic falls back to its base name.
+     */
+    private Properties overridesFor(String topic) {
+        Properties o = new Properties();
+        if (env == null || topic == null) return o;
+        int dot = topic.indexOf('.');
+        String base = dot > 0 ? topic.substring(0, dot) : topic;
+        putIfSet(o, "linger.ms", prop(topic, base, "linger-ms"));
+        putIfSet(o, "batch.size", prop(topic, base, "batch-size"));
+        putIfSet(o, "compression.type", prop(topic, base, "compression"));
+        return o;
+    }
+
+    private String prop(String topic, String base, String name) {
+        String v = env.getProperty(TOPIC_PROP + topic + "." + name);
+        return v != null ? v : env.getProperty(TOPIC_PROP + base + "." + name);
+    }
+
+    private static void putIfSet(Properties p, String key, String value) {
+        if (value != null && !value.trim().isEmpty()) p.put(key, value.trim());
+    }
+
+    private TopicStats stats(String topic) {
+        final String t = topic == null ? "" : topic;
+        TopicStats st = stats.get(t);
+        if (st != null) return st;
+        return stats.computeIfAbsent(t, k -> {
+            TopicStats fresh = new TopicStats();
+            registerMeters(k, fresh);
+            return fresh;
+        });
+    }
+
+    private void registerMeters(String topic, TopicStats st) {
+        if (meterRegistry == null) return;
+        try {
+            FunctionCounter.builder("trade.bus.sent", st, s -> s.sent.sum()).tag("topic", topic).register(meterRegistry);
+            FunctionCounter.builder("trade.bus.errors", st, s -> s.errors.sum()).tag("topic", topic).register(meterRegistry);
+            FunctionCounter.builder("trade.bus.bytes", st, s -> s.bytes.sum()).tag("topic", topic).register(meterRegistry);
+            for (double q : new double[]{0.5, 0.99}) {
+                Gauge.builder("trade.bus.ack.latency", st, s -> s.ackMs.snapshot().valueAt(q))
+                        .tag("topic", topic)
+                        .tag("quantile", String.valueOf(q))
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+            }
+        } catch (Exception e) {
+            log.debug("bus meter registration failed for topic={}: {}", topic, e.toString());
+        }
+    }
+}
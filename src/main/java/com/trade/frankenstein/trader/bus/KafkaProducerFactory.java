@@ -2,23 +2,40 @@ package com.trade.frankenstein.trader.bus;
 
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 
 import java.util.Properties;
 
+/**
+ * Kafka producers for the event bus. Values are pre-serialized bytes (see EventPublisher), keys
+ * are strings. The shared default producer uses producer.properties as-is; topics with their own
+ * linger/batch/compression settings get a dedicated producer from {@link #create(Properties)}.
+ */
 public final class KafkaProducerFactory {
 
-    private static volatile Producer<String, String> INSTANCE;
+    private static volatile Producer<String, byte[]> INSTANCE;
 
-    public static Producer<String, String> get(Properties baseProps) {
-        baseProps = KafkaPropertiesHelper.loadProducerProps();
+    public static Producer<String, byte[]> get(Properties baseProps) {
         if (INSTANCE == null) {
             synchronized (KafkaProducerFactory.class) {
-                if (INSTANCE == null) INSTANCE = new KafkaProducer<String, String>(baseProps);
+                if (INSTANCE == null) INSTANCE = create(null);
             }
         }
         return INSTANCE;
     }
 
+    /**
+     * A new producer from producer.properties with overrides applied on top.
+     */
+    public static Producer<String, byte[]> create(Properties overrides) {
+        Properties p = KafkaPropertiesHelper.loadProducerProps();
+        if (overrides != null) p.putAll(overrides);
+        p.put("key.serializer", StringSerializer.class.getName());
+        p.put("value.serializer", ByteArraySerializer.class.getName());
+        return new KafkaProducer<String, byte[]>(p);
+    }
+
     private KafkaProducerFactory() {
     }
-}
\ No newline at end of file
+}
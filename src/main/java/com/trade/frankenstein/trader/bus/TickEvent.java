@@ -0,0 +1,19 @@
+package com.trade.frankenstein.trader.bus;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Enhanced tick published on {@link EventBusConfig#TOPIC_TICKS}. Field names match the JSON the
+ * ticks topic has always carried.
+ */
+public record TickEvent(
+        long ts,
+        @JsonProperty("ts_iso") String tsIso,
+        String event,
+        String source,
+        String symbol,
+        double ltp,
+        long qty,
+        @JsonProperty("quality_score") double qualityScore,
+        @JsonProperty("has_anomalies") boolean hasAnomalies) {
+}
@@ -0,0 +1,170 @@
+package com.trade.frankenstein.trader.common;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeriesBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Long-lived ta4j series per (instrument, timeframe) key.
+ * <p>
+ * {@link #update} appends only bars newer than the series' last bar and replaces the last bar
+ * in place while it is still forming, so indicator instances created through
+ * {@link Entry#indicator} keep their internal caches between calls. Series are capped with
+ * setMaximumBarCount. Rows are Upstox candle rows: [ts, open, high, low, close, volume, ...].
+ * <p>
+ * ta4j objects are not thread-safe: hold the entry's monitor while updating and reading.
+ */
+public class Ta4jSeriesCache {
+
+    private final int maxBarCount;
+    private final ZoneId zone;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public Ta4jSeriesCache(int maxBarCount) {
+        this(maxBarCount, ZoneId.of("Asia/Kolkata"));
+    }
+
+    public Ta4jSeriesCache(int maxBarCount, ZoneId zone) {
+        this.maxBarCount = Math.max(50, maxBarCount);
+        this.zone = zone;
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final Duration timeframe;
+        private BarSeries series;
+        private long lastEndMs = Long.MIN_VALUE;
+        private final Map<String, Object> indicators = new HashMap<>();
+
+        private Entry(String name, Duration timeframe) {
+            this.name = name;
+            this.timeframe = timeframe;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public BarSeries series() {
+            return series;
+        }
+
+        public Duration timeframe() {
+            return timeframe;
+        }
+
+        /**
+         * Returns the indicator registered under id, creating it on first use.
+         */
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T indicator(String id, Function<BarSeries, T> factory) {
+            return (T) indicators.computeIfAbsent(id, k -> factory.apply(series));
+        }
+    }
+
+    /**
+     * Brings the series for key up to date with rows and returns its entry (never null).
+     * A changed timeframe, or history older than the series' last bar, rebuilds the entry.
+     */
+    public Entry update(String key, List<List<Object>> rows, Duration timeframe) {
+        Objects.requireNonNull(timeframe, "timeframe");
+        Entry e = entries.compute(key, (k, cur) ->
+                (cur == null || !cur.timeframe.equals(timeframe)) ? newEntry(k, timeframe) : cur);
+
+        synchronized (e) {
+            if (rows == null || rows.isEmpty()) return e;
+            List<List<Object>> ordered = chronological(rows);
+
+            long newest = epochMillis(ordered.get(ordered.size() - 1).get(0));
+            if (newest > 0 && newest < e.lastEndMs) {
+                // Source went backwards (new session / reseed): start over
+                Entry fresh = newEntry(key, timeframe);
+                append(fresh, ordered);
+                entries.put(key, fresh);
+                return fresh;
+            }
+            append(e, ordered);
+            return e;
+        }
+    }
+
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    private Entry newEntry(String key, Duration timeframe) {
+        Entry e = new Entry(key, timeframe);
+        e.series = new BaseBarSeriesBuilder().withName(key).build();
+        e.series.setMaximumBarCount(maxBarCount);
+        return e;
+    }
+
+    private void append(Entry e, List<List<Object>> rows) {
+        for (List<Object> r : rows) {
+            if (r == null || r.size() < 6) continue;
+            long ms = epochMillis(r.get(0));
+            if (ms <= 0L || ms < e.lastEndMs) continue;
+
+            double open = num(r.get(1), 0d);
+            double high = num(r.get(2), open);
+            double low = num(r.get(3), open);
+            double close = num(r.get(4), open);
+            double vol = num(r.get(5), 0d);
+            Bar bar = new BaseBar(e.timeframe, ZonedDateTime.ofInstant(Instant.ofEpochMilli(ms), zone),
+                    open, high, low, close, vol);
+
+            // Same timestamp as the last bar: it is still forming, replace it in place
+            e.series.addBar(bar, ms == e.lastEndMs);
+            e.lastEndMs = ms;
+        }
+    }
+
+    private static List<List<Object>> chronological(List<List<Object>> rows) {
+        long prev = Long.MIN_VALUE;
+        for (List<Object> r : rows) {
+            long t = (r == null || r.isEmpty()) ? Long.MIN_VALUE : epochMillis(r.get(0));
+            if (t < prev) {
+                List<List<Object>> copy = new ArrayList<>(rows);
+                copy.sort(Comparator.comparingLong(x -> (x == null || x.isEmpty()) ? Long.MIN_VALUE : epochMillis(x.get(0))));
+                return copy;
+            }
+            prev = t;
+        }
+        return rows;
+    }
+
+    private static long epochMillis(Object ts) {
+        if (ts instanceof Number) {
+            long v = ((Number) ts).longValue();
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        }
+        if (ts == null) return -1L;
+        String s = ts.toString().trim();
+        try {
+            long v = Long.parseLong(s);
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        } catch (NumberFormatException ignore) {
+        }
+        try {
+            return OffsetDateTime.parse(s, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        } catch (Exception ignore) {
+            return -1L;
+        }
+    }
+
+    private static double num(Object o, double dflt) {
+        return o instanceof Number ? ((Number) o).doubleValue() : dflt;
+    }
+}
@@ -0,0 +1,149 @@
+package com.trade.frankenstein.trader.common;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-engine-cycle memo of remote reads (LTP, candles, risk summary, positions, ...).
+ * <p>
+ * {@code EngineService.tick()} opens one context for the cycle; services route their expensive
+ * reads through {@link #memo(String, Supplier)} so each key is loaded at most once per cycle,
+ * including by concurrent loaders (the second caller waits for the first). Outside an open
+ * context memo is a plain pass-through, so the same services behave as before when called from
+ * controllers or schedulers.
+ * <p>
+ * The context is bound to the opening thread; work handed to other threads must be wrapped
+ * with {@link #propagate(Supplier)}. Writers that change what a key would return call
+ * {@link #invalidate(String)}.
+ */
+public final class TickContext implements AutoCloseable {
+
+    private static final ThreadLocal<TickContext> CURRENT = new ThreadLocal<>();
+    private static final Object NULL = new Object();
+
+    private static final LongAdder TOTAL_HITS = new LongAdder();
+    private static final LongAdder TOTAL_MISSES = new LongAdder();
+
+    private final Map<String, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final TickContext previous;
+
+    private TickContext(TickContext previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Binds a fresh context to the calling thread; close it (try-with-resources) at cycle end.
+     */
+    public static TickContext open() {
+        TickContext ctx = new TickContext(CURRENT.get());
+        CURRENT.set(ctx);
+        return ctx;
+    }
+
+    public static TickContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the value loaded for key in this cycle, loading it on first use. Null results are
+     * memoized too; a loader that throws is not, and the exception reaches every waiting caller.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T memo(String key, Supplier<T> loader) {
+        TickContext ctx = CURRENT.get();
+        if (ctx == null) return loader.get();
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = ctx.values.putIfAbsent(key, mine);
+        if (existing != null) {
+            ctx.hits.incrementAndGet();
+            TOTAL_HITS.increment();
+            Object v;
+            try {
+                v = existing.join();
+            } catch (CompletionException e) {
+                Throwable c = e.getCause();
+                if (c instanceof RuntimeException) throw (RuntimeException) c;
+                if (c instanceof Error) throw (Error) c;
+                throw e;
+            }
+            return v == NULL ? null : (T) v;
+        }
+
+        ctx.misses.incrementAndGet();
+        TOTAL_MISSES.increment();
+        try {
+            T v = loader.get();
+            mine.complete(v == null ? NULL : v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            ctx.values.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops memoized keys starting with prefix from the current context, if any.
+     */
+    public static void invalidate(String prefix) {
+        TickContext ctx = CURRENT.get();
+        if (ctx != null) ctx.values.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    /**
+     * Wraps work for another thread so it sees the caller's context.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        return propagate(CURRENT.get(), work);
+    }
+
+    /**
+     * Wraps work so it runs inside ctx (captured earlier, e.g. before a callback chain).
+     */
+    public static <T> Supplier<T> propagate(TickContext ctx, Supplier<T> work) {
+        if (ctx == null) return work;
+        return () -> {
+            TickContext prev = CURRENT.get();
+            CURRENT.set(ctx);
+            try {
+                return work.get();
+            } finally {
+                if (prev == null) CURRENT.remove();
+                else CURRENT.set(prev);
+            }
+        };
+    }
+
+    public int hits() {
+        return hits.get();
+    }
+
+    public int misses() {
+        return misses.get();
+    }
+
+    public static long totalHits() {
+        return TOTAL_HITS.sum();
+    }
+
+    public static long totalMisses() {
+        return TOTAL_MISSES.sum();
+    }
+
+    @Override
+    public void close() {
+        values.clear();
+        if (CURRENT.get() == this) {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+}
@@ -16,4 +16,10 @@ public class Ta4jProperties {
     private int atrPeriod = 14;
     private int donchianWindow = 20;
     private int vwapLookback = 30;
+    private int maxBarCount = 500; // cap for cached incremental series
+    private String engine = "ta4j"; // ta4j | primitive (double[] kernels)
+
+    public boolean isPrimitiveEngine() {
+        return "primitive".equalsIgnoreCase(engine);
+    }
 }
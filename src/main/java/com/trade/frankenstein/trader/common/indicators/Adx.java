@@ -0,0 +1,65 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Streaming ADX: Wilder-smoothed DX of +DI/-DI, where DI = 100 * MMA(DM) / ATR (ta4j ADXIndicator).
+ * A zero ATR yields DI = 0 instead of ta4j's NaN.
+ */
+public final class Adx {
+
+    private final Ema plusDm;
+    private final Ema minusDm;
+    private final Atr atr;
+    private final Ema adx;
+    private double prevHigh = Double.NaN, prevLow = Double.NaN;
+
+    public Adx(int barCount) {
+        this(barCount, barCount);
+    }
+
+    public Adx(int diBarCount, int adxBarCount) {
+        this.plusDm = Ema.wilder(diBarCount);
+        this.minusDm = Ema.wilder(diBarCount);
+        this.atr = new Atr(diBarCount);
+        this.adx = Ema.wilder(adxBarCount);
+    }
+
+    public double update(double high, double low, double close) {
+        double up = Double.isNaN(prevHigh) ? 0.0 : high - prevHigh;
+        double down = Double.isNaN(prevLow) ? 0.0 : prevLow - low;
+        double p = plusDm.update(up > down && up > 0 ? up : 0.0);
+        double m = minusDm.update(down > up && down > 0 ? down : 0.0);
+        double a = atr.update(high, low, close);
+        prevHigh = high;
+        prevLow = low;
+        return adx.update(dx(p, m, a));
+    }
+
+    public double peek(double high, double low) {
+        double up = Double.isNaN(prevHigh) ? 0.0 : high - prevHigh;
+        double down = Double.isNaN(prevLow) ? 0.0 : prevLow - low;
+        double p = plusDm.peek(up > down && up > 0 ? up : 0.0);
+        double m = minusDm.peek(down > up && down > 0 ? down : 0.0);
+        return adx.peek(dx(p, m, atr.peek(high, low)));
+    }
+
+    public double value() {
+        return adx.value();
+    }
+
+    private static double dx(double avgPlusDm, double avgMinusDm, double atr) {
+        if (atr == 0.0) return 0.0;
+        double plusDi = avgPlusDm / atr * 100.0;
+        double minusDi = avgMinusDm / atr * 100.0;
+        double sum = plusDi + minusDi;
+        if (sum == 0.0) return 0.0;
+        return Math.abs(plusDi - minusDi) / sum * 100.0;
+    }
+
+    public void reset() {
+        plusDm.reset();
+        minusDm.reset();
+        atr.reset();
+        adx.reset();
+        prevHigh = prevLow = Double.NaN;
+    }
+}
@@ -0,0 +1,39 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Streaming Wilder ATR over true range; the first bar's TR is high - low (ta4j ATRIndicator).
+ */
+public final class Atr {
+
+    private final Ema avg;
+    private double prevClose = Double.NaN;
+
+    public Atr(int barCount) {
+        this.avg = Ema.wilder(barCount);
+    }
+
+    public static double trueRange(double high, double low, double prevClose) {
+        double hl = Math.abs(high - low);
+        if (Double.isNaN(prevClose)) return hl;
+        return Math.max(hl, Math.max(Math.abs(high - prevClose), Math.abs(prevClose - low)));
+    }
+
+    public double update(double high, double low, double close) {
+        double tr = trueRange(high, low, prevClose);
+        prevClose = close;
+        return avg.update(tr);
+    }
+
+    public double peek(double high, double low) {
+        return avg.peek(trueRange(high, low, prevClose));
+    }
+
+    public double value() {
+        return avg.value();
+    }
+
+    public void reset() {
+        avg.reset();
+        prevClose = Double.NaN;
+    }
+}
@@ -0,0 +1,77 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Streaming Bollinger bands: SMA(n) ± k * population standard deviation over the same window
+ * (ta4j SMAIndicator / StandardDeviationIndicator). Sums run oldest to newest, as ta4j does.
+ */
+public final class Bollinger {
+
+    private final DoubleRing window;
+    private final double k;
+    private double middle = Double.NaN, stdDev = Double.NaN;
+
+    public Bollinger(int barCount, double k) {
+        this.window = new DoubleRing(barCount);
+        this.k = k;
+    }
+
+    public void update(double close) {
+        window.add(close);
+        compute(Double.NaN, false);
+    }
+
+    /**
+     * Computes the bands as if close were the next value; read them via middle()/upper()/lower().
+     * The window itself is not modified, so a later {@link #update} still sees committed bars only.
+     */
+    public void peek(double close) {
+        compute(close, true);
+    }
+
+    private void compute(double candidate, boolean withCandidate) {
+        int n = window.size();
+        int skip = (withCandidate && window.isFull()) ? 1 : 0;
+        int count = n - skip + (withCandidate ? 1 : 0);
+        if (count == 0) {
+            middle = stdDev = Double.NaN;
+            return;
+        }
+        double sum = 0.0;
+        for (int i = skip; i < n; i++) sum += window.get(i);
+        if (withCandidate) sum += candidate;
+        double mean = sum / count;
+
+        double var = 0.0;
+        for (int i = skip; i < n; i++) {
+            double d = window.get(i) - mean;
+            var += d * d;
+        }
+        if (withCandidate) {
+            double d = candidate - mean;
+            var += d * d;
+        }
+        middle = mean;
+        stdDev = Math.sqrt(var / count);
+    }
+
+    public double middle() {
+        return middle;
+    }
+
+    public double stdDev() {
+        return stdDev;
+    }
+
+    public double upper() {
+        return middle + k * stdDev;
+    }
+
+    public double lower() {
+        return middle - k * stdDev;
+    }
+
+    public void reset() {
+        window.clear();
+        middle = stdDev = Double.NaN;
+    }
+}
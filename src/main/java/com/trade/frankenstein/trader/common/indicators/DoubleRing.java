@@ -0,0 +1,50 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Fixed-capacity ring of primitive doubles; the oldest value is overwritten once full.
+ */
+public final class DoubleRing {
+
+    private final double[] buf;
+    private int head = 0;
+    private int size = 0;
+
+    public DoubleRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.buf = new double[capacity];
+    }
+
+    public void add(double v) {
+        buf[(head + size) % buf.length] = v;
+        if (size < buf.length) size++;
+        else head = (head + 1) % buf.length;
+    }
+
+    /**
+     * i-th value, oldest first.
+     */
+    public double get(int i) {
+        return buf[(head + i) % buf.length];
+    }
+
+    public double last() {
+        return size == 0 ? Double.NaN : get(size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buf.length;
+    }
+
+    public boolean isFull() {
+        return size == buf.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Streaming exponential average, seeded with the first input like ta4j's AbstractEMAIndicator.
+ * {@link #Ema(int)} uses 2/(n+1) (EMAIndicator); {@link #wilder(int)} uses 1/n (MMAIndicator).
+ */
+public final class Ema {
+
+    private final double multiplier;
+    private double value = Double.NaN;
+    private long count = 0;
+
+    public Ema(int barCount) {
+        this(2.0 / (barCount + 1));
+    }
+
+    private Ema(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Wilder's smoothing (modified moving average).
+     */
+    public static Ema wilder(int barCount) {
+        return new Ema(1.0 / barCount);
+    }
+
+    public double update(double x) {
+        value = peek(x);
+        count++;
+        return value;
+    }
+
+    /**
+     * Value the average would take if x were the next input; state is unchanged.
+     */
+    public double peek(double x) {
+        return count == 0 ? x : (x - value) * multiplier + value;
+    }
+
+    public double value() {
+        return value;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public void reset() {
+        value = Double.NaN;
+        count = 0;
+    }
+}
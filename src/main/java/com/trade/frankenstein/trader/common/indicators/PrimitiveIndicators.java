@@ -0,0 +1,156 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * double-based alternative to the ta4j indicator path (see trade.ta4j.engine).
+ * <p>
+ * Keeps one kernel set per key. Closed bars are folded in once; the newest row is treated as
+ * the forming bar and only peeked, so repeated calls with a growing candle list cost O(new bars).
+ * The recurrences follow ta4j (seeding, Wilder smoothing, population variance), so values agree
+ * with a double-backed ta4j series up to floating-point rounding.
+ */
+public class PrimitiveIndicators {
+
+    /**
+     * Indicator periods; a different spec for the same key resets its state.
+     */
+    public record Spec(int emaFast, int emaSlow, int rsi, int atr, int adx, int bbBarCount, double bbK,
+                       int vwapBarCount) {
+    }
+
+    /**
+     * Values at the newest bar.
+     */
+    public record Snapshot(int barCount, double emaFast, double emaSlow, double rsi, double adx, double atr,
+                           double bbUpper, double bbMiddle, double bbLower, double vwap, double close) {
+    }
+
+    private static final class Kernels {
+        final Spec spec;
+        final Ema emaFast, emaSlow;
+        final Rsi rsi;
+        final Atr atr;
+        final Adx adx;
+        final Bollinger bb;
+        final Vwap vwap;
+        long lastClosedMs = Long.MIN_VALUE;
+        int closedBars = 0;
+
+        Kernels(Spec spec) {
+            this.spec = spec;
+            this.emaFast = new Ema(spec.emaFast());
+            this.emaSlow = new Ema(spec.emaSlow());
+            this.rsi = new Rsi(spec.rsi());
+            this.atr = new Atr(spec.atr());
+            this.adx = new Adx(spec.adx());
+            this.bb = new Bollinger(spec.bbBarCount(), spec.bbK());
+            this.vwap = new Vwap(spec.vwapBarCount());
+        }
+
+        void commit(double h, double l, double c, double v) {
+            emaFast.update(c);
+            emaSlow.update(c);
+            rsi.update(c);
+            atr.update(h, l, c);
+            adx.update(h, l, c);
+            bb.update(c);
+            vwap.update(h, l, c, v);
+            closedBars++;
+        }
+
+        Snapshot peek(double h, double l, double c, double v) {
+            bb.peek(c);
+            return new Snapshot(closedBars + 1, emaFast.peek(c), emaSlow.peek(c), rsi.peek(c),
+                    adx.peek(h, l), atr.peek(h, l), bb.upper(), bb.middle(), bb.lower(),
+                    vwap.peek(h, l, c, v), c);
+        }
+    }
+
+    private final ConcurrentMap<String, Kernels> state = new ConcurrentHashMap<>();
+
+    /**
+     * Folds Upstox candle rows ([ts, o, h, l, c, v, ...], oldest first) into the kernels for key
+     * and returns the values at the newest row, or null when rows is empty or the newest row has
+     * no usable high/low/close. Closed rows without them are skipped; a missing volume counts as 0.
+     */
+    public Snapshot update(String key, List<List<Object>> rows, Spec spec) {
+        if (rows == null || rows.isEmpty()) return null;
+        Kernels k = state.compute(key, (x, cur) -> (cur == null || !cur.spec.equals(spec)) ? new Kernels(spec) : cur);
+
+        synchronized (k) {
+            final int last = rows.size() - 1;
+            if (epochMillis(rows.get(last).get(0)) < k.lastClosedMs) {
+                // Source went backwards (new session / reseed): start over
+                k = new Kernels(spec);
+                state.put(key, k);
+            }
+            for (int i = 0; i < last; i++) {
+                List<Object> r = rows.get(i);
+                if (r == null || r.size() < 6) continue;
+                long ms = epochMillis(r.get(0));
+                if (ms <= k.lastClosedMs) continue;
+                k.lastClosedMs = ms;
+                double h = num(r.get(2)), l = num(r.get(3)), c = num(r.get(4));
+                if (Double.isNaN(h) || Double.isNaN(l) || Double.isNaN(c)) continue; // one NaN would poison every recurrence
+                k.commit(h, l, c, volume(r.get(5)));
+            }
+            List<Object> f = rows.get(last);
+            if (f == null || f.size() < 6) return null;
+            double h = num(f.get(2)), l = num(f.get(3)), c = num(f.get(4));
+            if (Double.isNaN(h) || Double.isNaN(l) || Double.isNaN(c)) return null;
+            return k.peek(h, l, c, volume(f.get(5)));
+        }
+    }
+
+    public void evict(String key) {
+        state.remove(key);
+    }
+
+    private static long epochMillis(Object ts) {
+        if (ts instanceof Number) {
+            long v = ((Number) ts).longValue();
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        }
+        if (ts == null) return -1L;
+        String s = ts.toString().trim();
+        try {
+            long v = Long.parseLong(s);
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        } catch (NumberFormatException ignore) {
+        }
+        try {
+            return OffsetDateTime.parse(s, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        } catch (Exception ignore) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Finite value of a Number or numeric string, NaN otherwise.
+     */
+    private static double num(Object o) {
+        double v;
+        if (o instanceof Number) {
+            v = ((Number) o).doubleValue();
+        } else if (o != null) {
+            try {
+                v = Double.parseDouble(o.toString().trim());
+            } catch (NumberFormatException ignore) {
+                return Double.NaN;
+            }
+        } else {
+            return Double.NaN;
+        }
+        return Double.isInfinite(v) ? Double.NaN : v;
+    }
+
+    private static double volume(Object o) {
+        double v = num(o);
+        return Double.isNaN(v) || v < 0 ? 0.0 : v;
+    }
+}
@@ -0,0 +1,43 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Streaming RSI: Wilder-smoothed gains/losses of close-to-close moves (ta4j RSIIndicator).
+ */
+public final class Rsi {
+
+    private final Ema avgGain;
+    private final Ema avgLoss;
+    private double prevClose = Double.NaN;
+
+    public Rsi(int barCount) {
+        this.avgGain = Ema.wilder(barCount);
+        this.avgLoss = Ema.wilder(barCount);
+    }
+
+    public double update(double close) {
+        double d = Double.isNaN(prevClose) ? 0.0 : close - prevClose;
+        prevClose = close;
+        return rsi(avgGain.update(d > 0 ? d : 0.0), avgLoss.update(d < 0 ? -d : 0.0));
+    }
+
+    public double peek(double close) {
+        double d = Double.isNaN(prevClose) ? 0.0 : close - prevClose;
+        return rsi(avgGain.peek(d > 0 ? d : 0.0), avgLoss.peek(d < 0 ? -d : 0.0));
+    }
+
+    public double value() {
+        return rsi(avgGain.value(), avgLoss.value());
+    }
+
+    private static double rsi(double gain, double loss) {
+        if (loss == 0.0) return gain == 0.0 ? 0.0 : 100.0;
+        double rs = gain / loss;
+        return 100.0 - 100.0 / (1.0 + rs);
+    }
+
+    public void reset() {
+        avgGain.reset();
+        avgLoss.reset();
+        prevClose = Double.NaN;
+    }
+}
@@ -0,0 +1,50 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Rolling VWAP over the last n bars using the typical price (H+L+C)/3 (ta4j VWAPIndicator).
+ * NaN while the window holds no volume.
+ */
+public final class Vwap {
+
+    private final DoubleRing typical;
+    private final DoubleRing volume;
+
+    public Vwap(int barCount) {
+        this.typical = new DoubleRing(barCount);
+        this.volume = new DoubleRing(barCount);
+    }
+
+    public double update(double high, double low, double close, double vol) {
+        typical.add((high + low + close) / 3.0);
+        volume.add(vol);
+        return value();
+    }
+
+    public double peek(double high, double low, double close, double vol) {
+        int n = typical.size();
+        int skip = typical.isFull() ? 1 : 0;
+        double tpv = 0.0, cumVol = 0.0;
+        for (int i = skip; i < n; i++) {
+            tpv += typical.get(i) * volume.get(i);
+            cumVol += volume.get(i);
+        }
+        tpv += ((high + low + close) / 3.0) * vol;
+        cumVol += vol;
+        return cumVol == 0.0 ? Double.NaN : tpv / cumVol;
+    }
+
+    public double value() {
+        int n = typical.size();
+        double tpv = 0.0, cumVol = 0.0;
+        for (int i = 0; i < n; i++) {
+            tpv += typical.get(i) * volume.get(i);
+            cumVol += volume.get(i);
+        }
+        return cumVol == 0.0 ? Double.NaN : tpv / cumVol;
+    }
+
+    public void reset() {
+        typical.clear();
+        volume.clear();
+    }
+}
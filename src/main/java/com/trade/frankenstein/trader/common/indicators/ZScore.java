@@ -0,0 +1,70 @@
+package com.trade.frankenstein.trader.common.indicators;
+
+/**
+ * Momentum z-score of the latest value against a rolling window: (last - mean) / population stddev.
+ * Same arithmetic as MarketDataService's original mean/stddev helpers.
+ */
+public final class ZScore {
+
+    private final DoubleRing window;
+
+    public ZScore(int barCount) {
+        this.window = new DoubleRing(barCount);
+    }
+
+    public double update(double x) {
+        window.add(x);
+        return value();
+    }
+
+    public int size() {
+        return window.size();
+    }
+
+    /**
+     * z-score of the newest value; 0 for a flat window, NaN when empty.
+     */
+    public double value() {
+        int n = window.size();
+        if (n == 0) return Double.NaN;
+        double mean = mean(window);
+        double sd = stdDev(window, mean);
+        return sd <= 1e-8 ? 0.0 : (window.last() - mean) / sd;
+    }
+
+    /**
+     * One-shot z-score of a[off .. off+len) without allocating.
+     */
+    public static double of(double[] a, int off, int len) {
+        if (len <= 0) return Double.NaN;
+        double s = 0.0;
+        for (int i = off; i < off + len; i++) s += a[i];
+        double mean = s / len;
+        double s2 = 0.0;
+        for (int i = off; i < off + len; i++) {
+            double d = a[i] - mean;
+            s2 += d * d;
+        }
+        double sd = Math.sqrt(s2 / len);
+        return sd <= 1e-8 ? 0.0 : (a[off + len - 1] - mean) / sd;
+    }
+
+    private static double mean(DoubleRing r) {
+        double s = 0.0;
+        for (int i = 0; i < r.size(); i++) s += r.get(i);
+        return s / r.size();
+    }
+
+    private static double stdDev(DoubleRing r, double mean) {
+        double s2 = 0.0;
+        for (int i = 0; i < r.size(); i++) {
+            double d = r.get(i) - mean;
+            s2 += d * d;
+        }
+        return Math.sqrt(s2 / r.size());
+    }
+
+    public void reset() {
+        window.clear();
+    }
+}
@@ -1,10 +1,11 @@
 package com.trade.frankenstein.trader.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class ExecutorConfig {
@@ -13,5 +14,27 @@ public class ExecutorConfig {
     public ScheduledExecutorService scheduledExecutorService() {
         return Executors.newScheduledThreadPool(5); // Adjust pool size as needed
     }
-}
 
+    /**
+     * Bounded pool for StrategyService's per-cycle signal fan-out. When saturated a lookup is
+     * rejected rather than run inline (where its deadline could not apply); SignalFanout then
+     * completes it with null, the same as a miss.
+     */
+    @Bean(name = "strategyFanoutExecutor", destroyMethod = "shutdown")
+    public ExecutorService strategyFanoutExecutor(
+            @Value("${trade.strategy.fanout.threads:8}") int threads,
+            @Value("${trade.strategy.fanout.queue:64}") int queue) {
+        final AtomicInteger seq = new AtomicInteger();
+        final int n = Math.max(1, threads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(n, n, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queue)),
+                r -> {
+                    Thread t = new Thread(r, "strategy-fanout-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
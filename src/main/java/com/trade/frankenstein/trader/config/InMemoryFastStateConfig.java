@@ -2,16 +2,20 @@ package com.trade.frankenstein.trader.config;
 
 import com.trade.frankenstein.trader.core.FastStateStore;
 import com.trade.frankenstein.trader.core.InMemoryFastStateStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConditionalOnProperty(name = "trade.redis.enabled", havingValue = "false", matchIfMissing = false)
 public class InMemoryFastStateConfig {
 
     @Bean
-    public FastStateStore fastStateStore() {
-        return new InMemoryFastStateStore("tf:");
+    public FastStateStore fastStateStore(@Value("${trade.fss.memory.max-entries:100000}") int maxEntries,
+                                         @Value("${trade.fss.memory.sweep-tick-ms:250}") long sweepTickMs) {
+        return new InMemoryFastStateStore("tf:", maxEntries, Duration.ofMillis(sweepTickMs));
     }
 }
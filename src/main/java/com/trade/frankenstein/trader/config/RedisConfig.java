@@ -1,20 +1,40 @@
 package com.trade.frankenstein.trader.config;
 
 import com.trade.frankenstein.trader.core.FastStateStore;
+import com.trade.frankenstein.trader.core.NearCacheFastStateStore;
 import com.trade.frankenstein.trader.core.RedisFastStateStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+
+@Slf4j
 @Configuration
 @ConditionalOnProperty(name = "trade.redis.enabled", havingValue = "true")
 @RequiredArgsConstructor
 public class RedisConfig {
 
+    private static final String KEY_PREFIX = "tf:";
+    // K = keyspace channel, g = DEL/EXPIRE/RENAME..., $ = string writes, x = expired, e = evicted
+    private static final String KEYSPACE_FLAGS = "Kg$xe";
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         // host/port picked from spring.data.redis.* properties
@@ -27,7 +47,71 @@ public class RedisConfig {
     }
 
     @Bean
-    public FastStateStore fastStateStore(StringRedisTemplate template) {
-        return new RedisFastStateStore(template, "tf:");
+    public FastStateStore fastStateStore(StringRedisTemplate template,
+                                         @Value("${trade.redis.near-cache.enabled:true}") boolean nearCache,
+                                         @Value("${trade.redis.near-cache.prefixes:ltp:,md:,oi:,pf:}") String prefixes,
+                                         @Value("${trade.redis.near-cache.max-entries:10000}") int maxEntries,
+                                         @Value("${trade.redis.near-cache.max-ttl-ms:15000}") long maxTtlMs,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        RedisFastStateStore redis = new RedisFastStateStore(template, KEY_PREFIX);
+        if (!nearCache) return redis;
+
+        NearCacheFastStateStore store = new NearCacheFastStateStore(
+                redis, Arrays.asList(prefixes.split(",")), maxEntries, Duration.ofMillis(maxTtlMs));
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            for (String p : store.cacheablePrefixes()) {
+                FunctionCounter.builder("trade.fss.near.hits", store, s -> s.hits(p)).tag("prefix", p).register(registry);
+                FunctionCounter.builder("trade.fss.near.misses", store, s -> s.misses(p)).tag("prefix", p).register(registry);
+                Gauge.builder("trade.fss.near.hit_ratio", store, s -> s.hitRatio(p)).tag("prefix", p).register(registry);
+            }
+            Gauge.builder("trade.fss.near.size", store, NearCacheFastStateStore::size).register(registry);
+        }
+        return store;
+    }
+
+    /**
+     * Subscribes to keyspace notifications for our prefix so other instances' writes, deletes and
+     * expiries evict the local near-cache copy. Without notifications the near-cache still works,
+     * but entries can be stale for up to trade.redis.near-cache.max-ttl-ms.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "trade.redis.near-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer nearCacheInvalidationListener(RedisConnectionFactory cf, FastStateStore fastStateStore) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(cf);
+        if (!(fastStateStore instanceof NearCacheFastStateStore)) return container;
+
+        final NearCacheFastStateStore store = (NearCacheFastStateStore) fastStateStore;
+        enableKeyspaceEvents(cf);
+        container.addMessageListener((message, pattern) -> {
+            // channel: __keyspace@<db>__:<physical key>
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            int sep = channel.indexOf("__:");
+            if (sep < 0) return;
+            store.invalidate(store.delegate().logicalKey(channel.substring(sep + 3)));
+        }, new PatternTopic("__keyspace@*__:" + KEY_PREFIX + "*"));
+        store.invalidateAll();
+        return container;
+    }
+
+    /**
+     * Best effort: managed Redis often forbids CONFIG SET, in which case the server config must
+     * already include the keyspace flags.
+     */
+    private static void enableKeyspaceEvents(RedisConnectionFactory cf) {
+        try (RedisConnection c = cf.getConnection()) {
+            Properties p = c.serverCommands().getConfig("notify-keyspace-events");
+            String current = p == null ? "" : p.getProperty("notify-keyspace-events", "");
+            StringBuilder merged = new StringBuilder(current);
+            for (char f : KEYSPACE_FLAGS.toCharArray()) {
+                if (current.indexOf(f) < 0 && !(f != 'K' && current.indexOf('A') >= 0)) merged.append(f);
+            }
+            if (!merged.toString().equals(current)) {
+                c.serverCommands().setConfig("notify-keyspace-events", merged.toString());
+            }
+        } catch (Exception e) {
+            log.warn("Could not enable Redis keyspace notifications (near-cache falls back to TTL bound): {}", e.getMessage());
+        }
     }
 }
@@ -2,8 +2,10 @@
 package com.trade.frankenstein.trader.config;
 
 import com.trade.frankenstein.trader.common.Ta4jIndicators;
+import com.trade.frankenstein.trader.common.Ta4jSeriesCache;
 import com.trade.frankenstein.trader.common.constants.BacktestProperties;
 import com.trade.frankenstein.trader.common.constants.Ta4jProperties;
+import com.trade.frankenstein.trader.common.indicators.PrimitiveIndicators;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,4 +27,17 @@ public class Ta4jConfig {
         );
     }
 
+    @Bean
+    public Ta4jSeriesCache ta4jSeriesCache(Ta4jProperties props) {
+        return new Ta4jSeriesCache(props.getMaxBarCount());
+    }
+
+    /**
+     * Primitive kernels used instead of ta4j when trade.ta4j.engine=primitive.
+     */
+    @Bean
+    public PrimitiveIndicators primitiveIndicators() {
+        return new PrimitiveIndicators();
+    }
+
 }
@@ -1,7 +1,8 @@
 package com.trade.frankenstein.trader.core;
 
 import java.time.Duration;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * A tiny abstraction over a fast key-value store with TTL semantics.
@@ -12,6 +13,8 @@ import java.util.Optional;
  *  - TTL of null or non-positive means "no expiry".
  *  - incr(...) creates the key with value=1 if absent or expired,
  *    and only sets TTL when the key is created (rolling window).
+ *  - getAll/putAll/batch() are round-trip savers; the defaults simply
+ *    loop over the single-key methods, implementations may do better.
  */
 public interface FastStateStore {
 
@@ -27,4 +30,86 @@ public interface FastStateStore {
 
     // Atomic counter with rolling TTL (rate limits)
     long incr(String key, Duration ttlIfNew);
+
+    // Remaining TTL; empty if the key is absent, has no expiry, or the store cannot tell
+    default Optional<Duration> ttl(String key) {
+        return Optional.empty();
+    }
+
+    // Multi-key read; absent/expired keys are left out of the result
+    default Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (keys == null) return out;
+        for (String key : keys) {
+            get(key).ifPresent(v -> out.put(key, v));
+        }
+        return out;
+    }
+
+    // Multi-key write, same TTL for every entry
+    default void putAll(Map<String, String> entries, Duration ttl) {
+        if (entries == null) return;
+        for (Map.Entry<String, String> e : entries.entrySet()) {
+            put(e.getKey(), e.getValue(), ttl);
+        }
+    }
+
+    // Queue several writes and send them together
+    default Batch batch() {
+        return new SequentialBatch(this);
+    }
+
+    /**
+     * Write-side batch handle. Operations are buffered until {@link #execute()}
+     * and sent together; replies are not returned, so call incr(...) directly
+     * when the counter value is needed. Not thread-safe; use one handle per caller.
+     */
+    interface Batch {
+
+        Batch put(String key, String value, Duration ttl);
+
+        Batch delete(String key);
+
+        Batch incr(String key, Duration ttlIfNew);
+
+        void execute();
+    }
+
+    /**
+     * Fallback batch that replays operations one by one against the store.
+     */
+    final class SequentialBatch implements Batch {
+
+        private final FastStateStore store;
+        private final List<Consumer<FastStateStore>> ops = new ArrayList<>();
+
+        SequentialBatch(FastStateStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Batch put(String key, String value, Duration ttl) {
+            ops.add(s -> s.put(key, value, ttl));
+            return this;
+        }
+
+        @Override
+        public Batch delete(String key) {
+            ops.add(s -> s.delete(key));
+            return this;
+        }
+
+        @Override
+        public Batch incr(String key, Duration ttlIfNew) {
+            ops.add(s -> s.incr(key, ttlIfNew));
+            return this;
+        }
+
+        @Override
+        public void execute() {
+            List<Consumer<FastStateStore>> queued = new ArrayList<>(ops);
+            ops.clear();
+            for (Consumer<FastStateStore> op : queued) op.accept(store);
+        }
+    }
 }
@@ -1,26 +1,100 @@
 package com.trade.frankenstein.trader.core;
 
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * In-memory implementation of FastStateStore.
  * Intended for local/dev/testing only (single JVM).
+ * getAll/putAll/batch() use the interface defaults: there are no round-trips
+ * to save here, and each single-key op already has the Redis semantics.
+ * <p>
+ * Memory stays flat on long-running instances:
+ * <ul>
+ *   <li>TTL'd keys are reaped by a hashed timing wheel swept on a daemon thread, so keys that
+ *   are never read again (idempotency:*, ltp:*, md:*) do not linger.</li>
+ *   <li>The map is bounded by maxEntries; overflow evicts with CLOCK (second-chance LRU
+ *   approximation): entries touched since the hand last passed get one more round.</li>
+ *   <li>Counters are native longs updated in place; values are updated in place on put.</li>
+ * </ul>
+ * All mutations go through {@link ConcurrentHashMap#compute}, so an entry's fields are only
+ * written under its bin lock; reads stay lock-free.
  */
-public final class InMemoryFastStateStore implements FastStateStore {
+public final class InMemoryFastStateStore implements FastStateStore, AutoCloseable {
+
+    private static final int WHEEL_SLOTS = 512; // power of two
+    private static final int DEFAULT_MAX_ENTRIES = 100_000;
+    private static final long DEFAULT_TICK_MS = 250L;
 
     private static final class Entry {
-        String v;
-        long expAtMillis; // 0 = no expiry
+        final boolean counter;
+        volatile String v;          // value entries
+        volatile long n;            // counter entries
+        volatile long expAtMillis;  // 0 = no expiry
+        volatile boolean referenced;
+        long wheelTick = -1L;       // tick of the live wheel node, -1 = none (bin-locked)
+
+        Entry(boolean counter, long expAtMillis) {
+            this.counter = counter;
+            this.expAtMillis = expAtMillis;
+        }
+
+        String value() {
+            return counter ? Long.toString(n) : v;
+        }
+    }
+
+    private static final class Node {
+        final String key;
+        final Entry entry;
+        final long tick;
+
+        Node(String key, Entry entry, long tick) {
+            this.key = key;
+            this.entry = entry;
+            this.tick = tick;
+        }
     }
 
     private final ConcurrentMap<String, Entry> map = new ConcurrentHashMap<>();
     private final String prefix; // e.g., "tf:"
+    private final int maxEntries;
+    private final long tickMs;
+
+    private final AtomicReferenceArray<ConcurrentLinkedQueue<Node>> wheel = new AtomicReferenceArray<>(WHEEL_SLOTS);
+    private volatile long lastSweptTick;
+    private final ScheduledExecutorService sweeper;
+
+    private final ConcurrentLinkedQueue<String> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockSize = new AtomicInteger();
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
 
     public InMemoryFastStateStore(String prefix) {
+        this(prefix, DEFAULT_MAX_ENTRIES, Duration.ofMillis(DEFAULT_TICK_MS));
+    }
+
+    public InMemoryFastStateStore(String prefix, int maxEntries, Duration sweepTick) {
         this.prefix = prefix == null ? "" : prefix;
+        this.maxEntries = Math.max(16, maxEntries);
+        this.tickMs = (sweepTick == null || sweepTick.isZero() || sweepTick.isNegative())
+                ? DEFAULT_TICK_MS : Math.max(10L, sweepTick.toMillis());
+        for (int i = 0; i < WHEEL_SLOTS; i++) wheel.set(i, new ConcurrentLinkedQueue<>());
+        this.lastSweptTick = now() / tickMs;
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fss-mem-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweepSafe, tickMs, tickMs, TimeUnit.MILLISECONDS);
     }
 
     private static long now() {
@@ -31,31 +105,75 @@ public final class InMemoryFastStateStore implements FastStateStore {
         return e != null && e.expAtMillis > 0 && now >= e.expAtMillis;
     }
 
+    private static long expAt(Duration ttl, long now) {
+        return (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0L : (now + ttl.toMillis());
+    }
+
     private String k(String key) {
         return prefix + key;
     }
 
+    public int size() {
+        return map.size();
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    // ---------------------------------------------------------------------
+    // FastStateStore
+    // ---------------------------------------------------------------------
+
     @Override
     public void put(String key, String value, Duration ttl) {
         final String kk = k(key);
         final long n = now();
-        final Entry e = new Entry();
-        e.v = value;
-        e.expAtMillis = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0L : (n + ttl.toMillis());
-        map.put(kk, e);
+        final long exp = expAt(ttl, n);
+        final boolean[] created = {false};
+        map.compute(kk, (kx, e) -> {
+            if (e == null || e.counter || isExpired(e, n)) {
+                e = new Entry(false, exp);
+                created[0] = true;
+            } else {
+                e.expAtMillis = exp;
+                e.referenced = true;
+            }
+            e.v = value;
+            schedule(kx, e);
+            return e;
+        });
+        if (created[0]) admitted(kk);
     }
 
     @Override
     public Optional<String> get(String key) {
         final String kk = k(key);
-        final long n = now();
         final Entry e = map.get(kk);
         if (e == null) return Optional.empty();
-        if (isExpired(e, n)) {
-            map.remove(kk, e);
+        if (isExpired(e, now())) {
+            if (map.remove(kk, e)) expired.increment();
             return Optional.empty();
         }
-        return Optional.ofNullable(e.v);
+        e.referenced = true;
+        return Optional.ofNullable(e.value());
+    }
+
+    @Override
+    public Optional<Duration> ttl(String key) {
+        final Entry e = map.get(k(key));
+        final long n = now();
+        if (e == null || e.expAtMillis == 0L || isExpired(e, n)) return Optional.empty();
+        return Optional.of(Duration.ofMillis(e.expAtMillis - n));
     }
 
     @Override
@@ -67,77 +185,161 @@ public final class InMemoryFastStateStore implements FastStateStore {
     public boolean setIfAbsent(String key, String value, Duration ttl) {
         final String kk = k(key);
         final long n = now();
-
-        for (; ; ) {
-            final Entry existing = map.get(kk);
-            if (existing != null) {
-                if (isExpired(existing, n)) {
-                    // try to replace expired with new entry
-                    final Entry fresh = new Entry();
-                    fresh.v = value;
-                    fresh.expAtMillis = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0L : (n + ttl.toMillis());
-                    if (map.replace(kk, existing, fresh)) {
-                        return true;
-                    } else {
-                        // lost race; retry
-                        continue;
-                    }
-                } else {
-                    return false; // already present and not expired
-                }
-            } else {
-                final Entry fresh = new Entry();
-                fresh.v = value;
-                fresh.expAtMillis = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0L : (n + ttl.toMillis());
-                if (map.putIfAbsent(kk, fresh) == null) {
-                    return true;
-                }
-                // lost race; retry
-            }
-        }
+        final boolean[] created = {false};
+        map.compute(kk, (kx, e) -> {
+            if (e != null && !isExpired(e, n)) return e; // already present and not expired
+            Entry fresh = new Entry(false, expAt(ttl, n));
+            fresh.v = value;
+            schedule(kx, fresh);
+            created[0] = true;
+            return fresh;
+        });
+        if (created[0]) admitted(kk);
+        return created[0];
     }
 
     @Override
     public long incr(String key, Duration ttlIfNew) {
         final String kk = k(key);
         final long n = now();
+        final long[] out = {0L};
+        final boolean[] created = {false};
+        map.compute(kk, (kx, e) -> {
+            if (e == null || isExpired(e, n)) {
+                Entry fresh = new Entry(true, expAt(ttlIfNew, n));
+                fresh.n = 1L;
+                schedule(kx, fresh);
+                created[0] = true;
+                out[0] = 1L;
+                return fresh;
+            }
+            if (!e.counter) {
+                // value written by put(...); adopt it as a counter, preserving its expiry window
+                long base;
+                try {
+                    base = Long.parseLong(e.v);
+                } catch (NumberFormatException ex) {
+                    base = 0L;
+                }
+                Entry c = new Entry(true, e.expAtMillis);
+                c.n = base + 1L;
+                schedule(kx, c);
+                out[0] = c.n;
+                return c;
+            }
+            e.n = e.n + 1L; // single writer under the bin lock
+            e.referenced = true;
+            out[0] = e.n;
+            return e;
+        });
+        if (created[0]) admitted(kk);
+        return out[0];
+    }
 
-        for (; ; ) {
-            Entry cur = map.get(kk);
-            if (cur == null || isExpired(cur, n)) {
-                final Entry fresh = new Entry();
-                fresh.v = "1";
-                fresh.expAtMillis = (ttlIfNew == null || ttlIfNew.isZero() || ttlIfNew.isNegative())
-                        ? 0L : (n + ttlIfNew.toMillis());
-                if (cur == null) {
-                    if (map.putIfAbsent(kk, fresh) == null) {
-                        return 1L;
-                    }
-                } else {
-                    if (map.replace(kk, cur, fresh)) {
-                        return 1L;
-                    }
+    // ---------------------------------------------------------------------
+    // Timing wheel
+    // ---------------------------------------------------------------------
+
+    /**
+     * Ensures a wheel node exists at or before e's expiry tick. Called under kx's bin lock.
+     * A node that fires early (expiry was pushed out) simply reschedules itself.
+     */
+    private void schedule(String kx, Entry e) {
+        if (e.expAtMillis <= 0) return;
+        long tick = Math.max(ceilDiv(e.expAtMillis, tickMs), lastSweptTick + 1);
+        if (e.wheelTick >= 0 && e.wheelTick <= tick) return;
+        e.wheelTick = tick;
+        wheel.get((int) (tick & (WHEEL_SLOTS - 1))).offer(new Node(kx, e, tick));
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    private void sweepSafe() {
+        try {
+            sweep();
+        } catch (Throwable ignored) {
+            // keep the sweeper alive
+        }
+    }
+
+    private void sweep() {
+        final long current = now() / tickMs;
+        final long from = lastSweptTick + 1;
+        // After a long stall one full rotation covers every slot
+        final long start = Math.max(from, current - WHEEL_SLOTS + 1);
+        for (long t = start; t <= current; t++) {
+            final int slot = (int) (t & (WHEEL_SLOTS - 1));
+            lastSweptTick = t; // new nodes for this tick go to the next one
+            final ConcurrentLinkedQueue<Node> due = wheel.getAndSet(slot, new ConcurrentLinkedQueue<>());
+            final long n = now();
+            for (Node node; (node = due.poll()) != null; ) {
+                if (node.tick > current) {
+                    wheel.get(slot).offer(node); // a later rotation
+                    continue;
                 }
-                // lost race; retry
-                continue;
+                final Node nd = node;
+                map.computeIfPresent(nd.key, (kx, e) -> {
+                    if (e != nd.entry || e.wheelTick != nd.tick) return e; // superseded
+                    e.wheelTick = -1L;
+                    if (isExpired(e, n)) {
+                        expired.increment();
+                        return null;
+                    }
+                    schedule(kx, e);
+                    return e;
+                });
             }
+        }
+        if (lastSweptTick < current) lastSweptTick = current;
+        compactClock();
+    }
+
+    // ---------------------------------------------------------------------
+    // Bound (CLOCK)
+    // ---------------------------------------------------------------------
+
+    private void admitted(String kk) {
+        clock.offer(kk);
+        clockSize.incrementAndGet();
+        if (map.size() > maxEntries) evict();
+    }
 
-            // parse and increment
-            long val;
-            try {
-                val = Long.parseLong(cur.v);
-            } catch (NumberFormatException ex) {
-                val = 0L;
+    private void evict() {
+        int secondChances = clockSize.get();
+        while (map.size() > maxEntries) {
+            final String kk = clock.poll();
+            if (kk == null) return;
+            clockSize.decrementAndGet();
+            final Entry e = map.get(kk);
+            if (e == null) continue; // already gone
+            if (e.referenced && secondChances-- > 0) {
+                e.referenced = false;
+                clock.offer(kk);
+                clockSize.incrementAndGet();
+                continue;
             }
-            final Entry next = new Entry();
-            next.v = Long.toString(val + 1L);
-            // preserve existing expiry window
-            next.expAtMillis = cur.expAtMillis;
+            if (map.remove(kk, e)) evicted.increment();
+        }
+    }
 
-            if (map.replace(kk, cur, next)) {
-                return val + 1L;
+    /**
+     * Drops clock slots of keys that expired or were deleted (and duplicates from re-inserts),
+     * so the ring cannot outgrow the map. Only the slots present at the start are visited.
+     */
+    private void compactClock() {
+        final int size = clockSize.get();
+        if (size <= 2 * map.size() + 1024) return;
+        final Set<String> seen = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            final String kk = clock.poll();
+            if (kk == null) break;
+            clockSize.decrementAndGet();
+            if (map.containsKey(kk) && seen.add(kk)) {
+                clock.offer(kk);
+                clockSize.incrementAndGet();
             }
-            // lost race; retry
         }
     }
 }
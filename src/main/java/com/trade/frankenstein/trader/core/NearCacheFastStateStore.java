@@ -0,0 +1,319 @@
+package com.trade.frankenstein.trader.core;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier FastStateStore: a bounded local L1 in front of Redis (L2).
+ * <p>
+ * Only keys under the configured cacheable prefixes (e.g. "md:", "ltp:") are kept locally;
+ * everything else goes straight to Redis. An L1 entry never outlives the Redis TTL it was read
+ * with (GET+PTTL in one pipeline) nor maxLocalTtl. Writes made through this store drop the local
+ * copy; writes made by other instances arrive as keyspace notifications and are applied through
+ * {@link #invalidate(String)}. Each key maps to one of a fixed set of version stripes; a read that
+ * raced with an invalidation of a key in the same stripe is not cached, so a value evicted mid-load
+ * cannot be resurrected, while churn on unrelated keys does not stop caching.
+ * <p>
+ * setIfAbsent and counters always go to Redis: an L1 copy may outlive a remote delete.
+ */
+public final class NearCacheFastStateStore implements FastStateStore {
+
+    private static final class Entry {
+        final String v;
+        final long expAtMillis;
+
+        Entry(String v, long expAtMillis) {
+            this.v = v;
+            this.expAtMillis = expAtMillis;
+        }
+    }
+
+    private static final int VERSION_STRIPES = 256; // power of two
+
+    private static final class PrefixStats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+
+    private final RedisFastStateStore l2;
+    private final ConcurrentMap<String, Entry> l1 = new ConcurrentHashMap<>();
+    private final List<String> prefixes;
+    private final Map<String, PrefixStats> stats = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final long maxLocalTtlMs;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public NearCacheFastStateStore(RedisFastStateStore l2, Collection<String> cacheablePrefixes,
+                                   int maxEntries, Duration maxLocalTtl) {
+        if (l2 == null) {
+            throw new IllegalArgumentException("l2 must not be null");
+        }
+        this.l2 = l2;
+        List<String> ps = new ArrayList<>();
+        if (cacheablePrefixes != null) {
+            for (String p : cacheablePrefixes) {
+                if (p != null && !p.trim().isEmpty()) ps.add(p.trim());
+            }
+        }
+        this.prefixes = Collections.unmodifiableList(ps);
+        for (String p : prefixes) stats.put(p, new PrefixStats());
+        this.maxEntries = Math.max(16, maxEntries);
+        this.maxLocalTtlMs = (maxLocalTtl == null || maxLocalTtl.isNegative() || maxLocalTtl.isZero())
+                ? 15_000L : maxLocalTtl.toMillis();
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    private String prefixOf(String key) {
+        if (key == null) return null;
+        for (String p : prefixes) {
+            if (key.startsWith(p)) return p;
+        }
+        return null;
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    private long version(String key) {
+        return versions.get(stripe(key));
+    }
+
+    private String localHit(String key, String prefix) {
+        Entry e = l1.get(key);
+        if (e != null && now() < e.expAtMillis) {
+            stats.get(prefix).hits.increment();
+            return e.v;
+        }
+        if (e != null) l1.remove(key, e);
+        stats.get(prefix).misses.increment();
+        return null;
+    }
+
+    private void cacheLocally(String key, RedisFastStateStore.Timed t, long version) {
+        if (t.ttlMs == 0L || t.ttlMs < -1L) return; // expiring right now / vanished
+        long life = t.ttlMs > 0 ? Math.min(t.ttlMs, maxLocalTtlMs) : maxLocalTtlMs;
+        if (l1.size() >= maxEntries) trim();
+        Entry e = new Entry(t.value, now() + life);
+        l1.put(key, e);
+        // An invalidation in this key's stripe landed while we were loading; don't trust what we read
+        if (version(key) != version) l1.remove(key, e);
+    }
+
+    /**
+     * Drops expired entries, then arbitrary ones until ~10% below the bound.
+     */
+    private void trim() {
+        final long n = now();
+        l1.entrySet().removeIf(en -> n >= en.getValue().expAtMillis);
+        int excess = l1.size() - (maxEntries - maxEntries / 10);
+        if (excess <= 0) return;
+        Iterator<String> it = l1.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Drops the local copy of a logical key; called for local writes and remote notifications.
+     * Keys outside the cacheable prefixes are never held locally and are ignored.
+     */
+    public void invalidate(String key) {
+        if (prefixOf(key) == null) return;
+        versions.incrementAndGet(stripe(key));
+        invalidations.increment();
+        l1.remove(key);
+    }
+
+    /**
+     * Drops every local copy, e.g. after the notification subscription was (re)established.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) versions.incrementAndGet(i);
+        invalidations.increment();
+        l1.clear();
+    }
+
+    public RedisFastStateStore delegate() {
+        return l2;
+    }
+
+    public List<String> cacheablePrefixes() {
+        return prefixes;
+    }
+
+    public long hits(String prefix) {
+        PrefixStats s = stats.get(prefix);
+        return s == null ? 0L : s.hits.sum();
+    }
+
+    public long misses(String prefix) {
+        PrefixStats s = stats.get(prefix);
+        return s == null ? 0L : s.misses.sum();
+    }
+
+    public double hitRatio(String prefix) {
+        long h = hits(prefix), m = misses(prefix);
+        return (h + m) == 0 ? 0.0 : (double) h / (h + m);
+    }
+
+    public int size() {
+        return l1.size();
+    }
+
+    /**
+     * Per-prefix hits/misses/ratio plus L1 size and evictions.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String p : prefixes) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("hits", hits(p));
+            m.put("misses", misses(p));
+            m.put("hitRatio", hitRatio(p));
+            out.put(p, m);
+        }
+        out.put("size", l1.size());
+        out.put("evictions", evictions.sum());
+        out.put("invalidations", invalidations.sum());
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+    // FastStateStore
+    // ---------------------------------------------------------------------
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        l2.put(key, value, ttl);
+        invalidate(key);
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        final String p = prefixOf(key);
+        if (p == null) return l2.get(key);
+
+        String hit = localHit(key, p);
+        if (hit != null) return Optional.of(hit);
+
+        final long version = version(key);
+        RedisFastStateStore.Timed t = l2.getAllWithTtl(Collections.singletonList(key)).get(key);
+        if (t == null) return Optional.empty();
+        cacheLocally(key, t, version);
+        return Optional.of(t.value);
+    }
+
+    @Override
+    public void delete(String key) {
+        l2.delete(key);
+        invalidate(key);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        boolean ok = l2.setIfAbsent(key, value, ttl);
+        if (ok) invalidate(key);
+        return ok;
+    }
+
+    @Override
+    public Optional<Duration> ttl(String key) {
+        return l2.ttl(key);
+    }
+
+    @Override
+    public long incr(String key, Duration ttlIfNew) {
+        long v = l2.incr(key, ttlIfNew);
+        invalidate(key);
+        return v;
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) return out;
+
+        List<String> cachedMisses = new ArrayList<>();
+        List<String> passThrough = new ArrayList<>();
+        for (String key : keys) {
+            String p = prefixOf(key);
+            if (p == null) {
+                passThrough.add(key);
+                continue;
+            }
+            String hit = localHit(key, p);
+            if (hit != null) out.put(key, hit);
+            else cachedMisses.add(key);
+        }
+        if (!cachedMisses.isEmpty()) {
+            final Map<String, Long> before = new HashMap<>();
+            for (String key : cachedMisses) before.put(key, version(key));
+            Map<String, RedisFastStateStore.Timed> loaded = l2.getAllWithTtl(cachedMisses);
+            for (Map.Entry<String, RedisFastStateStore.Timed> e : loaded.entrySet()) {
+                cacheLocally(e.getKey(), e.getValue(), before.get(e.getKey()));
+                out.put(e.getKey(), e.getValue().value);
+            }
+        }
+        if (!passThrough.isEmpty()) out.putAll(l2.getAll(passThrough));
+        return out;
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, Duration ttl) {
+        l2.putAll(entries, ttl);
+        if (entries != null) {
+            for (String key : entries.keySet()) invalidate(key);
+        }
+    }
+
+    @Override
+    public Batch batch() {
+        final Batch inner = l2.batch();
+        final List<String> touched = new ArrayList<>();
+        return new Batch() {
+            @Override
+            public Batch put(String key, String value, Duration ttl) {
+                inner.put(key, value, ttl);
+                touched.add(key);
+                return this;
+            }
+
+            @Override
+            public Batch delete(String key) {
+                inner.delete(key);
+                touched.add(key);
+                return this;
+            }
+
+            @Override
+            public Batch incr(String key, Duration ttlIfNew) {
+                inner.incr(key, ttlIfNew);
+                touched.add(key);
+                return this;
+            }
+
+            @Override
+            public void execute() {
+                try {
+                    inner.execute();
+                } finally {
+                    for (String key : touched) invalidate(key);
+                    touched.clear();
+                }
+            }
+        };
+    }
+}
@@ -1,17 +1,40 @@
 package com.trade.frankenstein.trader.core;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.time.Duration;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis implementation using StringRedisTemplate.
  * Keys are prefixed with the provided prefix (e.g., "tf:").
+ * <p>
+ * incr runs as a Lua script so the increment and the TTL are applied in one
+ * atomic round-trip; getAll is a single MGET and batches/putAll are pipelined.
+ * Script calls always go through the template directly, never inside a
+ * pipeline: EVALSHA's NOSCRIPT -> EVAL fallback cannot run there.
  */
 public final class RedisFastStateStore implements FastStateStore {
 
+    /**
+     * INCR, then PEXPIRE when the key was just created (or lost its TTL to an
+     * older non-atomic incr). ARGV[1] is the TTL in ms, 0 = no expiry.
+     */
+    private static final RedisScript<Long> INCR_WITH_TTL = new DefaultRedisScript<>(
+            "local v = redis.call('INCR', KEYS[1]) "
+                    + "local ttl = tonumber(ARGV[1]) "
+                    + "if ttl > 0 and (v == 1 or redis.call('PTTL', KEYS[1]) == -1) then "
+                    + "redis.call('PEXPIRE', KEYS[1], ttl) end "
+                    + "return v",
+            Long.class);
+
     private final StringRedisTemplate redis;
     private final String prefix;
 
@@ -59,14 +82,183 @@ public final class RedisFastStateStore implements FastStateStore {
         }
     }
 
+    @Override
+    public Optional<Duration> ttl(String key) {
+        Long ms = redis.getExpire(k(key), TimeUnit.MILLISECONDS); // PTTL: -2 absent, -1 no expiry
+        return (ms == null || ms <= 0) ? Optional.empty() : Optional.of(Duration.ofMillis(ms));
+    }
+
     @Override
     public long incr(String key, Duration ttlIfNew) {
-        final String k = k(key);
-        Long val = redis.opsForValue().increment(k);
-        if (val != null && val == 1L && ttlIfNew != null && !ttlIfNew.isZero() && !ttlIfNew.isNegative()) {
-            // set TTL only when the key is created to emulate rolling window
-            redis.expire(k, ttlIfNew.toMillis(), TimeUnit.MILLISECONDS);
-        }
+        Long val = redis.execute(INCR_WITH_TTL, Collections.singletonList(k(key)), ttlArg(ttlIfNew));
         return val == null ? 0L : val;
     }
+
+    @Override
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) return out;
+        List<String> ordered = new ArrayList<>(keys);
+        List<String> prefixed = new ArrayList<>(ordered.size());
+        for (String key : ordered) prefixed.add(k(key));
+        List<String> vals = redis.opsForValue().multiGet(prefixed);
+        if (vals == null) return out;
+        for (int i = 0; i < ordered.size() && i < vals.size(); i++) {
+            if (vals.get(i) != null) out.put(ordered.get(i), vals.get(i));
+        }
+        return out;
+    }
+
+    /**
+     * Values plus remaining TTL (ms, -1 = no expiry) for keys, as GET+PTTL pairs in one
+     * pipeline; absent keys are left out. Used by the near-cache to bound its local copies.
+     */
+    public Map<String, Timed> getAllWithTtl(Collection<String> keys) {
+        Map<String, Timed> out = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) return out;
+        final List<String> ordered = new ArrayList<>(keys);
+        List<Object> raw = redis.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> o = (RedisOperations<String, String>) operations;
+                for (String key : ordered) {
+                    String k = k(key);
+                    o.opsForValue().get(k);
+                    o.getExpire(k, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+        });
+        for (int i = 0; i < ordered.size() && (2 * i + 1) < raw.size(); i++) {
+            Object v = raw.get(2 * i);
+            Object ttl = raw.get(2 * i + 1);
+            if (v == null) continue;
+            long ttlMs = ttl instanceof Number ? ((Number) ttl).longValue() : -1L;
+            out.put(ordered.get(i), new Timed(String.valueOf(v), ttlMs));
+        }
+        return out;
+    }
+
+    /**
+     * A value and its remaining TTL in ms at read time (-1 = no expiry).
+     */
+    public static final class Timed {
+        public final String value;
+        public final long ttlMs;
+
+        public Timed(String value, long ttlMs) {
+            this.value = value;
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    /**
+     * Physical key for a logical one (with the store prefix).
+     */
+    public String physicalKey(String key) {
+        return k(key);
+    }
+
+    /**
+     * Logical key for a physical one, or null if it is outside this store's prefix.
+     */
+    public String logicalKey(String physicalKey) {
+        if (physicalKey == null || !physicalKey.startsWith(prefix)) return null;
+        return physicalKey.substring(prefix.length());
+    }
+
+    @Override
+    public void putAll(Map<String, String> entries, Duration ttl) {
+        if (entries == null || entries.isEmpty()) return;
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            Map<String, String> prefixed = new LinkedHashMap<>();
+            for (Map.Entry<String, String> e : entries.entrySet()) prefixed.put(k(e.getKey()), e.getValue());
+            redis.opsForValue().multiSet(prefixed);
+            return;
+        }
+        Batch b = batch();
+        for (Map.Entry<String, String> e : entries.entrySet()) b.put(e.getKey(), e.getValue(), ttl);
+        b.execute();
+    }
+
+    @Override
+    public Batch batch() {
+        return new PipelinedBatch();
+    }
+
+    private static String ttlArg(Duration ttl) {
+        return (ttl == null || ttl.isZero() || ttl.isNegative()) ? "0" : Long.toString(ttl.toMillis());
+    }
+
+    /**
+     * Buffers operations and sends them in order on execute(): plain commands in
+     * pipelines, incr scripts as direct calls between them.
+     */
+    private final class PipelinedBatch implements Batch {
+
+        private record Op(boolean script, Consumer<RedisOperations<String, String>> call) {
+        }
+
+        private final List<Op> ops = new ArrayList<>();
+
+        @Override
+        public Batch put(String key, String value, Duration ttl) {
+            final String k = k(key);
+            if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+                ops.add(new Op(false, o -> o.opsForValue().set(k, value)));
+            } else {
+                final long ms = ttl.toMillis();
+                ops.add(new Op(false, o -> o.opsForValue().set(k, value, ms, TimeUnit.MILLISECONDS)));
+            }
+            return this;
+        }
+
+        @Override
+        public Batch delete(String key) {
+            final String k = k(key);
+            ops.add(new Op(false, o -> o.delete(k)));
+            return this;
+        }
+
+        @Override
+        public Batch incr(String key, Duration ttlIfNew) {
+            final List<String> keys = Collections.singletonList(k(key));
+            final String ttl = ttlArg(ttlIfNew);
+            ops.add(new Op(true, o -> o.execute(INCR_WITH_TTL, keys, ttl)));
+            return this;
+        }
+
+        @Override
+        public void execute() {
+            if (ops.isEmpty()) return;
+            final List<Op> queued = new ArrayList<>(ops);
+            ops.clear();
+
+            List<Consumer<RedisOperations<String, String>>> run = new ArrayList<>();
+            for (Op op : queued) {
+                if (!op.script()) {
+                    run.add(op.call());
+                    continue;
+                }
+                pipeline(run);
+                run = new ArrayList<>();
+                op.call().accept(redis); // EVALSHA with EVAL fallback
+            }
+            pipeline(run);
+        }
+
+        private void pipeline(List<Consumer<RedisOperations<String, String>>> queued) {
+            if (queued.isEmpty()) return;
+            redis.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> o = (RedisOperations<String, String>) operations;
+                    for (Consumer<RedisOperations<String, String>> op : queued) op.accept(o);
+                    return null;
+                }
+            });
+        }
+    }
 }
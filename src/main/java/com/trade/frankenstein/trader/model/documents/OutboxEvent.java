@@ -30,4 +30,11 @@ public class OutboxEvent {
 
     @Field("published_at")
     private Instant publishedAt;
+
+    // Relay claim: the batch token and lease expiry of the relay currently publishing this row
+    @Field("claim_token")
+    private String claimToken;
+
+    @Field("lease_until")
+    private Instant leaseUntil;
 }
@@ -8,5 +8,9 @@ import java.util.List;
 
 @Repository
 public interface OutboxEventRepo extends MongoRepository<OutboxEvent, String> {
+    /**
+     * @deprecated unbounded; {@code OutboxPublisher} claims leased pages via MongoTemplate instead.
+     */
+    @Deprecated
     List<OutboxEvent> findByPublishedFalseOrderByCreatedAtAsc();
 }
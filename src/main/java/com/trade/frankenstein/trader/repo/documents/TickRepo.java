@@ -1,7 +1,9 @@
 package com.trade.frankenstein.trader.repo.documents;
 
 import com.trade.frankenstein.trader.model.documents.Tick;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -41,5 +43,18 @@ public interface TickRepo extends MongoRepository<Tick, String> {
      */
     long deleteBySymbolAndTsBetween(String symbol, Instant from, Instant to);
 
+    /**
+     * Unbounded full-history scan; prefer {@link #findRecent} for windowed reads.
+     */
+    @Deprecated
     List<Tick> findBySymbolOrderByTsDesc(String instrumentKey);
+
+    /**
+     * Newest-first ticks after a cutoff, bounded by the page size and projected to ts/ltp/quantity.
+     * Served by the {symbol, ts} index, so cost is O(window) regardless of retained history.
+     */
+    @Query(value = "{'symbol': ?0, 'ts': {'$gt': ?1}}",
+            fields = "{'ts': 1, 'ltp': 1, 'quantity': 1}",
+            sort = "{'ts': -1}")
+    List<Tick> findRecent(String symbol, Instant after, Pageable pageable);
 }
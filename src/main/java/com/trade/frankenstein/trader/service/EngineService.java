@@ -7,6 +7,7 @@ import com.trade.frankenstein.trader.bus.EventBusConfig;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.TickContext;
 import com.trade.frankenstein.trader.common.Underlyings;
 import com.trade.frankenstein.trader.enums.AdviceStatus;
 import com.trade.frankenstein.trader.model.documents.Advice;
@@ -170,6 +171,8 @@ public class EngineService {
         EngineState state = new EngineState(
                 running.get(), startedAt, lastTickAt, ticks.get(), lastExecuted, lastError, Instant.now()
         );
+        state.setMemoHits(TickContext.totalHits());
+        state.setMemoMisses(TickContext.totalMisses());
         return Result.ok(state);
     }
 
@@ -185,6 +188,14 @@ public class EngineService {
             return;
         }
 
+        // One memo scope per cycle: repeated LTP/candle/risk/position reads below hit it
+        try (TickContext ctx = TickContext.open()) {
+            runTick();
+            log.debug("tick(): memo hits={}, misses={}", ctx.hits(), ctx.misses());
+        }
+    }
+
+    private void runTick() {
         lastTickAt = Instant.now();
         lastExecuted = 0;
         lastError = null;
@@ -236,7 +247,7 @@ public class EngineService {
             }
             try {
                 JsonNode node = mapper.valueToTree(engIn);
-                stream.publishDecision("decision.inputs", node.toPrettyString());
+                stream.publishDecision("decision.inputs", node);
             } catch (Exception ignore) {
             }
         } catch (Exception ignore) {
@@ -715,7 +726,7 @@ public class EngineService {
      */
     private Float getCurrentAtrPctSafe() {
         try {
-            GetIntraDayCandleResponse ic = upstoxService.getIntradayCandleData(underlyingKey, "minutes", "5");
+            GetIntraDayCandleResponse ic = marketDataService.getIntradayCandles(underlyingKey, "minutes", "5");
             List<List<Object>> cs = (ic == null) ? null : ic.getData().getCandles();
             if (cs == null || cs.size() < 21) return null;
 
@@ -863,6 +874,9 @@ public class EngineService {
         private long lastExecuted;
         private String lastError;
         private Instant asOf;
+        // Cumulative per-tick memo counters (reads served from / loaded into TickContext)
+        private long memoHits;
+        private long memoMisses;
 
         public EngineState(boolean b, Instant startedAt, Instant lastTickAt, long l, long lastExecuted, String lastError, Instant now) {
             this.running = b;
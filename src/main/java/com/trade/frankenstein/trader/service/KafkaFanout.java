@@ -0,0 +1,252 @@
+package com.trade.frankenstein.trader.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.*;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Kafka consumer engine behind the SSE fan-out.
+ * <p>
+ * Runs a configurable number of consumers in one group. Each poll is split per partition and
+ * every partition batch is handed to the sink on a worker lane chosen by partition, so records
+ * of one partition stay ordered while different partitions are dispatched in parallel. Lanes
+ * are single-threaded with bounded queues; a full lane runs the batch on the consumer thread,
+ * which slows polling instead of buffering without limit. Offsets are committed (sync) only
+ * after every batch of the poll was dispatched, so delivery is at-least-once.
+ * <p>
+ * A consumer that fails is closed and recreated with exponential backoff; configuration errors
+ * stop it for good. Per-partition lag is taken from the consumer's fetch position after each
+ * poll (no extra broker round-trip).
+ */
+@Slf4j
+final class KafkaFanout {
+
+    private final Supplier<Properties> props;
+    private final Pattern subscription;
+    private final int consumers;
+    private final long pollMs;
+    private final long maxBackoffMs;
+    private final Consumer<List<ConsumerRecord<String, String>>> sink;
+
+    private final ThreadPoolExecutor[] lanes;
+    private final List<Thread> threads = new ArrayList<>();
+    private final Set<KafkaConsumer<String, String>> live = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+
+    private final Map<TopicPartition, Long> lag = new ConcurrentHashMap<>();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong restarts = new AtomicLong();
+    private final AtomicLong sinkErrors = new AtomicLong();
+
+    KafkaFanout(Supplier<Properties> props, Pattern subscription, int consumers, int workers, int laneCapacity,
+                long pollMs, long maxBackoffMs, Consumer<List<ConsumerRecord<String, String>>> sink) {
+        this.props = props;
+        this.subscription = subscription;
+        this.consumers = Math.max(1, consumers);
+        this.pollMs = Math.max(50L, pollMs);
+        this.maxBackoffMs = Math.max(1000L, maxBackoffMs);
+        this.sink = sink;
+        this.lanes = new ThreadPoolExecutor[Math.max(1, workers)];
+        for (int i = 0; i < lanes.length; i++) {
+            final String name = "sse-kafka-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, laneCapacity)),
+                    r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    (r, ex) -> r.run()); // full or shut down: run on the consumer thread
+        }
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        final AtomicInteger seq = new AtomicInteger();
+        for (int i = 0; i < consumers; i++) {
+            Thread t = new Thread(this::supervise, "sse-kafka-consumer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            threads.add(t);
+            t.start();
+        }
+        log.info("Kafka SSE fan-out started: consumers={}, lanes={}", consumers, lanes.length);
+    }
+
+    synchronized void stop() {
+        running = false;
+        for (KafkaConsumer<String, String> c : live) {
+            try {
+                c.wakeup();
+            } catch (Throwable ignore) {
+            }
+        }
+        for (Thread t : threads) {
+            try {
+                t.join(5000L);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        for (ThreadPoolExecutor lane : lanes) lane.shutdownNow();
+    }
+
+    long totalLag() {
+        long sum = 0L;
+        for (Long v : lag.values()) sum += v;
+        return sum;
+    }
+
+    long records() {
+        return records.get();
+    }
+
+    long restarts() {
+        return restarts.get();
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("running", running);
+        out.put("consumers", consumers);
+        out.put("records", records.get());
+        out.put("commits", commits.get());
+        out.put("restarts", restarts.get());
+        out.put("sinkErrors", sinkErrors.get());
+        out.put("totalLag", totalLag());
+        Map<String, Long> byPartition = new TreeMap<>();
+        for (Map.Entry<TopicPartition, Long> e : lag.entrySet()) byPartition.put(e.getKey().toString(), e.getValue());
+        out.put("lag", byPartition);
+        int[] queued = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++) queued[i] = lanes[i].getQueue().size();
+        out.put("laneQueued", queued);
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /**
+     * Keeps one consumer alive: (re)creates it after failures with capped exponential backoff.
+     */
+    private void supervise() {
+        long backoff = 500L;
+        while (running) {
+            try {
+                consume();
+                backoff = 500L;
+            } catch (WakeupException e) {
+                if (!running) break;
+            } catch (Throwable t) {
+                if (!running) break;
+                if (isConfigError(t)) {
+                    log.error("Kafka SSE consumer misconfigured, not restarting: {}", t.toString());
+                    break;
+                }
+                restarts.incrementAndGet();
+                log.warn("Kafka SSE consumer failed, restarting in {} ms: {}", backoff, t.toString());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(maxBackoffMs, backoff * 2);
+            }
+        }
+    }
+
+    private void consume() {
+        Properties p = props.get();
+        p.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(p)) {
+            live.add(consumer);
+            try {
+                consumer.subscribe(subscription, new ConsumerRebalanceListener() {
+                    @Override
+                    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                        // Offsets are committed after every poll, nothing is pending here
+                        for (TopicPartition tp : partitions) lag.remove(tp);
+                    }
+
+                    @Override
+                    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                        log.debug("Kafka SSE consumer assigned {}", partitions);
+                    }
+                });
+
+                final Duration timeout = Duration.ofMillis(pollMs);
+                while (running) {
+                    ConsumerRecords<String, String> batch = consumer.poll(timeout);
+                    if (!batch.isEmpty()) dispatchAndCommit(consumer, batch);
+                    updateLag(consumer);
+                }
+            } finally {
+                live.remove(consumer);
+            }
+        }
+    }
+
+    private void dispatchAndCommit(KafkaConsumer<String, String> consumer, ConsumerRecords<String, String> batch) {
+        final Set<TopicPartition> parts = batch.partitions();
+        final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(parts.size() * 2);
+        final List<CompletableFuture<Void>> dispatched = new ArrayList<>(parts.size());
+
+        for (TopicPartition tp : parts) {
+            final List<ConsumerRecord<String, String>> recs = batch.records(tp);
+            if (recs.isEmpty()) continue;
+            dispatched.add(CompletableFuture.runAsync(() -> deliver(recs), lane(tp)));
+            offsets.put(tp, new OffsetAndMetadata(recs.get(recs.size() - 1).offset() + 1));
+        }
+
+        CompletableFuture.allOf(dispatched.toArray(new CompletableFuture[0])).join();
+        records.addAndGet(batch.count());
+        consumer.commitSync(offsets);
+        commits.incrementAndGet();
+    }
+
+    /**
+     * SSE delivery is best effort: a failing batch is counted and skipped so it cannot wedge
+     * its partition.
+     */
+    private void deliver(List<ConsumerRecord<String, String>> recs) {
+        try {
+            sink.accept(recs);
+        } catch (Throwable t) {
+            sinkErrors.incrementAndGet();
+            log.warn("Kafka SSE dispatch failed for {} records of {}: {}",
+                    recs.size(), recs.get(0).topic(), t.toString());
+        }
+    }
+
+    private static boolean isConfigError(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof ConfigException) return true;
+        }
+        return false;
+    }
+
+    private Executor lane(TopicPartition tp) {
+        return lanes[Math.floorMod(tp.hashCode(), lanes.length)];
+    }
+
+    private void updateLag(KafkaConsumer<String, String> consumer) {
+        for (TopicPartition tp : consumer.assignment()) {
+            OptionalLong l = consumer.currentLag(tp);
+            if (l.isPresent()) lag.put(tp, l.getAsLong());
+        }
+    }
+}
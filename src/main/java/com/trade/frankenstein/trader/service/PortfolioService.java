@@ -4,6 +4,7 @@ import com.google.gson.JsonObject;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.TickContext;
 import com.trade.frankenstein.trader.core.FastStateStore;
 import com.upstox.api.GetHoldingsResponse;
 import com.upstox.api.GetPositionResponse;
@@ -82,17 +83,25 @@ public class PortfolioService {
         return null;
     }
 
+    /**
+     * Live positions, fetched once per engine cycle (see {@link TickContext}); one retry on failure.
+     */
+    private GetPositionResponse shortTermPositions() {
+        return TickContext.memo("portfolio.positions", () -> {
+            try {
+                return upstox.getShortTermPositions();
+            } catch (Throwable ignore) {
+                return upstox.getShortTermPositions();
+            }
+        });
+    }
+
     @Transactional(readOnly = true)
     public Result<GetPositionResponse> getPortfolio() {
         if (!isLoggedIn()) return Result.fail("user-not-logged-in");
         try {
             // Prefer generic names to avoid coupling
-            GetPositionResponse p;
-            try {
-                p = upstox.getShortTermPositions();
-            } catch (Throwable ignore) {
-                p = upstox.getShortTermPositions();
-            }
+            GetPositionResponse p = shortTermPositions();
             if (p == null || p.getData() == null) {
                 return Result.fail("NOT_FOUND", "No live portfolio data");
             }
@@ -137,12 +146,7 @@ public class PortfolioService {
             PortfolioSummary cached = readSummaryCache();
             if (cached != null) return Result.ok(cached);
 
-            GetPositionResponse p;
-            try {
-                p = upstox.getShortTermPositions();
-            } catch (Throwable ignore) {
-                p = upstox.getShortTermPositions();
-            }
+            GetPositionResponse p = shortTermPositions();
             List<PositionData> rows = (p == null ? null : p.getData());
             if (rows == null || rows.isEmpty()) {
                 return Result.fail("NOT_FOUND", "No live portfolio data");
@@ -290,12 +294,7 @@ public class PortfolioService {
             if (underlyingKey == null || underlyingKey.trim().isEmpty()) {
                 return Result.fail("BAD_REQUEST", "underlyingKey required");
             }
-            GetPositionResponse p;
-            try {
-                p = upstox.getShortTermPositions();
-            } catch (Throwable ignore) {
-                p = upstox.getShortTermPositions();
-            }
+            GetPositionResponse p = shortTermPositions();
             List<PositionData> rows = (p == null ? null : p.getData());
             if (rows == null || rows.isEmpty()) {
                 return Result.ok(0);
@@ -394,12 +393,7 @@ public class PortfolioService {
     public Result<PortfolioGreeks> getNetGreeksForUnderlying(String underlyingKey) {
         if (!isLoggedIn()) return Result.fail("user-not-logged-in");
         try {
-            GetPositionResponse p;
-            try {
-                p = upstox.getShortTermPositions();
-            } catch (Throwable ignore) {
-                p = upstox.getShortTermPositions();
-            }
+            GetPositionResponse p = shortTermPositions();
             java.util.List<com.upstox.api.PositionData> rows = (p == null ? null : p.getData());
             if (rows == null || rows.isEmpty()) {
                 return Result.fail("NOT_FOUND", "No live portfolio data");
@@ -1,12 +1,17 @@
 package com.trade.frankenstein.trader.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trade.frankenstein.trader.bus.KafkaPropertiesHelper;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
+import com.trade.frankenstein.trader.common.Result;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
@@ -18,17 +23,29 @@ import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * StreamGateway — SSE fan-out layer.
  * <p>
  * Java 8, no reflection. Additive methods only.
  * Now supports subscribing to multiple topics in a single call.
+ * <p>
+ * Publishing never touches the network: each event is serialized once and queued on every
+ * subscriber's bounded outbound queue (oldest dropped when full); a pool drains each queue
+ * with at most one task per subscriber. Topics in trade.sse.coalesce-topics (e.g. ticks.*,
+ * risk.summary) are latest-value-wins per subscriber instead of queued.
+ * <p>
+ * A subscriber whose send has been in flight longer than trade.sse.send-timeout-ms, or whose
+ * queue overflows while its oldest event is older than trade.sse.max-lag-ms, is evicted: nothing
+ * more is queued or scheduled for it. Eviction cannot unblock a send already stuck on the socket;
+ * that drain thread is held until the container's blocking-write timeout fails the write
+ * (server.tomcat.connection-timeout). Meanwhile the pool grows past trade.sse.fanout.threads up
+ * to trade.sse.fanout.max-threads, so a few stalled sockets do not stop delivery to the others.
  */
 @Slf4j
 @Service
@@ -38,17 +55,78 @@ public class StreamGateway {
     private static final long HEARTBEAT_MS = 15000L;           // 15s
 
     private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
-    private final Map<String, Set<String>> topicSubs = new ConcurrentHashMap<>();
+    // Wildcard-aware topic index plus both directions of emitter <-> id / subscriptions
+    private final TopicTrie topicSubs = new TopicTrie();
+    private final Map<String, Set<String>> subsByEmitter = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, String> idsByEmitter = new ConcurrentHashMap<>();
     private final Set<String> csvEmitters = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final AtomicBoolean heartbeatStarted = new AtomicBoolean(false);
 
     // Step-10: Kafka consumer → SSE fan-out (advice, trade, risk)
     private final AtomicBoolean kafkaStarted = new AtomicBoolean(false);
-    private ExecutorService kafkaExec;
+    private volatile KafkaFanout kafkaFanout;
+    @Value("${trade.sse.kafka.consumers:2}")
+    private int kafkaConsumers;
+    @Value("${trade.sse.kafka.workers:4}")
+    private int kafkaWorkers;
+    @Value("${trade.sse.kafka.lane-capacity:64}")
+    private int kafkaLaneCapacity;
+    @Value("${trade.sse.kafka.poll-ms:500}")
+    private long kafkaPollMs;
+    @Value("${trade.sse.kafka.max-backoff-ms:30000}")
+    private long kafkaMaxBackoffMs;
 
 
     @Autowired(required = false)
     private TaskScheduler taskScheduler; // optional; if missing, heartbeat won't start
+    @Autowired(required = false)
+    private ObjectMapper mapper;
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Outbound queues (one per emitter) and the pool draining them
+    private final Map<String, Outbound> outbound = new ConcurrentHashMap<>();
+    private final ExecutorService sseExec;
+    // Completes evicted emitters; complete() waits for a send still blocked on the socket
+    private final ExecutorService evictExec;
+    private final int queueCapacity;
+    private final List<String> coalesceTopics;
+    private final long sendTimeoutNanos;
+    private final long maxLagMs;
+
+    public StreamGateway(@Value("${trade.sse.fanout.threads:4}") int threads,
+                         @Value("${trade.sse.fanout.max-threads:32}") int maxThreads,
+                         @Value("${trade.sse.queue-capacity:256}") int queueCapacity,
+                         @Value("${trade.sse.coalesce-topics:ticks.*,risk.summary}") String coalesceTopics,
+                         @Value("${trade.sse.send-timeout-ms:5000}") long sendTimeoutMs,
+                         @Value("${trade.sse.max-lag-ms:30000}") long maxLagMs) {
+        final AtomicInteger seq = new AtomicInteger();
+        final int core = Math.max(1, threads);
+        // Direct hand-off: a drain task gets a thread or is rejected (scheduleDrain retries on the
+        // next event), so threads stuck on dead sockets never hold up work queued behind them
+        this.sseExec = new ThreadPoolExecutor(core, Math.max(core, maxThreads), 30L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "sse-fanout-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.evictExec = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "sse-evict-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, sendTimeoutMs));
+        this.maxLagMs = Math.max(1L, maxLagMs);
+        List<String> ct = new ArrayList<>();
+        if (coalesceTopics != null) {
+            for (String t : coalesceTopics.split(",")) {
+                if (StringUtils.hasText(t)) ct.add(t.trim());
+            }
+        }
+        this.coalesceTopics = Collections.unmodifiableList(ct);
+    }
 
     // ------------------------ SUBSCRIBE ------------------------
 
@@ -65,7 +143,10 @@ public class StreamGateway {
         final SseEmitter emitter = new SseEmitter(DEFAULT_EMITTER_TIMEOUT_MS);
 
         final SseEmitter previous = emitters.put(emitterId, emitter);
+        idsByEmitter.put(emitter, emitterId);
+        outbound.put(emitterId, new Outbound(emitterId, emitter));
         if (previous != null) {
+            idsByEmitter.remove(previous);
             try {
                 previous.complete();
             } catch (Throwable ignore) { /* no-op */ }
@@ -199,33 +280,239 @@ public class StreamGateway {
     }
 
     public void publish(String topic, String eventName, Object payload) {
+        enqueue(topic, eventName, payload, null);
+    }
+
+    /**
+     * Queues one event for every matching subscriber. With touched == null each queue is
+     * scheduled for draining right away; otherwise the queues are collected for the caller.
+     */
+    private void enqueue(String topic, String eventName, Object payload, @Nullable Set<Outbound> touched) {
         if (!StringUtils.hasText(topic)) {
             log.debug("publish ignored: blank topic");
             return;
         }
-        final Set<String> ids = topicSubs.get(topic);
-        if (ids == null || ids.isEmpty()) {
+        final String[] ids = topicSubs.match(topic);
+        if (ids.length == 0) {
             return;
         }
-        final List<String> toRemove = new ArrayList<>();
+        final Frame frame = new Frame(topic, eventName, payload);
+        final boolean coalesce = isCoalesced(topic);
+        List<String> toRemove = null;
 
         for (String id : ids) {
-            final SseEmitter emitter = emitters.get(id);
-            if (emitter == null) {
+            final Outbound o = outbound.get(id);
+            if (o == null) {
+                if (toRemove == null) toRemove = new ArrayList<>();
                 toRemove.add(id);
                 continue;
             }
+            final boolean overflowed = o.offer(frame, coalesce, queueCapacity);
+            if (stalled(o, overflowed)) {
+                evict(o, "stalled:" + topic);
+                continue;
+            }
+            if (touched == null) scheduleDrain(o);
+            else touched.add(o);
+        }
+        if (toRemove != null) {
+            for (String deadId : toRemove) {
+                removeEmitter(deadId, "no-emitter:" + topic);
+            }
+        }
+    }
+
+    /**
+     * Per-subscriber queue depth, lag (age of the oldest undelivered event) and counters.
+     */
+    public Result<Map<String, Map<String, Object>>> getSubscriberStats() {
+        Map<String, Map<String, Object>> out = new TreeMap<>();
+        for (Outbound o : outbound.values()) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("csv", csvEmitters.contains(o.id));
+            m.put("queued", o.pending());
+            m.put("lagMs", o.lagMs());
+            m.put("sent", o.sent.get());
+            m.put("dropped", o.dropped.get());
+            m.put("coalesced", o.coalesced.get());
+            out.put(o.id, m);
+        }
+        return Result.ok(out);
+    }
+
+    private boolean isCoalesced(String topic) {
+        for (String c : coalesceTopics) {
+            if (c.endsWith(".*") ? topic.startsWith(c.substring(0, c.length() - 1)) : c.equals(topic)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * True if o's current send has outlived the send timeout, or its queue just overflowed
+     * with the oldest pending event past the lag limit.
+     */
+    private boolean stalled(Outbound o, boolean overflowed) {
+        final long since = o.sendingSince;
+        if (since != 0L && System.nanoTime() - since > sendTimeoutNanos) return true;
+        return overflowed && o.lagMs() > maxLagMs;
+    }
+
+    /**
+     * Unsubscribes a stalled emitter at once; completing it may block behind the in-flight
+     * send, so that part runs off the caller's thread.
+     */
+    private void evict(Outbound o, String reason) {
+        if (!outbound.remove(o.id, o)) return;
+        log.warn("SSE subscriber id={} evicted ({}): queued={} lagMs={} dropped={}", o.id, reason, o.pending(), o.lagMs(), o.dropped.get());
+        removeEmitter(o.id, reason, false);
+        try {
+            evictExec.execute(() -> {
+                try {
+                    o.emitter.complete();
+                } catch (Throwable ignore) { /* no-op */ }
+            });
+        } catch (RejectedExecutionException ignore) { /* shutting down */ }
+    }
+
+    private void scheduleDrain(Outbound o) {
+        if (o.draining.compareAndSet(false, true)) {
             try {
-                final boolean asCsv = csvEmitters.contains(id);
-                Object data = asCsv ? toCsv(payload) : payload;
-                emitter.send(SseEmitter.event().name(eventName).data(data));
-            } catch (IOException | IllegalStateException ex) {
-                log.warn("SSE send failed for id={} topic={} event={}, removing. cause={}", id, topic, eventName, ex.toString());
-                toRemove.add(id);
+                sseExec.execute(() -> drain(o));
+            } catch (RejectedExecutionException ex) {
+                o.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends up to a bounded number of queued frames, then yields the pool thread.
+     */
+    private void drain(Outbound o) {
+        try {
+            for (int n = 0; n < 256; n++) {
+                final Frame f = o.poll();
+                if (f == null) break;
+                if (outbound.get(o.id) != o) return; // removed or replaced meanwhile
+                try {
+                    final Object data = csvEmitters.contains(o.id) ? f.csv() : f.encoded();
+                    o.sendingSince = System.nanoTime();
+                    o.emitter.send(SseEmitter.event().name(f.eventName).data(data));
+                    o.sent.incrementAndGet();
+                } catch (IOException | IllegalStateException ex) {
+                    if (outbound.get(o.id) != o) return; // evicted while the send was blocked
+                    log.warn("SSE send failed for id={} topic={} event={}, removing. cause={}", o.id, f.topic, f.eventName, ex.toString());
+                    removeEmitter(o.id, "send-failed:" + f.topic);
+                    return;
+                }
+            }
+        } finally {
+            o.sendingSince = 0L;
+            o.draining.set(false);
+            if (o.pending() > 0 && outbound.get(o.id) == o) scheduleDrain(o);
+        }
+    }
+
+    /**
+     * One published event; JSON / CSV encodings are computed at most once and shared by all
+     * subscribers it is queued for.
+     */
+    private final class Frame {
+        final String topic;
+        final String eventName;
+        final Object payload;
+        final long atNanos = System.nanoTime();
+        private volatile Object encoded;
+        private volatile String csv;
+
+        Frame(String topic, String eventName, Object payload) {
+            this.topic = topic;
+            this.eventName = eventName;
+            this.payload = payload;
+        }
+
+        Object encoded() {
+            Object e = encoded;
+            if (e == null) {
+                if (payload == null || payload instanceof CharSequence || mapper == null) {
+                    e = payload == null ? "" : payload;
+                } else {
+                    try {
+                        e = mapper.writeValueAsString(payload);
+                    } catch (Exception ex) {
+                        e = payload; // let the emitter's converters try
+                    }
+                }
+                encoded = e;
+            }
+            return e;
+        }
+
+        String csv() {
+            String c = csv;
+            if (c == null) csv = c = toCsv(payload);
+            return c;
+        }
+    }
+
+    /**
+     * Bounded outbound queue of one emitter plus its latest-value slots for coalesced topics.
+     */
+    private static final class Outbound {
+        final String id;
+        final SseEmitter emitter;
+        final AtomicBoolean draining = new AtomicBoolean(false);
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        volatile long sendingSince; // System.nanoTime() at the start of the in-flight send, 0 if idle
+        private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+        private final LinkedHashMap<String, Frame> latest = new LinkedHashMap<>();
+
+        Outbound(String id, SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+
+        /**
+         * Returns true if the queue was full and its oldest frame was dropped.
+         */
+        synchronized boolean offer(Frame f, boolean coalesce, int capacity) {
+            if (coalesce) {
+                if (latest.put(f.topic, f) != null) coalesced.incrementAndGet();
+                return false;
             }
+            boolean overflow = queue.size() >= capacity;
+            if (overflow) {
+                queue.pollFirst();
+                dropped.incrementAndGet();
+            }
+            queue.addLast(f);
+            return overflow;
         }
-        for (String deadId : toRemove) {
-            removeEmitter(deadId, "send-failed:" + topic);
+
+        /**
+         * Oldest pending frame across the queue and the coalesced slots.
+         */
+        synchronized Frame poll() {
+            final Frame q = queue.peekFirst();
+            Map.Entry<String, Frame> l = latest.isEmpty() ? null : latest.entrySet().iterator().next();
+            if (l != null && (q == null || l.getValue().atNanos < q.atNanos)) {
+                latest.remove(l.getKey());
+                return l.getValue();
+            }
+            return queue.pollFirst();
+        }
+
+        synchronized int pending() {
+            return queue.size() + latest.size();
+        }
+
+        synchronized long lagMs() {
+            long oldest = Long.MAX_VALUE;
+            final Frame q = queue.peekFirst();
+            if (q != null) oldest = q.atNanos;
+            for (Frame f : latest.values()) oldest = Math.min(oldest, f.atNanos);
+            return oldest == Long.MAX_VALUE ? 0L : (System.nanoTime() - oldest) / 1_000_000L;
         }
     }
 
@@ -233,18 +520,32 @@ public class StreamGateway {
     // ------------------------ KAFKA CONSUMER (Step-10) ------------------------
 
     /**
-     * On startup, create a lightweight KafkaConsumer that subscribes to advice.*, trade.*, risk.*
-     * and fans-out each consumed record to SSE subscribers.
+     * On startup, start the consumer engine for advice.*, trade.*, risk.*, decision.* and fan each
+     * consumed partition batch out to SSE subscribers. trade.sse.kafka.consumers=0 disables it.
      */
     @PostConstruct
     public void startKafkaFanout() {
-        if (kafkaStarted.compareAndSet(false, true)) {
-            kafkaExec = Executors.newSingleThreadExecutor();
-            kafkaExec.submit(this::runKafkaLoop);
+        if (kafkaConsumers <= 0 || !kafkaStarted.compareAndSet(false, true)) return;
+        kafkaFanout = new KafkaFanout(this::kafkaConsumerProps,
+                Pattern.compile("^(advice|trade|risk|decision)\\..+?$"),
+                kafkaConsumers, kafkaWorkers, kafkaLaneCapacity, kafkaPollMs, kafkaMaxBackoffMs,
+                this::onKafkaBatch);
+        if (meterRegistry != null) {
+            final KafkaFanout kf = kafkaFanout;
+            Gauge.builder("trade.sse.kafka.lag", kf, KafkaFanout::totalLag).register(meterRegistry);
+            FunctionCounter.builder("trade.sse.kafka.records", kf, KafkaFanout::records).register(meterRegistry);
+            FunctionCounter.builder("trade.sse.kafka.restarts", kf, KafkaFanout::restarts).register(meterRegistry);
         }
+        kafkaFanout.start();
+    }
+
+    public Result<Map<String, Object>> getKafkaStats() {
+        final KafkaFanout kf = kafkaFanout;
+        if (kf == null) return Result.fail("kafka-fanout-disabled");
+        return Result.ok(kf.stats());
     }
 
-    private void runKafkaLoop() {
+    private Properties kafkaConsumerProps() {
         Properties p = KafkaPropertiesHelper.loadConsumerProps();
         try {
             // Load defaults from classpath (same file as EventPublisher)
@@ -263,58 +564,32 @@ public class StreamGateway {
             if (brokers != null && !brokers.trim().isEmpty()) p.put("bootstrap.servers", brokers);
         }
         p.put("group.id", p.getProperty("group.id", "stream-gateway"));
-        p.put("enable.auto.commit", p.getProperty("enable.auto.commit", "true"));
         p.put("auto.offset.reset", p.getProperty("auto.offset.reset", "latest"));
         p.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
         p.put("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        return p;
+    }
 
-        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<String, String>(p)) {
+    /**
+     * Batch handoff from one partition: every record is queued first, then each touched
+     * subscriber queue is scheduled for draining once.
+     */
+    private void onKafkaBatch(List<ConsumerRecord<String, String>> records) {
+        final Set<Outbound> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ConsumerRecord<String, String> r : records) {
             try {
-
-                // Prefer regex subscription if available
-                java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("^(advice|trade|risk|decision)\\..+?$");
-                try {
-                    consumer.subscribe(pattern);
-                } catch (Throwable t) {
-                    // Fallback to static topic list
-                    List<String> topics = new ArrayList<>();
-                    topics.add("advice");
-                    topics.add("trade");
-                    topics.add("risk");
-                    topics.add("decision");
-                    topics.add("audit");
-                    topics.add("ticks");
-                    topics.add("option_chain");
-                    topics.add("order");
-                    consumer.subscribe(topics);
-                }
-
-                while (!Thread.currentThread().isInterrupted()) {
-                    ConsumerRecords<String, String> records = consumer.poll(1000);
-                    if (records == null) continue;
-                    for (ConsumerRecord<String, String> r : records) {
-                        try {
-                            onKafkaMessage(r.topic(), r.key(), r.value());
-                        } catch (Throwable t) {
-                            // swallow to keep loop alive
-                        }
-                    }
-                }
+                onKafkaMessage(r.topic(), r.key(), r.value(), touched);
             } catch (Throwable t) {
-                // If broken, log once and stop silently (SSE still works for in-process send(...))
-                try {
-                    log.error("Kafka fan-out loop failed: {}", t.toString());
-                } catch (Throwable ignore) {
-                }
+                log.debug("Kafka fan-out skipped record {}-{}@{}: {}", r.topic(), r.partition(), r.offset(), t.toString());
             }
-        } catch (Throwable ignore) {
         }
+        for (Outbound o : touched) scheduleDrain(o);
     }
 
     /**
      * Map a Kafka topic into SSE topic+event and publish to subscribers.
      */
-    private void onKafkaMessage(String topic, String key, String value) {
+    private void onKafkaMessage(String topic, String key, String value, Set<Outbound> touched) {
         if (topic == null || value == null) return;
         final String eventName;
         final int dot = topic.indexOf('.');
@@ -323,47 +598,55 @@ public class StreamGateway {
         } else {
             eventName = topic;
         }
-        publish(topic, eventName, value);
+        enqueue(topic, eventName, value, touched);
     }
 // ------------------------ SUBSCRIPTIONS ------------------------
 
+    /**
+     * Subscribes emitterId to a topic pattern; segments may be '*' (one) or '#' (zero or more).
+     */
     public void addSubscription(String emitterId, String topic) {
         if (!StringUtils.hasText(topic) || !emitters.containsKey(emitterId)) return;
-        topicSubs.computeIfAbsent(topic, k -> new CopyOnWriteArraySet<String>()).add(emitterId);
+        final String pattern = topic.trim();
+        subsByEmitter.computeIfAbsent(emitterId, k -> ConcurrentHashMap.newKeySet()).add(pattern);
+        topicSubs.add(pattern, emitterId);
     }
 
     public void removeSubscription(String emitterId, String topic) {
         if (!StringUtils.hasText(topic)) return;
-        final Set<String> set = topicSubs.get(topic);
-        if (set != null) {
-            set.remove(emitterId);
-            if (set.isEmpty()) {
-                topicSubs.remove(topic);
-            }
-        }
+        final String pattern = topic.trim();
+        final Set<String> mine = subsByEmitter.get(emitterId);
+        if (mine != null) mine.remove(pattern);
+        topicSubs.remove(pattern, emitterId);
     }
 
     // ------------------------ UTILITIES ------------------------
 
     public void removeEmitter(String id, String reason) {
+        removeEmitter(id, reason, true);
+    }
+
+    private void removeEmitter(String id, String reason, boolean complete) {
         final SseEmitter emitter = emitters.remove(id);
+        outbound.remove(id);
         csvEmitters.remove(id);
-        for (Map.Entry<String, Set<String>> e : topicSubs.entrySet()) {
-            e.getValue().remove(id);
+        final Set<String> patterns = subsByEmitter.remove(id);
+        if (patterns != null) {
+            for (String pattern : patterns) topicSubs.remove(pattern, id);
         }
         if (emitter != null) {
-            try {
-                emitter.complete();
-            } catch (Throwable ignore) { /* no-op */ }
+            idsByEmitter.remove(emitter);
+            if (complete) {
+                try {
+                    emitter.complete();
+                } catch (Throwable ignore) { /* no-op */ }
+            }
         }
         log.debug("Emitter removed id={}, reason={}", id, reason);
     }
 
     private String findIdByEmitter(SseEmitter emitter) {
-        for (Map.Entry<String, SseEmitter> e : emitters.entrySet()) {
-            if (e.getValue() == emitter) return e.getKey();
-        }
-        return null;
+        return emitter == null ? null : idsByEmitter.get(emitter);
     }
 
     private void startHeartbeatIfNeeded() {
@@ -375,16 +658,15 @@ public class StreamGateway {
         }
         if (heartbeatStarted.compareAndSet(false, true)) {
             taskScheduler.scheduleAtFixedRate(() -> {
-                final List<String> toRemove = new ArrayList<>();
-                for (Map.Entry<String, SseEmitter> e : emitters.entrySet()) {
-                    try {
-                        e.getValue().send(SseEmitter.event().name("heartbeat").data("♥"));
-                    } catch (IOException | IllegalStateException ex) {
-                        toRemove.add(e.getKey());
+                // Queued like any event (coalesced), so a stalled client cannot block the scheduler
+                final Frame hb = new Frame("heartbeat", "heartbeat", "♥");
+                for (Outbound o : outbound.values()) {
+                    if (stalled(o, false)) {
+                        evict(o, "send-timeout");
+                        continue;
                     }
-                }
-                for (String id : toRemove) {
-                    removeEmitter(id, "heartbeat-failed");
+                    o.offer(hb, true, queueCapacity);
+                    scheduleDrain(o);
                 }
             }, HEARTBEAT_MS);
             log.info("SSE heartbeat scheduled every {} ms", HEARTBEAT_MS);
@@ -394,6 +676,8 @@ public class StreamGateway {
     private String toCsv(Object payload) {
         if (payload == null) return "";
         if (payload instanceof CharSequence) return payload.toString();
+        // Pre-serialised JSON: same text the publishers used to send as a String (JsonNode is also Iterable)
+        if (payload instanceof JsonNode) return payload.toString();
         if (payload instanceof Number || payload instanceof Boolean) return String.valueOf(payload);
         if (payload instanceof Map map) {
             StringBuilder sb = new StringBuilder();
@@ -429,11 +713,13 @@ public class StreamGateway {
     @PreDestroy
     public void stopKafkaFanout() {
         try {
-            if (kafkaExec != null) {
-                kafkaExec.shutdownNow();
+            if (kafkaFanout != null) {
+                kafkaFanout.stop();
             }
         } catch (Throwable ignore) {
         }
+        sseExec.shutdownNow();
+        evictExec.shutdownNow();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.trade.frankenstein.trader.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscription index for dotted SSE topics with wildcards.
+ * <p>
+ * A pattern segment {@code *} matches exactly one topic segment, {@code #} matches zero or more
+ * (so {@code risk.*} matches {@code risk.summary}, {@code decision.#} matches {@code decision}
+ * and {@code decision.quality.v2}).
+ * <p>
+ * Publish-side {@link #match(String)} returns a cached array of subscriber ids per concrete
+ * topic: a hit is one map lookup and allocates nothing. The cache is dropped whenever a
+ * subscription changes; misses walk the trie in O(depth) (plus wildcard branches) under the
+ * same lock as mutations, so a stale snapshot can never be cached.
+ */
+final class TopicTrie {
+
+    private static final String[] NONE = new String[0];
+    private static final int MAX_CACHED_TOPICS = 4096;
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final Set<String> ids = new LinkedHashSet<>();
+    }
+
+    private final Node root = new Node();
+    private final Map<String, String[]> snapshots = new ConcurrentHashMap<>();
+
+    synchronized void add(String pattern, String id) {
+        Node n = root;
+        for (String seg : split(pattern)) n = n.children.computeIfAbsent(seg, k -> new Node());
+        if (n.ids.add(id)) snapshots.clear();
+    }
+
+    synchronized void remove(String pattern, String id) {
+        if (remove(root, split(pattern), 0, id)) snapshots.clear();
+    }
+
+    /**
+     * Subscriber ids whose patterns match the concrete topic; never null, do not modify.
+     */
+    String[] match(String topic) {
+        String[] ids = snapshots.get(topic);
+        return ids != null ? ids : matchSlow(topic);
+    }
+
+    private synchronized String[] matchSlow(String topic) {
+        String[] ids = snapshots.get(topic);
+        if (ids != null) return ids;
+        Set<String> out = new LinkedHashSet<>();
+        collect(root, split(topic), 0, out);
+        ids = out.isEmpty() ? NONE : out.toArray(NONE);
+        if (snapshots.size() >= MAX_CACHED_TOPICS) snapshots.clear();
+        snapshots.put(topic, ids);
+        return ids;
+    }
+
+    private static void collect(Node node, String[] segs, int i, Set<String> out) {
+        Node hash = node.children.get("#");
+        if (hash != null) {
+            for (int k = i; k <= segs.length; k++) collect(hash, segs, k, out);
+        }
+        if (i == segs.length) {
+            out.addAll(node.ids);
+            return;
+        }
+        Node exact = node.children.get(segs[i]);
+        if (exact != null) collect(exact, segs, i + 1, out);
+        Node star = node.children.get("*");
+        if (star != null) collect(star, segs, i + 1, out);
+    }
+
+    /**
+     * Removes id at pattern and prunes empty branches; true if anything was removed.
+     */
+    private static boolean remove(Node node, String[] segs, int i, String id) {
+        if (i == segs.length) return node.ids.remove(id);
+        Node child = node.children.get(segs[i]);
+        if (child == null) return false;
+        boolean removed = remove(child, segs, i + 1, id);
+        if (removed && child.ids.isEmpty() && child.children.isEmpty()) node.children.remove(segs[i]);
+        return removed;
+    }
+
+    private static String[] split(String topic) {
+        return topic.trim().split("\\.", -1);
+    }
+}
@@ -751,6 +751,23 @@ public class UpstoxService {
         throw new RuntimeException("Upstox data path unavailable (getMarketDataFeed)", ex);
     }
 
+    /**
+     * Authorized WebSocket URI for the market-data feed (consumed by MarketDataFeedClient).
+     * The URI is single-use, so callers should fetch a fresh one on every (re)connect.
+     */
+    @Retry(name = "upstoxData")
+    @CircuitBreaker(name = "upstoxData", fallbackMethod = "getMarketDataFeedAuthorizedUriFallback")
+    @RateLimiter(name = "upstoxData")
+    @Bulkhead(name = "upstoxData", type = Bulkhead.Type.SEMAPHORE)
+    public String getMarketDataFeedAuthorizedUri() {
+        return getMarketDataFeedUrl();
+    }
+
+    public String getMarketDataFeedAuthorizedUriFallback(Throwable ex) {
+        log.warn("getMarketDataFeedAuthorizedUri fallback due to {}", ex.toString());
+        throw new RuntimeException("Upstox data path unavailable (getMarketDataFeedAuthorizedUri)", ex);
+    }
+
     /**
      * Private helper (used by getMarketDataFeed) — left unannotated.
      */
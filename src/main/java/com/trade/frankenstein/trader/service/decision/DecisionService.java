@@ -7,7 +7,9 @@ import com.trade.frankenstein.trader.bus.EventBusConfig;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.TickContext;
 import com.trade.frankenstein.trader.common.Underlyings;
+import com.trade.frankenstein.trader.common.indicators.Adx;
 import com.trade.frankenstein.trader.config.DecisionServiceConfig;
 import com.trade.frankenstein.trader.core.FastStateStore;
 import com.trade.frankenstein.trader.dto.*;
@@ -97,6 +99,10 @@ public class DecisionService {
 
     public Result<DecisionQuality> getQuality() {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return Result.fail("user-not-logged-in");
+        return TickContext.memo("decision.quality", this::computeQuality);
+    }
+
+    private Result<DecisionQuality> computeQuality() {
         final long start = System.nanoTime();
 
         // 1) Build context
@@ -112,7 +118,7 @@ public class DecisionService {
         BigDecimal momZ = safe(() -> marketDataService.getMomentumNow(Instant.now()).get()).orElse(BigDecimal.ZERO);
 
         // 3) ADX & weights
-        double adx = safe(() -> computeAdx14(upstoxService.getIntradayCandleData(niftyKey, "minutes", "5"))).orElse(0.0);
+        double adx = safe(() -> computeAdx14(marketDataService.getIntradayCandles(niftyKey, "minutes", "5"))).orElse(0.0);
         StrategyWeights w = chooseWeights(adx);
 
         // 4) Raw score
@@ -159,7 +165,7 @@ public class DecisionService {
         // 12) Emit event
         if (fast.setIfAbsent("decision:emit", "1", EMIT_MIN_GAP) && shouldEmit(score, regime.getPrimary().name(), confBucket)) {
             JsonNode node = mapper.valueToTree(dq);
-            streamGateway.publishDecision("quality", node.toPrettyString());
+            streamGateway.publishDecision("quality", node);
             publishDecisionEvent("decision.quality", dq, ctx, regime, preds);
             lastScore = score;
             lastTrend = regime.getPrimary().name();
@@ -422,37 +428,31 @@ public class DecisionService {
         }
     }
 
-    // ADX(14) computation
+    // ADX(14) computation (Wilder, same recurrences as ta4j ADXIndicator)
     private double computeAdx14(GetIntraDayCandleResponse ic) {
         IntraDayCandleData cs = ic == null ? null : ic.getData();
-        if (cs == null || cs.getCandles().size() < 16) return 0;
-        List<List<Object>> rows = new ArrayList<>(cs.getCandles());
-        rows.sort(Comparator.comparingLong(r -> toEpoch(r.get(0))));
-        double prevHigh = toNum(rows.get(0).get(2)), prevLow = toNum(rows.get(0).get(3)), prevClose = toNum(rows.get(0).get(4));
-        double tr14 = 0, plus14 = 0, minus14 = 0;
-        for (int i = 1; i < rows.size(); i++) {
-            List<Object> r = rows.get(i);
-            double h = toNum(r.get(2)), l = toNum(r.get(3)), c = toNum(r.get(4));
-            double tr = Math.max(h - l, Math.max(Math.abs(h - prevClose), Math.abs(l - prevClose)));
-            double up = Math.max(0, h - prevHigh), dn = Math.max(0, prevLow - l);
-            double pd = up > dn ? up : 0, md = dn > up ? dn : 0;
-            if (i <= 14) {
-                tr14 += tr;
-                plus14 += pd;
-                minus14 += md;
-            } else {
-                tr14 = tr14 - tr14 / 14 + tr;
-                plus14 = plus14 - plus14 / 14 + pd;
-                minus14 = minus14 - minus14 / 14 + md;
-            }
-            prevHigh = h;
-            prevLow = l;
-            prevClose = c;
+        if (cs == null || cs.getCandles() == null || cs.getCandles().size() < 16) return 0;
+        List<List<Object>> rows = cs.getCandles();
+        if (!isChronological(rows)) {
+            rows = new ArrayList<>(rows);
+            rows.sort(Comparator.comparingLong(r -> toEpoch(r.get(0))));
+        }
+        Adx adx = new Adx(14);
+        double v = 0;
+        for (List<Object> r : rows) {
+            v = adx.update(toNum(r.get(2)), toNum(r.get(3)), toNum(r.get(4)));
+        }
+        return Double.isNaN(v) ? 0 : v;
+    }
+
+    private boolean isChronological(List<List<Object>> rows) {
+        long prev = Long.MIN_VALUE;
+        for (List<Object> r : rows) {
+            long t = toEpoch(r.get(0));
+            if (t < prev) return false;
+            prev = t;
         }
-        if (tr14 < 1e-9) return 0;
-        double plusDI = plus14 / tr14 * 100, minusDI = minus14 / tr14 * 100;
-        double dx = Math.abs(plusDI - minusDI) / (plusDI + minusDI) * 100;
-        return dx;
+        return true;
     }
 
     private long toEpoch(Object ts) {
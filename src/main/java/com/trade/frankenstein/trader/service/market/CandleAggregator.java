@@ -0,0 +1,376 @@
+package com.trade.frankenstein.trader.service.market;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rolling per-instrument bar builder fed by {@link MarketDataService#recordTick}.
+ * <p>
+ * Keeps a ring of closed bars plus the forming bar for each supported timeframe (1m/5m/15m/60m)
+ * and serves them in Upstox candle-row shape: [openEpochMs, open, high, low, close, volume],
+ * oldest first, forming bar last. Bars are aligned to the NSE session open (09:15 IST), so 60m
+ * buckets match Upstox's hourly candles.
+ * <p>
+ * History comes from {@link #seed}: REST candles are authoritative for closed buckets, ticks
+ * extend the series from there. Until a timeframe has been seeded, callers should use REST.
+ */
+@Slf4j
+@Component
+public class CandleAggregator {
+
+    public static final int[] TIMEFRAMES_MIN = {1, 5, 15, 60};
+
+    private static final long MINUTE_MS = 60_000L;
+    // 09:15 IST == 03:45 UTC; every supported timeframe divides the day from this anchor
+    private static final long SESSION_ANCHOR_MS = (3 * 60 + 45) * MINUTE_MS;
+
+    /**
+     * Receives 1m bars as they close (complete bars only).
+     */
+    public interface BarListener {
+        void onClosed(String instrumentKey, Bar bar);
+    }
+
+    /**
+     * One OHLCV bar; mutable only while forming, under the owning series' lock.
+     */
+    public static final class Bar {
+        final long openMs;
+        double open, high, low, close;
+        long volume;
+        final boolean complete;
+
+        Bar(long openMs, double open, double high, double low, double close, long volume, boolean complete) {
+            this.openMs = openMs;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+            this.complete = complete;
+        }
+
+        public Instant openTime() {
+            return Instant.ofEpochMilli(openMs);
+        }
+
+        public double open() {
+            return open;
+        }
+
+        public double high() {
+            return high;
+        }
+
+        public double low() {
+            return low;
+        }
+
+        public double close() {
+            return close;
+        }
+
+        public long volume() {
+            return volume;
+        }
+
+        List<Object> toRow() {
+            return Arrays.asList(openMs, open, high, low, close, volume);
+        }
+    }
+
+    /**
+     * Fixed-capacity ring of closed bars plus the forming bar for one timeframe.
+     */
+    private static final class Frame {
+        final long tfMs;
+        final Bar[] ring;
+        int head = 0, size = 0;
+        Bar forming;
+        boolean seeded;
+        long lastUpdateMs;
+
+        Frame(int minutes, int capacity) {
+            this.tfMs = minutes * MINUTE_MS;
+            this.ring = new Bar[capacity];
+        }
+
+        long bucketOf(long tsMs) {
+            return tsMs - Math.floorMod(tsMs - SESSION_ANCHOR_MS, tfMs);
+        }
+
+        void push(Bar b) {
+            ring[(head + size) % ring.length] = b;
+            if (size < ring.length) size++;
+            else head = (head + 1) % ring.length;
+        }
+
+        Bar at(int i) {
+            return ring[(head + i) % ring.length];
+        }
+
+        Bar last() {
+            return size == 0 ? null : at(size - 1);
+        }
+
+        void clear() {
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+        }
+    }
+
+    private static final class Series {
+        final Frame[] frames = new Frame[TIMEFRAMES_MIN.length];
+
+        Series(int capacity) {
+            for (int i = 0; i < TIMEFRAMES_MIN.length; i++) frames[i] = new Frame(TIMEFRAMES_MIN[i], capacity);
+        }
+    }
+
+    private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+    private final int capacity;
+    private volatile BarListener closed1mListener;
+
+    public CandleAggregator(@Value("${trade.candles.agg.capacity:500}") int capacity) {
+        this.capacity = Math.max(64, capacity);
+    }
+
+    public void setClosed1mListener(BarListener l) {
+        this.closed1mListener = l;
+    }
+
+    /**
+     * Maps an Upstox (unit, interval) pair to a supported timeframe in minutes, or 0 if unsupported.
+     */
+    public static int minutesOf(String unit, String interval) {
+        if (unit == null || interval == null) return 0;
+        String u = unit.trim().toLowerCase();
+        int n;
+        try {
+            n = Integer.parseInt(interval.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        if ("hours".equals(u) || "hour".equals(u)) n *= 60;
+        else if (!"minutes".equals(u) && !"minute".equals(u)) return 0;
+        return frameIndex(n) >= 0 ? n : 0;
+    }
+
+    private static int frameIndex(int minutes) {
+        for (int i = 0; i < TIMEFRAMES_MIN.length; i++) if (TIMEFRAMES_MIN[i] == minutes) return i;
+        return -1;
+    }
+
+    // ------------------------ INGEST ------------------------
+
+    public void onTick(String instrumentKey, Instant ts, double price, Long qty) {
+        if (instrumentKey == null || ts == null || !(price > 0) || Double.isInfinite(price)) return;
+        final long tsMs = ts.toEpochMilli();
+        final long vol = qty == null ? 0L : Math.max(0L, qty);
+        final Series s = series.computeIfAbsent(instrumentKey, k -> new Series(capacity));
+
+        Bar closed1m = null;
+        synchronized (s) {
+            for (int i = 0; i < s.frames.length; i++) {
+                Bar c = apply(s.frames[i], tsMs, price, vol);
+                if (i == 0) closed1m = c;
+            }
+        }
+        if (closed1m != null && closed1m.complete) fireClosed(instrumentKey, closed1m);
+    }
+
+    /**
+     * Folds one tick into a frame. Returns the bar that closed because of it, if any.
+     */
+    private static Bar apply(Frame f, long tsMs, double price, long vol) {
+        final long bucket = f.bucketOf(tsMs);
+        f.lastUpdateMs = System.currentTimeMillis();
+        Bar cur = f.forming;
+
+        if (cur != null && bucket == cur.openMs) {
+            if (price > cur.high) cur.high = price;
+            if (price < cur.low) cur.low = price;
+            cur.close = price;
+            cur.volume += vol;
+            return null;
+        }
+        if (cur != null && bucket < cur.openMs) return null; // late tick for a closed bucket
+
+        Bar last = f.last();
+        if (cur == null && last != null && bucket <= last.openMs) return null;
+
+        // A bar opened by rollover (or right after a closed bar) covers its whole bucket; the
+        // very first bar after start-up usually does not.
+        boolean complete = cur != null || last != null;
+        f.forming = new Bar(bucket, price, price, price, price, vol, complete);
+        if (cur != null) f.push(cur);
+        return cur;
+    }
+
+    /**
+     * Closes forming bars whose bucket has fully elapsed (quiet instruments would otherwise
+     * hold their last bar open until the next tick).
+     */
+    public void closeElapsed(Instant now) {
+        final long nowMs = now.toEpochMilli();
+        for (Map.Entry<String, Series> e : series.entrySet()) {
+            Bar closed1m = null;
+            final Series s = e.getValue();
+            synchronized (s) {
+                for (int i = 0; i < s.frames.length; i++) {
+                    Frame f = s.frames[i];
+                    Bar cur = f.forming;
+                    if (cur != null && nowMs >= cur.openMs + f.tfMs) {
+                        f.push(cur);
+                        f.forming = null;
+                        if (i == 0) closed1m = cur;
+                    }
+                }
+            }
+            if (closed1m != null && closed1m.complete) fireClosed(e.getKey(), closed1m);
+        }
+    }
+
+    /**
+     * Backfills a timeframe from REST candle rows ([ts, o, h, l, c, v, ...], any order).
+     * REST wins for closed buckets; bars built from ticks after the last REST bucket are kept.
+     */
+    public void seed(String instrumentKey, int minutes, List<List<Object>> rows) {
+        final int fi = frameIndex(minutes);
+        if (instrumentKey == null || fi < 0 || rows == null || rows.isEmpty()) return;
+
+        List<Bar> parsed = new ArrayList<>(rows.size());
+        for (List<Object> r : rows) {
+            if (r == null || r.size() < 5) continue;
+            long ms = parseEpochMs(r.get(0));
+            double o = num(r.get(1)), h = num(r.get(2)), l = num(r.get(3)), c = num(r.get(4));
+            if (ms <= 0 || Double.isNaN(o) || Double.isNaN(h) || Double.isNaN(l) || Double.isNaN(c)) continue;
+            long v = r.size() > 5 ? (long) Math.max(0, num0(r.get(5))) : 0L;
+            parsed.add(new Bar(ms, o, h, l, c, v, true));
+        }
+        if (parsed.isEmpty()) return;
+        parsed.sort(Comparator.comparingLong(b -> b.openMs));
+
+        final Series s = series.computeIfAbsent(instrumentKey, k -> new Series(capacity));
+        synchronized (s) {
+            Frame f = s.frames[fi];
+            final long nowBucket = f.bucketOf(System.currentTimeMillis());
+
+            List<Bar> keep = new ArrayList<>();
+            long lastRest = parsed.get(parsed.size() - 1).openMs;
+            for (int i = 0; i < f.size; i++) {
+                Bar b = f.at(i);
+                if (b.openMs > lastRest) keep.add(b);
+            }
+
+            f.clear();
+            Bar restForming = null;
+            for (Bar b : parsed) {
+                if (b.openMs >= nowBucket) {
+                    restForming = b;
+                    continue;
+                }
+                f.push(b);
+            }
+            for (Bar b : keep) f.push(b);
+            if (f.forming == null && restForming != null) f.forming = restForming;
+            f.seeded = true;
+            f.lastUpdateMs = System.currentTimeMillis();
+        }
+    }
+
+    // ------------------------ READ ------------------------
+
+    /**
+     * True once the timeframe has history and was touched (tick or seed) within one bar interval.
+     */
+    public boolean isServing(String instrumentKey, int minutes) {
+        final int fi = frameIndex(minutes);
+        final Series s = instrumentKey == null || fi < 0 ? null : series.get(instrumentKey);
+        if (s == null) return false;
+        synchronized (s) {
+            Frame f = s.frames[fi];
+            long maxAge = Math.max(f.tfMs, MINUTE_MS);
+            return f.seeded && System.currentTimeMillis() - f.lastUpdateMs <= maxAge;
+        }
+    }
+
+    /**
+     * Snapshot of closed bars (oldest first) followed by the forming bar, in Upstox row shape.
+     */
+    public List<List<Object>> rows(String instrumentKey, int minutes) {
+        final int fi = frameIndex(minutes);
+        final Series s = instrumentKey == null || fi < 0 ? null : series.get(instrumentKey);
+        if (s == null) return Collections.emptyList();
+        synchronized (s) {
+            Frame f = s.frames[fi];
+            List<List<Object>> out = new ArrayList<>(f.size + 1);
+            for (int i = 0; i < f.size; i++) out.add(f.at(i).toRow());
+            if (f.forming != null) out.add(f.forming.toRow());
+            return out;
+        }
+    }
+
+    public int barCount(String instrumentKey, int minutes) {
+        final int fi = frameIndex(minutes);
+        final Series s = instrumentKey == null || fi < 0 ? null : series.get(instrumentKey);
+        if (s == null) return 0;
+        synchronized (s) {
+            return s.frames[fi].size + (s.frames[fi].forming != null ? 1 : 0);
+        }
+    }
+
+    // ------------------------ HELPERS ------------------------
+
+    private void fireClosed(String instrumentKey, Bar bar) {
+        BarListener l = closed1mListener;
+        if (l == null) return;
+        try {
+            l.onClosed(instrumentKey, bar);
+        } catch (Throwable t) {
+            log.warn("Closed-bar listener failed for {} @ {}: {}", instrumentKey, bar.openTime(), t.toString());
+        }
+    }
+
+    private static long parseEpochMs(Object ts) {
+        if (ts instanceof Number) {
+            long v = ((Number) ts).longValue();
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        }
+        if (ts == null) return -1L;
+        String s = ts.toString().trim();
+        try {
+            return OffsetDateTime.parse(s, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant().toEpochMilli();
+        } catch (Exception ignore) {
+        }
+        try {
+            long v = Long.parseLong(s);
+            return v < 1_000_000_000_000L ? v * 1000L : v;
+        } catch (Exception ignore) {
+        }
+        return -1L;
+    }
+
+    private static double num(Object o) {
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        try {
+            return Double.parseDouble(String.valueOf(o));
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double num0(Object o) {
+        double d = num(o);
+        return Double.isNaN(d) ? 0.0 : d;
+    }
+}
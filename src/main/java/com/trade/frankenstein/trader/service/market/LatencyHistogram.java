@@ -0,0 +1,166 @@
+package com.trade.frankenstein.trader.service.market;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, lock-free log-linear histogram for non-negative long values (latencies in ms).
+ * <p>
+ * Values below 64 get an exact bucket; above that each power of two is split into 32 buckets,
+ * so a reported percentile is within ~3% of the true value. Values are clamped to 2^36.
+ * <p>
+ * {@link #record(long)} is allocation-free: it bumps one slot in one of a few striped
+ * {@link AtomicLongArray}s, picked by thread, so concurrent recorders rarely share a cache line.
+ * Readers sum the stripes into a {@link Snapshot}; {@link #intervalSnapshot()} returns only what
+ * was recorded since its previous call.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB = 1 << SUB_BITS;        // exact range [0, 64)
+    private static final int HALF = SUB >> 1;            // buckets per power of two above it
+    private static final int MAX_EXP = 36;
+    private static final long MAX_VALUE = (1L << MAX_EXP) - 1;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    // per-stripe layout: [0, BUCKETS) counts, then total count, sum, max
+    private static final int COUNT = BUCKETS, SUM = BUCKETS + 1, MAX = BUCKETS + 2, SLOTS = BUCKETS + 3;
+    private static final int STRIPES = 4;
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private long[] lastInterval = new long[SLOTS];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new AtomicLongArray(SLOTS);
+    }
+
+    public void record(long value) {
+        long v = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+        AtomicLongArray s = stripes[(int) (Thread.currentThread().getId() & (STRIPES - 1))];
+        s.incrementAndGet(indexOf(v));
+        s.incrementAndGet(COUNT);
+        s.addAndGet(SUM, v);
+        long m;
+        while (v > (m = s.get(MAX)) && !s.compareAndSet(MAX, m, v)) {
+            // retry
+        }
+    }
+
+    /**
+     * Everything recorded so far.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(collect());
+    }
+
+    /**
+     * What was recorded since the previous interval snapshot. The tracked max is all-time, so the
+     * interval max is bounded by its highest non-empty bucket instead. The baseline is shared, so
+     * there should be a single interval reader (MetricsCollector's periodic persist).
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] now = collect();
+        long[] delta = new long[SLOTS];
+        for (int i = 0; i < MAX; i++) delta[i] = now[i] - lastInterval[i];
+        delta[MAX] = now[MAX];
+        lastInterval = now;
+        return new Snapshot(delta);
+    }
+
+    public long count() {
+        long n = 0;
+        for (AtomicLongArray s : stripes) n += s.get(COUNT);
+        return n;
+    }
+
+    /**
+     * Running mean without taking a snapshot.
+     */
+    public double mean() {
+        long n = 0, sum = 0;
+        for (AtomicLongArray s : stripes) {
+            n += s.get(COUNT);
+            sum += s.get(SUM);
+        }
+        return n == 0 ? 0.0 : (double) sum / n;
+    }
+
+    public void reset() {
+        synchronized (this) {
+            for (AtomicLongArray s : stripes) {
+                for (int i = 0; i < SLOTS; i++) s.set(i, 0L);
+            }
+            lastInterval = new long[SLOTS];
+        }
+    }
+
+    private long[] collect() {
+        long[] out = new long[SLOTS];
+        for (AtomicLongArray s : stripes) {
+            for (int i = 0; i < MAX; i++) out[i] += s.get(i);
+            out[MAX] = Math.max(out[MAX], s.get(MAX));
+        }
+        return out;
+    }
+
+    static int indexOf(long v) {
+        if (v < SUB) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - (SUB_BITS - 1);
+        return shift * HALF + (int) (v >>> shift);
+    }
+
+    static long lowestOf(int idx) {
+        if (idx < SUB) return idx;
+        int shift = idx / HALF - 1;
+        return (long) (idx - shift * HALF) << shift;
+    }
+
+    static long highestOf(int idx) {
+        return idx < SUB ? idx : lowestOf(idx + 1) - 1;
+    }
+
+    /**
+     * Immutable view of bucket counts; percentiles report the upper edge of the bucket.
+     */
+    public static final class Snapshot {
+        private final long[] slots;
+
+        private Snapshot(long[] slots) {
+            this.slots = slots;
+        }
+
+        public long count() {
+            return slots[COUNT];
+        }
+
+        public double mean() {
+            return count() == 0 ? 0.0 : (double) slots[SUM] / count();
+        }
+
+        public long min() {
+            for (int i = 0; i < BUCKETS; i++) if (slots[i] > 0) return lowestOf(i);
+            return 0L;
+        }
+
+        public long max() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (slots[i] > 0) return Math.min(highestOf(i), slots[MAX]);
+            }
+            return 0L;
+        }
+
+        /**
+         * Value at quantile q (0..1), or 0 when empty.
+         */
+        public long valueAt(double q) {
+            long n = count();
+            if (n == 0) return 0L;
+            long rank = Math.max(1L, (long) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += slots[i];
+                if (seen >= rank) return Math.min(highestOf(i), slots[MAX]);
+            }
+            return max();
+        }
+    }
+}
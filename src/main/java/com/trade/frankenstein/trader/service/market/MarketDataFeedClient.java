@@ -0,0 +1,333 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
+import com.trade.frankenstein.trader.common.AuthCodeHolder;
+import com.trade.frankenstein.trader.service.UpstoxService;
+import com.upstox.marketdatafeeder.rpc.proto.MarketDataFeed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streaming market-data feed consumer.
+ * <p>
+ * Resolves the authorized Upstox WebSocket URI, keeps one socket open, decodes the protobuf
+ * frames and pushes every LTP into {@link MarketDataService#recordTick}. Subscriptions come from
+ * {@link MarketFeedSubscriptions} and are replayed after every reconnect. Reconnects are driven
+ * by the watchdog with exponential backoff, so a dead socket never blocks a caller.
+ * <p>
+ * Upstox's v3 feed keeps the v2 field numbers for LTPC and the full/option feeds, so the SDK's
+ * v2 bindings decode it; fields they do not know are kept as unknown fields and ignored.
+ * <p>
+ * Toggle with: trade.feed.enabled=true
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "trade.feed", name = "enabled", havingValue = "true")
+public class MarketDataFeedClient implements MarketFeedSubscriptions.Listener {
+
+    private static final long BASE_BACKOFF_MS = 500, MAX_BACKOFF_MS = 30_000;
+    private static final long STALE_FEED_MS = 30_000;
+    private static final int INITIAL_FRAME_BYTES = 64 * 1024;
+
+    @Autowired
+    private UpstoxService upstox;
+    @Autowired
+    private MarketDataService marketDataService;
+    @Autowired
+    private MarketFeedSubscriptions subscriptions;
+    @Autowired
+    private MetricsCollector metricsCollector;
+    @Autowired
+    private ObjectMapper mapper;
+
+    // Points the client at a local stand-in server instead of Upstox (blank = use Upstox)
+    @Value("${trade.feed.url-override:}")
+    private String urlOverride;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final AtomicReference<WebSocket> socket = new AtomicReference<>();
+    private final AtomicBoolean connecting = new AtomicBoolean(false);
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private volatile long lastFrameAtMs = 0L;
+    private volatile long nextConnectAtMs = 0L;
+    private volatile int failedAttempts = 0;
+
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong ticksDispatched = new AtomicLong();
+    private final AtomicLong decodeErrors = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        subscriptions.addListener(this);
+    }
+
+    // ------------------------ CONNECTION ------------------------
+
+    /**
+     * Watchdog: connects once the user is logged in, reconnects with backoff when the socket
+     * drops, and recycles a socket that stopped delivering frames.
+     */
+    @Scheduled(fixedDelayString = "${trade.feed.watchdog-ms:5000}")
+    public void watchdog() {
+        if (stopped.get() || !isLoggedIn()) return;
+
+        final long now = System.currentTimeMillis();
+        final WebSocket ws = socket.get();
+        if (ws != null) {
+            if (ws.isInputClosed() || ws.isOutputClosed()) {
+                onDisconnected(ws, "closed");
+            } else if (lastFrameAtMs > 0 && now - lastFrameAtMs > STALE_FEED_MS) {
+                log.warn("Market feed silent for {} ms, recycling socket", now - lastFrameAtMs);
+                ws.abort();
+                onDisconnected(ws, "stale");
+            }
+            return;
+        }
+        if (now >= nextConnectAtMs) connect();
+    }
+
+    private void connect() {
+        if (!connecting.compareAndSet(false, true)) return;
+        try {
+            final String url = (urlOverride != null && !urlOverride.isBlank())
+                    ? urlOverride.trim()
+                    : upstox.getMarketDataFeedAuthorizedUri();
+            if (url == null || url.trim().isEmpty()) {
+                scheduleRetry("no authorized feed URI");
+                connecting.set(false);
+                return;
+            }
+            http.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(URI.create(url), new FeedListener())
+                    .whenComplete((ws, err) -> {
+                        connecting.set(false);
+                        if (err != null) {
+                            scheduleRetry(err.toString());
+                        }
+                    });
+        } catch (Throwable t) {
+            connecting.set(false);
+            scheduleRetry(t.toString());
+        }
+    }
+
+    private void onConnected(WebSocket ws) {
+        socket.set(ws);
+        failedAttempts = 0;
+        lastFrameAtMs = System.currentTimeMillis();
+        log.info("Market feed connected; replaying {} subscription(s)", subscriptions.instrumentKeys().size());
+        for (Map.Entry<MarketFeedSubscriptions.Mode, List<String>> e : subscriptions.byMode().entrySet()) {
+            sendRequest(ws, "sub", e.getKey(), e.getValue());
+        }
+    }
+
+    private void onDisconnected(WebSocket ws, String reason) {
+        if (socket.compareAndSet(ws, null)) {
+            reconnects.incrementAndGet();
+            metricsCollector.recordSourceFailure("upstox_feed", "disconnect");
+            scheduleRetry(reason);
+        }
+    }
+
+    private void scheduleRetry(String reason) {
+        int attempt = Math.min(16, ++failedAttempts);
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS * (1L << Math.min(attempt, 10)));
+        nextConnectAtMs = System.currentTimeMillis() + backoff;
+        log.warn("Market feed unavailable ({}); retry #{} in {} ms", reason, attempt, backoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped.set(true);
+        subscriptions.removeListener(this);
+        WebSocket ws = socket.getAndSet(null);
+        if (ws != null) {
+            try {
+                ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+            } catch (Throwable ignore) {
+            }
+        }
+    }
+
+    // ------------------------ SUBSCRIPTIONS ------------------------
+
+    @Override
+    public void onChange(String method, MarketFeedSubscriptions.Mode mode, Collection<String> instrumentKeys) {
+        WebSocket ws = socket.get();
+        if (ws != null) sendRequest(ws, method, mode, instrumentKeys);
+        // otherwise picked up by the replay in onConnected(...)
+    }
+
+    private void sendRequest(WebSocket ws, String method, MarketFeedSubscriptions.Mode mode, Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) return;
+        try {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("mode", mode.wire());
+            data.put("instrumentKeys", new ArrayList<>(keys));
+            Map<String, Object> req = new LinkedHashMap<>();
+            req.put("guid", UUID.randomUUID().toString());
+            req.put("method", method);
+            req.put("data", data);
+            // Upstox expects the JSON request as a binary frame
+            ws.sendBinary(ByteBuffer.wrap(mapper.writeValueAsBytes(req)), true);
+            log.info("Market feed {} {} {}", method, mode.wire(), keys);
+        } catch (Throwable t) {
+            log.warn("Market feed {} request failed for {}: {}", method, keys, t.toString());
+        }
+    }
+
+    // ------------------------ DECODE & DISPATCH ------------------------
+
+    /**
+     * Decodes one complete feed frame and pushes its ticks into MarketDataService.
+     * Also the entry point for {@link MarketFeedReplayer}, so replays exercise the same path.
+     *
+     * @return number of ticks dispatched
+     */
+    public int dispatchFrame(byte[] frame, int length) {
+        final long t0 = System.nanoTime();
+        framesReceived.incrementAndGet();
+        lastFrameAtMs = System.currentTimeMillis();
+
+        final MarketDataFeed.FeedResponse resp;
+        try {
+            resp = MarketDataFeed.FeedResponse.parseFrom(CodedInputStream.newInstance(frame, 0, length));
+        } catch (Throwable t) {
+            decodeErrors.incrementAndGet();
+            log.debug("Market feed frame decode failed ({} bytes): {}", length, t.toString());
+            return 0;
+        }
+
+        int n = 0;
+        for (Map.Entry<String, MarketDataFeed.Feed> e : resp.getFeedsMap().entrySet()) {
+            MarketDataFeed.LTPC ltpc = ltpcOf(e.getValue());
+            if (ltpc == null || ltpc.getLtp() <= 0) continue;
+
+            long ltt = ltpc.getLtt();
+            Instant ts = ltt > 0 ? Instant.ofEpochMilli(ltt) : Instant.now();
+            long ltq = ltpc.getLtq();
+            marketDataService.recordTick(e.getKey(), ts, ltpc.getLtp(), ltq > 0 ? ltq : null);
+            n++;
+        }
+        ticksDispatched.addAndGet(n);
+        if (n > 0) {
+            metricsCollector.recordSourceLatency("upstox_feed", (System.nanoTime() - t0) / 1_000_000L);
+        }
+        return n;
+    }
+
+    private static MarketDataFeed.LTPC ltpcOf(MarketDataFeed.Feed f) {
+        if (f == null) return null;
+        if (f.hasLtpc()) return f.getLtpc();
+        if (f.hasFf()) {
+            MarketDataFeed.FullFeed ff = f.getFf();
+            if (ff.hasMarketFF() && ff.getMarketFF().hasLtpc()) return ff.getMarketFF().getLtpc();
+            if (ff.hasIndexFF() && ff.getIndexFF().hasLtpc()) return ff.getIndexFF().getLtpc();
+        }
+        if (f.hasOc() && f.getOc().hasLtpc()) return f.getOc().getLtpc();
+        return null;
+    }
+
+    // ------------------------ STATUS ------------------------
+
+    public boolean isConnected() {
+        WebSocket ws = socket.get();
+        return ws != null && !ws.isInputClosed();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("connected", isConnected());
+        m.put("lastFrameAt", lastFrameAtMs > 0 ? Instant.ofEpochMilli(lastFrameAtMs) : null);
+        m.put("frames", framesReceived.get());
+        m.put("ticks", ticksDispatched.get());
+        m.put("decodeErrors", decodeErrors.get());
+        m.put("reconnects", reconnects.get());
+        m.put("subscriptions", subscriptions.instrumentKeys());
+        return m;
+    }
+
+    private boolean isLoggedIn() {
+        try {
+            return AuthCodeHolder.getInstance().isLoggedIn();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    // ------------------------ SOCKET LISTENER ------------------------
+
+    private final class FeedListener implements WebSocket.Listener {
+
+        // Frames can arrive in several parts; reassemble into a reused buffer
+        private byte[] buf = new byte[INITIAL_FRAME_BYTES];
+        private int len = 0;
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            onConnected(webSocket);
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            try {
+                int need = len + data.remaining();
+                if (need > buf.length) buf = Arrays.copyOf(buf, Math.max(need, buf.length * 2));
+                data.get(buf, len, data.remaining());
+                len = need;
+                if (last) {
+                    dispatchFrame(buf, len);
+                    len = 0;
+                }
+            } catch (Throwable t) {
+                len = 0;
+                log.debug("Market feed frame handling failed: {}", t.toString());
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            // Upstox only sends binary frames; ignore anything else
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            onDisconnected(webSocket, "close " + statusCode + (reason == null ? "" : " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            onDisconnected(webSocket, String.valueOf(error));
+        }
+    }
+}
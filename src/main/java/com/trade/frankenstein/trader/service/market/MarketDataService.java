@@ -3,11 +3,15 @@ package com.trade.frankenstein.trader.service.market;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trade.frankenstein.trader.bus.EventBusConfig;
+import com.trade.frankenstein.trader.bus.TickEvent;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.Ta4jSeriesCache;
+import com.trade.frankenstein.trader.common.TickContext;
 import com.trade.frankenstein.trader.common.Underlyings;
 import com.trade.frankenstein.trader.common.constants.BotConsts;
+import com.trade.frankenstein.trader.common.indicators.ZScore;
 import com.trade.frankenstein.trader.core.FastStateStore;
 import com.trade.frankenstein.trader.dto.AlertDTO;
 import com.trade.frankenstein.trader.dto.InstrumentTickDTO;
@@ -22,13 +26,13 @@ import com.trade.frankenstein.trader.service.strategy.StrategyService;
 import com.trade.frankenstein.trader.service.StreamGateway;
 import com.trade.frankenstein.trader.service.UpstoxService;
 import com.upstox.api.*;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBar;
-import org.ta4j.core.BaseBarSeriesBuilder;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -36,7 +40,6 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -50,6 +53,13 @@ public class MarketDataService {
     private volatile Instant lastRegimeFlip = Instant.EPOCH;
     private volatile MarketRegime prevHourlyRegime = null;
 
+    // Latest streamed LTP per instrument (filled by recordTick from the WebSocket feed)
+    private static final long STREAM_LTP_FRESH_MS = 2_000L;
+    private final Map<String, StreamLtp> lastStreamLtp = new ConcurrentHashMap<>();
+
+    private record StreamLtp(double ltp, long atMs) {
+    }
+
     // ===== ORIGINAL AUTOWIRED DEPENDENCIES =====
     @Autowired
     private UpstoxService upstox;
@@ -75,6 +85,23 @@ public class MarketDataService {
     private TickIntegrityMonitor integrityMonitor;
     @Autowired
     private AlertService alertService;
+    @Autowired
+    private CandleAggregator candleAggregator;
+    @Autowired
+    private Ta4jSeriesCache ta4jSeriesCache;
+    @Autowired
+    private RecentTickBuffer recentTicks;
+    @Autowired
+    private TimeSeriesWriteBehind writeBehind;
+    @Autowired
+    private TickArchive tickArchive;
+
+    @PostConstruct
+    void initCandleAggregator() {
+        // Persist streamed 1m bars as they close
+        candleAggregator.setClosed1mListener((symbol, bar) -> writeCandle1m(symbol, bar.openTime(),
+                bar.open(), bar.high(), bar.low(), bar.close(), bar.volume()));
+    }
 
     // ===== ENHANCED LTP METHODS =====
 
@@ -83,13 +110,23 @@ public class MarketDataService {
      */
     public Result<BigDecimal> getLtp(String instrumentKey) {
         if (!isLoggedIn()) return Result.fail("user-not-logged-in");
+        return TickContext.memo("md.ltp:" + instrumentKey, () -> loadLtp(instrumentKey));
+    }
 
+    private Result<BigDecimal> loadLtp(String instrumentKey) {
         long startTime = System.currentTimeMillis();
         try {
             if (instrumentKey == null || instrumentKey.trim().isEmpty()) {
                 return Result.fail("BAD_REQUEST", "instrumentKey is required");
             }
 
+            // 0) Streamed LTP from the market feed, if fresh
+            StreamLtp streamed = lastStreamLtp.get(instrumentKey);
+            if (streamed != null && startTime - streamed.atMs() <= STREAM_LTP_FRESH_MS) {
+                metricsCollector.recordApiCall("ltp_stream_hit", true, System.currentTimeMillis() - startTime);
+                return Result.ok(BigDecimal.valueOf(streamed.ltp()));
+            }
+
             final String cacheKey = "ltp:" + instrumentKey;
 
             // 1) Try cache first
@@ -214,15 +251,12 @@ public class MarketDataService {
 
         long startTime = System.currentTimeMillis();
         try {
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(underlyingKey, "minutes", "5");
-            if (ic == null || ic.getData() == null) {
+            List<List<Object>> rows = intradayRows(underlyingKey, "minutes", "5");
+            if (rows == null) {
                 metricsCollector.recordApiCall("upstox_candles_5m", false, System.currentTimeMillis() - startTime);
                 return Result.fail("NOT_FOUND", "No intraday candle response");
             }
-
-            IntraDayCandleData data = ic.getData();
-            List<List<Object>> rows = data.getCandles();
-            if (rows == null || rows.isEmpty()) {
+            if (rows.isEmpty()) {
                 return Result.fail("NOT_FOUND", "No intraday candles");
             }
 
@@ -258,18 +292,8 @@ public class MarketDataService {
                 return Result.fail("NOT_FOUND", "Insufficient valid candle data");
             }
 
-            // Calculate momentum with enhanced statistics
-            double[] validCloses = Arrays.copyOf(closes, validCount);
-            double last = validCloses[validCount - 1];
-            double mean = mean(validCloses);
-            double std = stddev(validCloses, mean);
-
-            if (std <= 1e-8) {
-                log.debug("Zero volatility detected for {}", underlyingKey);
-                return Result.ok(BigDecimal.ZERO);
-            }
-
-            double z = (last - mean) / std;
+            // Calculate momentum in place over the valid prefix (flat window -> 0)
+            double z = ZScore.of(closes, 0, validCount);
             BigDecimal result = BigDecimal.valueOf(z).setScale(4, RoundingMode.HALF_UP);
 
             // Record enhanced metrics using existing methods
@@ -351,7 +375,7 @@ public class MarketDataService {
 
             // Enhanced broadcasting
             JsonNode node = mapper.valueToTree(payload);
-            stream.publishTicks("signals.enhanced", node.toPrettyString());
+            stream.publishTicks("signals.enhanced", node);
 
             // Record broadcast metrics using existing methods
             long latency = System.currentTimeMillis() - startTime;
@@ -372,6 +396,8 @@ public class MarketDataService {
     public void recordTick(String symbol, Instant ts, double ltp, Long qty) {
         if (!isLoggedIn()) return;
         if (symbol == null || ts == null) return;
+        lastStreamLtp.put(symbol, new StreamLtp(ltp, System.currentTimeMillis()));
+        candleAggregator.onTick(symbol, ts, ltp, qty);
 
         try {
             // Create tick and validate using existing method
@@ -402,6 +428,10 @@ public class MarketDataService {
 
         long startTime = System.currentTimeMillis();
         try {
+            // Streamed bars are persisted as they close; REST only covers a silent feed
+            candleAggregator.closeElapsed(Instant.now());
+            if (candleAggregator.isServing(underlyingKey, 1)) return;
+
             // Pull 1m intraday candles
             GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(underlyingKey, "minutes", "1");
             if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) {
@@ -410,6 +440,7 @@ public class MarketDataService {
             }
 
             List<List<Object>> rows = ic.getData().getCandles();
+            candleAggregator.seed(underlyingKey, 1, rows);
             if (rows.size() < 2) return;
 
             // Get the completed candle
@@ -538,7 +569,9 @@ public class MarketDataService {
                     .ltp(ltp)
                     .quantity(qty)
                     .build();
-            tickRepo.save(t);
+            if (!writeBehind.enqueueTick(t)) tickRepo.save(t);
+            tickArchive.appendTick(symbol, ts, ltp, qty);
+            recentTicks.add(symbol, ts, ltp, qty);
 
             // Record quality metrics using existing method
             metricsCollector.recordTickQuality(symbol, quality.overallScore().doubleValue());
@@ -551,18 +584,11 @@ public class MarketDataService {
     private void publishEnhancedTickEvent(String symbol, Instant ts, double ltp, Long qty,
                                           TickIntegrityMonitor.QualityAssessment quality) {
         try {
-            com.google.gson.JsonObject event = new com.google.gson.JsonObject();
-            event.addProperty("ts", ts.toEpochMilli());
-            event.addProperty("ts_iso", ts.toString());
-            event.addProperty("event", "tick.enhanced");
-            event.addProperty("source", "enhanced_marketdata");
-            event.addProperty("symbol", symbol);
-            event.addProperty("ltp", ltp);
-            event.addProperty("qty", qty == null ? 0 : qty);
-            event.addProperty("quality_score", quality.overallScore().doubleValue());
-            event.addProperty("has_anomalies", quality.qualityFlags().hasAnomalies());
-
-            bus.publish(EventBusConfig.TOPIC_TICKS, symbol, event.toString());
+            TickEvent event = new TickEvent(ts.toEpochMilli(), ts.toString(), "tick.enhanced", "enhanced_marketdata",
+                    symbol, ltp, qty == null ? 0L : qty,
+                    quality.overallScore().doubleValue(), quality.qualityFlags().hasAnomalies());
+
+            bus.publish(EventBusConfig.TOPIC_TICKS, symbol, event);
         } catch (Exception e) {
             log.debug("Enhanced tick event publishing failed: {}", e.getMessage());
         }
@@ -772,9 +798,7 @@ public class MarketDataService {
     public Optional<BigDecimal> getMomentumOn(String unit, String interval) {
         if (!isLoggedIn()) return Optional.empty();
         try {
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(underlyingKey, unit, interval);
-            if (ic == null || ic.getData() == null) return Optional.empty();
-            List<List<Object>> rows = ic.getData().getCandles();
+            List<List<Object>> rows = intradayRows(underlyingKey, unit, interval);
             if (rows == null || rows.size() < 10) return Optional.empty();
 
             double[] closes = new double[rows.size()];
@@ -795,6 +819,10 @@ public class MarketDataService {
 
     public Optional<MarketRegime> getRegimeOn(String unit, String interval) {
         if (!isLoggedIn()) return Optional.empty();
+        return TickContext.memo("md.regime:" + unit + ":" + interval, () -> computeRegimeOn(unit, interval));
+    }
+
+    private Optional<MarketRegime> computeRegimeOn(String unit, String interval) {
         Optional<BigDecimal> zOpt = getMomentumOn(unit, interval);
         if (!zOpt.isPresent()) return Optional.empty();
 
@@ -829,7 +857,7 @@ public class MarketDataService {
     }
 
     /**
-     * Insert a 1-minute candle into candles_1m (can be changed to upsert if you add uniqueness).
+     * Insert a 1-minute candle into candles_1m via the write-behind batcher (can be changed to upsert if you add uniqueness).
      */
     public void writeCandle1m(String symbol, Instant openTime,
                               double open, double high, double low, double close, Long volume) {
@@ -844,7 +872,8 @@ public class MarketDataService {
                 .closePrice(close)
                 .volume(volume)
                 .build();
-        candleRepo.save(c);
+        if (!writeBehind.enqueueCandle(c)) candleRepo.save(c);
+        tickArchive.appendBar(symbol, openTime, open, high, low, close, volume);
     }
 
     /**
@@ -1012,19 +1041,55 @@ public class MarketDataService {
         return Optional.ofNullable(lastRegimeFlip);
     }
 
-    // === Get ta4j BarSeries for any Upstox timeframe (generic, used by callers) ===
+    /**
+     * Intraday candles for any Upstox timeframe in the SDK response shape. Served from the
+     * tick-built {@link CandleAggregator} while it is live, else from REST (which seeds it).
+     */
+    public GetIntraDayCandleResponse getIntradayCandles(String instrumentKey, String unit, String interval) {
+        String key = (instrumentKey == null || instrumentKey.trim().isEmpty()) ? underlyingKey : instrumentKey;
+        List<List<Object>> rows = intradayRows(key, unit, interval);
+        if (rows == null) return null;
+        IntraDayCandleData data = new IntraDayCandleData();
+        data.setCandles(rows);
+        GetIntraDayCandleResponse resp = new GetIntraDayCandleResponse();
+        resp.setData(data);
+        return resp;
+    }
+
+    // === Candle rows: aggregator first, REST on miss (rows oldest first, ts in epoch millis) ===
+    private List<List<Object>> intradayRows(String key, String unit, String interval) {
+        List<List<Object>> rows = TickContext.memo("md.candles:" + key + ":" + unit + ":" + interval,
+                () -> loadIntradayRows(key, unit, interval));
+        // callers may sort in place; don't share the memoized list
+        return rows == null ? null : new ArrayList<>(rows);
+    }
+
+    private List<List<Object>> loadIntradayRows(String key, String unit, String interval) {
+        final int tf = CandleAggregator.minutesOf(unit, interval);
+        if (tf > 0 && candleAggregator.isServing(key, tf)) {
+            metricsCollector.recordApiCall("candles_agg_hit", true, 0L);
+            return candleAggregator.rows(key, tf);
+        }
+
+        GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, unit, interval);
+        List<List<Object>> rows = (ic == null || ic.getData() == null) ? null : ic.getData().getCandles();
+        if (rows == null || tf <= 0) return rows;
+
+        candleAggregator.seed(key, tf, rows);
+        List<List<Object>> seeded = candleAggregator.rows(key, tf);
+        return seeded.isEmpty() ? rows : seeded;
+    }
+
+    // === Get ta4j BarSeries for any Upstox timeframe (shared, incrementally updated series) ===
     public Optional<BarSeries> getTa4jSeries(String instrumentKey, String unit, String interval) {
         if (!isLoggedIn()) return Optional.empty();
         try {
             String key = (instrumentKey == null || instrumentKey.trim().isEmpty()) ? underlyingKey : instrumentKey;
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, unit, interval);
-            if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) return Optional.empty();
-
-            List<List<Object>> rows = ic.getData().getCandles();
+            List<List<Object>> rows = intradayRows(key, unit, interval);
             Duration tf = durationOf(unit, interval);
-            if (tf == null || rows.isEmpty()) return Optional.empty();
+            if (tf == null || rows == null || rows.isEmpty()) return Optional.empty();
 
-            BarSeries s = toBarSeries("UF:" + key + ":" + unit + ":" + interval, rows, tf);
+            BarSeries s = ta4jSeriesCache.update("UF:" + key + ":" + unit + ":" + interval, rows, tf).series();
             return (s == null || s.getBarCount() == 0) ? Optional.empty() : Optional.of(s);
         } catch (Throwable t) {
             log.warn("getTa4jSeries({}, {}, {}) failed: {}", instrumentKey, unit, interval, t.toString());
@@ -1032,32 +1097,6 @@ public class MarketDataService {
         }
     }
 
-    // === Convert Upstox rows -> ta4j BarSeries (Java 8, ta4j 0.17-friendly) ===
-    private BarSeries toBarSeries(String name, List<List<Object>> rows, Duration timeframe) {
-        try {
-            BarSeries series = new BaseBarSeriesBuilder().withName(name).build();
-            ZoneId zone = ZoneId.of("Asia/Kolkata");
-            for (List<Object> r : rows) {
-                if (r == null || r.size() < 6) continue;
-                long epochMs = toEpochMillis(r.get(0));
-                if (epochMs <= 0L) continue;
-
-                ZonedDateTime endZdt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMs), zone);
-                double open = asDouble(r.get(1));
-                double high = asDouble(r.get(2));
-                double low = asDouble(r.get(3));
-                double close = asDouble(r.get(4));
-                double vol = asDouble(r.get(5));
-                if (Double.isNaN(open) || Double.isNaN(high) || Double.isNaN(low) || Double.isNaN(close)) continue;
-                series.addBar(new BaseBar(timeframe, endZdt, open, high, low, close, vol));
-            }
-            return series;
-        } catch (Throwable t) {
-            log.warn("toBarSeries(rows...) failed: {}", t.toString());
-            return null;
-        }
-    }
-
     /**
      * ATR%% (percentage of price) over a lookback window on a given timeframe.
      * Uses Upstox intraday candles; computes classical Wilder-style ATR approximation:
@@ -1076,10 +1115,9 @@ public class MarketDataService {
             } catch (Throwable ignore) {
             }
 
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, unit, interval);
-            if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) return Optional.empty();
+            List<List<Object>> cs = intradayRows(key, unit, interval);
+            if (cs == null) return Optional.empty();
 
-            List<List<Object>> cs = ic.getData().getCandles();
             final int len = cs.size();
             if (len < (lookback + 1)) return Optional.empty();
 
@@ -1135,10 +1173,8 @@ public class MarketDataService {
             } catch (Throwable ignore) {
             }
 
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, u, iv);
-            if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) return Optional.empty();
-            List<List<Object>> rows = ic.getData().getCandles();
-            if (rows.isEmpty()) return Optional.empty();
+            List<List<Object>> rows = intradayRows(key, u, iv);
+            if (rows == null || rows.isEmpty()) return Optional.empty();
 
             // Determine today's date in exchange timezone
             ZoneId zone = ZoneId.of("Asia/Kolkata");
@@ -1198,9 +1234,8 @@ public class MarketDataService {
             } catch (Throwable ignore) {
             }
 
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, "minutes", "5");
-            if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) return Optional.empty();
-            List<List<Object>> cs = ic.getData().getCandles();
+            List<List<Object>> cs = intradayRows(key, "minutes", "5");
+            if (cs == null) return Optional.empty();
             final int len = cs.size();
             final int lookback = 20;
             final int skip = 5;
@@ -1272,9 +1307,8 @@ public class MarketDataService {
             } catch (Throwable ignore) {
             }
 
-            GetIntraDayCandleResponse ic = upstox.getIntradayCandleData(key, "minutes", "5");
-            if (ic == null || ic.getData() == null || ic.getData().getCandles() == null) return Optional.empty();
-            List<List<Object>> rows = ic.getData().getCandles();
+            List<List<Object>> rows = intradayRows(key, "minutes", "5");
+            if (rows == null) return Optional.empty();
             final int CLOSE = 4;
             final int N = Math.min(60, rows.size());
             if (N < 30) return Optional.empty();
@@ -1345,9 +1379,7 @@ public class MarketDataService {
         try {
             // Get the last N=20 1-min candles for given instrument
             int N = 20;
-            GetIntraDayCandleResponse resp = upstox.getIntradayCandleData(instrumentKey, "minutes", "1");
-            if (resp == null || resp.getData() == null) return Optional.empty();
-            List<List<Object>> rows = resp.getData().getCandles();
+            List<List<Object>> rows = intradayRows(instrumentKey, "minutes", "1");
             if (rows == null || rows.size() < N)
                 return Optional.empty();
 
@@ -1853,16 +1885,12 @@ public class MarketDataService {
 
     private List<Tick> getRecentTicks(String instrumentKey, int limit) {
         try {
-            // Get recent ticks from repository, sorted by timestamp descending
-            List<Tick> allTicks = tickRepo.findBySymbolOrderByTsDesc(instrumentKey);
-
-            // Filter for recent ticks (last 5 minutes) and limit
-            Instant fiveMinutesAgo = Instant.now().minusSeconds(300);
+            // Last 5 minutes, newest first: in-process ring when it covers the window, else a bounded query
+            final Duration window = Duration.ofMinutes(5);
+            List<Tick> fromRing = recentTicks.recent(instrumentKey, window, limit);
+            if (fromRing != null) return fromRing;
 
-            return allTicks.stream()
-                    .filter(tick -> tick.getTs() != null && tick.getTs().isAfter(fiveMinutesAgo))
-                    .limit(limit)
-                    .collect(Collectors.toList());
+            return tickRepo.findRecent(instrumentKey, Instant.now().minus(window), PageRequest.of(0, limit));
 
         } catch (Exception e) {
             log.debug("Failed to get recent ticks for {}: {}", instrumentKey, e.getMessage());
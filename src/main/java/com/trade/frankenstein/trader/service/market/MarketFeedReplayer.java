@@ -0,0 +1,120 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.trade.frankenstein.trader.common.Underlyings;
+import com.trade.frankenstein.trader.model.documents.Tick;
+import com.trade.frankenstein.trader.repo.documents.TickRepo;
+import com.upstox.marketdatafeeder.rpc.proto.MarketDataFeed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Upstox feed: replays stored ticks as protobuf feed frames through
+ * {@link MarketDataFeedClient#dispatchFrame}, i.e. the same decode → recordTick path as live data.
+ * <p>
+ * Replayed ticks are recorded again and overwrite the live LTP, so this is a dev-only tool for a
+ * sandbox database: it exists only with trade.feed.replay.enabled=true (off by default).
+ * One replay runs at a time on a dedicated daemon thread.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "trade.feed.replay", name = "enabled", havingValue = "true")
+public class MarketFeedReplayer {
+
+    @Autowired
+    private TickRepo tickRepo;
+    @Autowired
+    private MarketDataFeedClient feedClient;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "feed-replay");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong framesReplayed = new AtomicLong();
+    private volatile Future<?> running;
+
+    /**
+     * Starts replaying ticks of one instrument in [from, to).
+     *
+     * @param speed playback multiplier (1 = real time, &lt;= 0 = as fast as possible)
+     * @return number of ticks queued, or -1 if a replay is already running
+     */
+    public synchronized int start(String instrumentKey, Instant from, Instant to, double speed) {
+        if (running != null && !running.isDone()) return -1;
+        final String key = Underlyings.normalize(instrumentKey);
+        final List<Tick> ticks = tickRepo.findBySymbolAndTsBetweenOrderByTsAsc(key, from, to);
+        if (ticks == null || ticks.isEmpty()) return 0;
+
+        running = worker.submit(() -> replay(key, ticks, speed));
+        log.info("Feed replay started: {} ticks of {} [{} .. {}) at {}x", ticks.size(), key, from, to, speed);
+        return ticks.size();
+    }
+
+    public synchronized boolean stop() {
+        if (running == null || running.isDone()) return false;
+        return running.cancel(true);
+    }
+
+    public boolean isRunning() {
+        Future<?> f = running;
+        return f != null && !f.isDone();
+    }
+
+    public long getFramesReplayed() {
+        return framesReplayed.get();
+    }
+
+    private void replay(String key, List<Tick> ticks, double speed) {
+        long prevTs = -1L;
+        for (Tick t : ticks) {
+            if (Thread.currentThread().isInterrupted()) break;
+            if (t == null || t.getTs() == null) continue;
+
+            long ts = t.getTs().toEpochMilli();
+            if (speed > 0 && prevTs > 0 && ts > prevTs) {
+                try {
+                    Thread.sleep((long) ((ts - prevTs) / speed));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            prevTs = ts;
+
+            byte[] frame = encode(key, t.getLtp(), ts, t.getQuantity() == null ? 0L : t.getQuantity());
+            feedClient.dispatchFrame(frame, frame.length);
+            framesReplayed.incrementAndGet();
+        }
+        log.info("Feed replay finished for {}", key);
+    }
+
+    /**
+     * Builds an LTPC-mode feed frame exactly as Upstox would send it.
+     */
+    static byte[] encode(String instrumentKey, double ltp, long lttMillis, long ltq) {
+        MarketDataFeed.LTPC ltpc = MarketDataFeed.LTPC.newBuilder()
+                .setLtp(ltp)
+                .setLtt(lttMillis)
+                .setLtq(ltq)
+                .build();
+        return MarketDataFeed.FeedResponse.newBuilder()
+                .putFeeds(instrumentKey, MarketDataFeed.Feed.newBuilder().setLtpc(ltpc).build())
+                .build()
+                .toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
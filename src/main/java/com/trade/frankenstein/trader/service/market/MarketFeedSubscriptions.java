@@ -0,0 +1,164 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.trade.frankenstein.trader.common.Underlyings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Subscription manager for the streaming market-data feed, keyed by instrument key.
+ * <p>
+ * Subscriptions are reference counted so independent callers (strategy, option chain, UI)
+ * can share an instrument without unsubscribing each other. Listeners are told only about
+ * real changes (first subscribe, mode change, last unsubscribe), which the feed client turns
+ * into "sub"/"unsub"/"change_mode" frames.
+ */
+@Slf4j
+@Component
+public class MarketFeedSubscriptions {
+
+    /**
+     * Upstox feed modes (wire names as expected by the subscription request), ordered poorest to richest.
+     */
+    public enum Mode {
+        LTPC("ltpc"), OPTION_GREEKS("option_greeks"), FULL("full");
+
+        private final String wire;
+
+        Mode(String wire) {
+            this.wire = wire;
+        }
+
+        public String wire() {
+            return wire;
+        }
+
+        public static Mode of(String s) {
+            if (s != null) {
+                for (Mode m : values()) {
+                    if (m.wire.equalsIgnoreCase(s.trim()) || m.name().equalsIgnoreCase(s.trim())) return m;
+                }
+            }
+            return LTPC;
+        }
+    }
+
+    /**
+     * Receives subscription changes; method is one of "sub", "unsub", "change_mode".
+     */
+    public interface Listener {
+        void onChange(String method, Mode mode, Collection<String> instrumentKeys);
+    }
+
+    private static final class Entry {
+        final Mode mode;
+        final int refs;
+
+        Entry(Mode mode, int refs) {
+            this.mode = mode;
+            this.refs = refs;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> subs = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public MarketFeedSubscriptions(
+            @Value("${trade.feed.instruments:" + Underlyings.NIFTY + "}") List<String> defaults,
+            @Value("${trade.feed.mode:ltpc}") String defaultMode) {
+        Mode mode = Mode.of(defaultMode);
+        if (defaults != null) {
+            for (String key : defaults) {
+                if (key != null && !key.trim().isEmpty()) subscribe(key, mode);
+            }
+        }
+    }
+
+    public void addListener(Listener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Adds a reference to the instrument. Returns true when this changed what the feed must stream.
+     */
+    public boolean subscribe(String instrumentKey, Mode mode) {
+        if (instrumentKey == null || instrumentKey.trim().isEmpty()) return false;
+        final String key = Underlyings.normalize(instrumentKey);
+        final Mode m = mode == null ? Mode.LTPC : mode;
+        final String[] method = new String[1];
+        subs.compute(key, (k, cur) -> {
+            if (cur == null) {
+                method[0] = "sub";
+                return new Entry(m, 1);
+            }
+            // Never downgrade: richer modes carry LTPC, so keep the richest requested mode
+            Mode merged = cur.mode.ordinal() >= m.ordinal() ? cur.mode : m;
+            if (merged != cur.mode) method[0] = "change_mode";
+            return new Entry(merged, cur.refs + 1);
+        });
+        if (method[0] != null) {
+            notifyListeners(method[0], subs.get(key).mode, Collections.singletonList(key));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops a reference. Returns true when the instrument is no longer streamed.
+     */
+    public boolean unsubscribe(String instrumentKey) {
+        if (instrumentKey == null || instrumentKey.trim().isEmpty()) return false;
+        final String key = Underlyings.normalize(instrumentKey);
+        final Mode[] removed = new Mode[1];
+        subs.computeIfPresent(key, (k, cur) -> {
+            if (cur.refs <= 1) {
+                removed[0] = cur.mode;
+                return null;
+            }
+            return new Entry(cur.mode, cur.refs - 1);
+        });
+        if (removed[0] != null) {
+            notifyListeners("unsub", removed[0], Collections.singletonList(key));
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isSubscribed(String instrumentKey) {
+        return instrumentKey != null && subs.containsKey(Underlyings.normalize(instrumentKey));
+    }
+
+    public Set<String> instrumentKeys() {
+        return Collections.unmodifiableSet(new TreeSet<>(subs.keySet()));
+    }
+
+    /**
+     * Snapshot grouped by mode — used to replay every subscription after a reconnect.
+     */
+    public Map<Mode, List<String>> byMode() {
+        Map<Mode, List<String>> out = new EnumMap<>(Mode.class);
+        for (Map.Entry<String, Entry> e : subs.entrySet()) {
+            out.computeIfAbsent(e.getValue().mode, k -> new ArrayList<>()).add(e.getKey());
+        }
+        return out;
+    }
+
+    private void notifyListeners(String method, Mode mode, Collection<String> keys) {
+        for (Listener l : listeners) {
+            try {
+                l.onChange(method, mode, keys);
+            } catch (Throwable t) {
+                log.warn("Feed subscription listener failed ({} {}): {}", method, keys, t.toString());
+            }
+        }
+    }
+}
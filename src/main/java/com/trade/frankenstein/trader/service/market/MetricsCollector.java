@@ -2,6 +2,9 @@ package com.trade.frankenstein.trader.service.market;
 
 import com.trade.frankenstein.trader.model.documents.MetricsEntity;
 import com.trade.frankenstein.trader.repo.documents.MetricsRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,13 +14,13 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.stream.Collectors;
 
 @Service
 public class MetricsCollector {
@@ -26,19 +29,25 @@ public class MetricsCollector {
 
     @Autowired
     private MetricsRepository metricsRepository;
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
 
     // In-memory metrics for real-time tracking
     private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
-    private final Map<String, List<Long>> latencyHistograms = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencyHistograms = new ConcurrentHashMap<>();
     private final Map<String, Double> gauges = new ConcurrentHashMap<>();
     private final Map<String, LocalDateTime> timestamps = new ConcurrentHashMap<>();
 
     // Performance tracking
     private final Map<String, PerformanceTracker> performanceTrackers = new ConcurrentHashMap<>();
+    // Histogram names already exported to Micrometer (meters are registered once per name)
+    private final Set<String> exportedHistograms = ConcurrentHashMap.newKeySet();
+    // Lifetime sample counts per histogram; never cleared, so the exported counter stays monotonic
+    private final Map<String, LongAdder> latencyTotals = new ConcurrentHashMap<>();
 
     // Configuration
-    private static final int MAX_HISTOGRAM_SIZE = 1000;
     private static final int METRICS_RETENTION_MINUTES = 60;
+    private static final double[] EXPORTED_QUANTILES = {0.5, 0.9, 0.99, 0.999};
 
     /**
      * Record source latency
@@ -50,16 +59,10 @@ public class MetricsCollector {
         incrementCounter("source.requests." + source);
 
         // Add to histogram
-        latencyHistograms.computeIfAbsent(metricKey, k -> new ArrayList<>()).add(latencyMs);
-
-        // Trim histogram if too large
-        List<Long> histogram = latencyHistograms.get(metricKey);
-        if (histogram.size() > MAX_HISTOGRAM_SIZE) {
-            histogram.subList(0, histogram.size() - MAX_HISTOGRAM_SIZE).clear();
-        }
+        LatencyHistogram histogram = recordLatency(metricKey, latencyMs);
 
         // Update gauge with average latency
-        updateGauge(metricKey + ".avg", calculateAverageLatency(histogram));
+        updateGauge(metricKey + ".avg", histogram.mean());
 
         // Track timestamp
         timestamps.put(metricKey, LocalDateTime.now());
@@ -176,6 +179,29 @@ public class MetricsCollector {
         logger.debug("Recorded API call: {} success={} time={}ms", endpoint, success, responseTimeMs);
     }
 
+    /**
+     * Record a batched write (flush) to a persistence sink
+     */
+    public void recordFlush(String sink, int batchSize, long latencyMs, boolean success) {
+        incrementCounter("persist.flushes." + sink);
+        if (success) {
+            counters.computeIfAbsent("persist.docs." + sink, k -> new LongAdder()).add(batchSize);
+        } else {
+            incrementCounter("persist.flush_failures." + sink);
+        }
+        recordLatency("persist.flush_time." + sink, latencyMs);
+        updateGauge("persist.batch_size." + sink, batchSize);
+
+        logger.debug("Recorded flush: {} batch={} time={}ms success={}", sink, batchSize, latencyMs, success);
+    }
+
+    /**
+     * Record current depth of a bounded queue
+     */
+    public void recordQueueDepth(String queue, int depth) {
+        updateGauge("queue.depth." + queue, depth);
+    }
+
     /**
      * Record memory and CPU usage
      */
@@ -215,21 +241,8 @@ public class MetricsCollector {
      * Get latency statistics for a metric
      */
     public LatencyStatistics getLatencyStatistics(String metricName) {
-        List<Long> histogram = latencyHistograms.get(metricName);
-        if (histogram == null || histogram.isEmpty()) {
-            return null;
-        }
-
-        List<Long> sortedLatencies = histogram.stream().sorted().collect(Collectors.toList());
-
-        long min = sortedLatencies.get(0);
-        long max = sortedLatencies.get(sortedLatencies.size() - 1);
-        long p50 = sortedLatencies.get(sortedLatencies.size() / 2);
-        long p95 = sortedLatencies.get((int) (sortedLatencies.size() * 0.95));
-        long p99 = sortedLatencies.get((int) (sortedLatencies.size() * 0.99));
-        double avg = sortedLatencies.stream().mapToLong(Long::longValue).average().orElse(0.0);
-
-        return new LatencyStatistics(min, max, (long) avg, p50, p95, p99, sortedLatencies.size());
+        LatencyHistogram histogram = latencyHistograms.get(metricName);
+        return histogram == null ? null : toStatistics(histogram.snapshot());
     }
 
     /**
@@ -303,8 +316,18 @@ public class MetricsCollector {
                 metricsRepository.save(entity);
             });
 
-            logger.debug("Persisted {} counters and {} gauges to database",
-                    counters.size(), gauges.size());
+            // Persist interval latency percentiles
+            latencyHistograms.forEach((key, histogram) -> {
+                LatencyStatistics stats = toStatistics(histogram.intervalSnapshot());
+                if (stats == null) return;
+                persistLatency(key + ".p50", stats.p50(), now);
+                persistLatency(key + ".p90", stats.p90(), now);
+                persistLatency(key + ".p99", stats.p99(), now);
+                persistLatency(key + ".p999", stats.p999(), now);
+            });
+
+            logger.debug("Persisted {} counters, {} gauges and {} latency histograms to database",
+                    counters.size(), gauges.size(), latencyHistograms.size());
 
         } catch (Exception e) {
             logger.error("Error persisting metrics: {}", e.getMessage(), e);
@@ -350,19 +373,62 @@ public class MetricsCollector {
         gauges.put(metricName, value);
     }
 
-    private void recordLatency(String metricName, long latencyMs) {
-        latencyHistograms.computeIfAbsent(metricName, k -> new ArrayList<>()).add(latencyMs);
+    private LatencyHistogram recordLatency(String metricName, long latencyMs) {
+        LatencyHistogram h = histogram(metricName);
+        h.record(latencyMs);
+        latencyTotals.computeIfAbsent(metricName, k -> new LongAdder()).increment();
+        return h;
+    }
 
-        // Trim if too large
-        List<Long> histogram = latencyHistograms.get(metricName);
-        if (histogram.size() > MAX_HISTOGRAM_SIZE) {
-            histogram.subList(0, histogram.size() - MAX_HISTOGRAM_SIZE).clear();
+    private LatencyHistogram histogram(String metricName) {
+        LatencyHistogram h = latencyHistograms.get(metricName);
+        if (h != null) return h;
+        h = latencyHistograms.computeIfAbsent(metricName, k -> new LatencyHistogram());
+        if (meterRegistry != null && exportedHistograms.add(metricName)) exportHistogram(metricName);
+        return h;
+    }
+
+    /**
+     * Registers quantile gauges and a count for the named histogram. Gauges look the histogram
+     * up by name on every scrape, so they survive cleanup/reset re-creating it; the count reads
+     * the lifetime total, which those do not touch.
+     */
+    private void exportHistogram(String metricName) {
+        try {
+            for (double q : EXPORTED_QUANTILES) {
+                Gauge.builder("trade.latency", latencyHistograms, m -> {
+                            LatencyHistogram h = m.get(metricName);
+                            return h == null ? Double.NaN : h.snapshot().valueAt(q);
+                        })
+                        .tag("metric", metricName)
+                        .tag("quantile", String.valueOf(q))
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry);
+            }
+            FunctionCounter.builder("trade.latency.count", latencyTotals, m -> {
+                        LongAdder n = m.get(metricName);
+                        return n == null ? 0.0 : n.sum();
+                    })
+                    .tag("metric", metricName)
+                    .register(meterRegistry);
+        } catch (Exception e) {
+            logger.debug("Micrometer export of {} failed: {}", metricName, e.toString());
         }
     }
 
-    private double calculateAverageLatency(List<Long> latencies) {
-        if (latencies.isEmpty()) return 0.0;
-        return latencies.stream().mapToLong(Long::longValue).average().orElse(0.0);
+    private static LatencyStatistics toStatistics(LatencyHistogram.Snapshot s) {
+        if (s.count() == 0) return null;
+        return new LatencyStatistics(s.min(), s.max(), Math.round(s.mean()),
+                s.valueAt(0.50), s.valueAt(0.90), s.valueAt(0.95), s.valueAt(0.99), s.valueAt(0.999), s.count());
+    }
+
+    private void persistLatency(String metricName, long value, LocalDateTime now) {
+        MetricsEntity entity = new MetricsEntity();
+        entity.setMetricName(metricName);
+        entity.setMetricType("LATENCY");
+        entity.setValue(BigDecimal.valueOf(value));
+        entity.setTimestamp(now);
+        metricsRepository.save(entity);
     }
 
     private void updateSourceFailureRate(String source) {
@@ -387,50 +453,63 @@ public class MetricsCollector {
 
     // Inner classes for statistics
 
+    /**
+     * Last {@code maxSize} data points in a lock-free ring; writers claim a slot with one
+     * increment, readers take a best-effort copy (a point being overwritten mid-read may be newer).
+     */
     public static class PerformanceTracker {
-        private final List<Double> dataPoints = new ArrayList<>();
         private final int maxSize = 1000;
+        private final AtomicLongArray bits = new AtomicLongArray(maxSize);
+        private final AtomicLong written = new AtomicLong();
 
-        public synchronized void addDataPoint(double value) {
-            dataPoints.add(value);
-            if (dataPoints.size() > maxSize) {
-                dataPoints.subList(0, dataPoints.size() - maxSize).clear();
-            }
+        public void addDataPoint(double value) {
+            long seq = written.getAndIncrement();
+            bits.set((int) (seq % maxSize), Double.doubleToRawLongBits(value));
         }
 
-        public synchronized PerformanceStatistics getStatistics() {
-            if (dataPoints.isEmpty()) {
+        public PerformanceStatistics getStatistics() {
+            long end = written.get();
+            int n = (int) Math.min(end, maxSize);
+            if (n == 0) {
                 return new PerformanceStatistics(0.0, 0.0, 0.0, 0.0, 0.0, 0);
             }
 
-            double min = dataPoints.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-            double max = dataPoints.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-            double avg = dataPoints.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+            // oldest first, so the trend's x axis is time order
+            double[] points = new double[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = Double.longBitsToDouble(bits.get((int) ((end - n + i) % maxSize)));
+            }
+
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY, sum = 0.0;
+            for (double p : points) {
+                min = Math.min(min, p);
+                max = Math.max(max, p);
+                sum += p;
+            }
+            double avg = sum / n;
 
             // Calculate standard deviation
-            double variance = dataPoints.stream()
-                    .mapToDouble(x -> Math.pow(x - avg, 2))
-                    .average()
-                    .orElse(0.0);
-            double stdDev = Math.sqrt(variance);
+            double variance = 0.0;
+            for (double p : points) variance += (p - avg) * (p - avg);
+            double stdDev = Math.sqrt(variance / n);
 
             // Calculate trend (simple linear regression slope)
-            double trend = calculateTrend();
+            double trend = calculateTrend(points);
 
-            return new PerformanceStatistics(min, max, avg, stdDev, trend, dataPoints.size());
+            return new PerformanceStatistics(min, max, avg, stdDev, trend, n);
         }
 
-        private double calculateTrend() {
-            if (dataPoints.size() < 2) return 0.0;
+        private static double calculateTrend(double[] points) {
+            if (points.length < 2) return 0.0;
 
-            int n = dataPoints.size();
+            int n = points.length;
             double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
 
             for (int i = 0; i < n; i++) {
                 sumX += i;
-                sumY += dataPoints.get(i);
-                sumXY += i * dataPoints.get(i);
-                sumXX += i * i;
+                sumY += points[i];
+                sumXY += i * points[i];
+                sumXX += (double) i * i;
             }
 
             return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
@@ -439,7 +518,7 @@ public class MetricsCollector {
 
     // Result classes
     public record LatencyStatistics(
-            long min, long max, long avg, long p50, long p95, long p99, int sampleSize
+            long min, long max, long avg, long p50, long p90, long p95, long p99, long p999, long sampleSize
     ) {}
 
     public record PerformanceStatistics(
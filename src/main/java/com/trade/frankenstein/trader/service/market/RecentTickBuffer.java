@@ -0,0 +1,112 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.trade.frankenstein.trader.model.documents.Tick;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process ring of the most recent ticks per symbol, filled by {@link MarketDataService#recordTick}.
+ * <p>
+ * Answers "last N ticks within the window" without touching Mongo whenever the ring can prove
+ * it holds the whole window: either it has N matching ticks, or it has been recording (without
+ * wrapping past the window start) for longer than the window. Both rely on the ring being in
+ * time order, so while it holds an out-of-order tick (replay, reconnect backfill) it answers null.
+ */
+@Component
+public class RecentTickBuffer {
+
+    private static final class Ring {
+        final long[] ts;
+        final double[] ltp;
+        final long[] qty; // Long.MIN_VALUE == null
+        final long sinceMs = System.currentTimeMillis();
+        int head = 0, size = 0;
+        long adds = 0;              // ticks ever added
+        long lastDisorder = -1;     // add number of the latest tick older than its predecessor
+
+        Ring(int capacity) {
+            ts = new long[capacity];
+            ltp = new double[capacity];
+            qty = new long[capacity];
+        }
+
+        void add(long t, double p, Long q) {
+            if (size > 0 && t < ts[idx(0)]) lastDisorder = adds;
+            adds++;
+            int i = (head + size) % ts.length;
+            ts[i] = t;
+            ltp[i] = p;
+            qty[i] = q == null ? Long.MIN_VALUE : q;
+            if (size < ts.length) size++;
+            else head = (head + 1) % ts.length;
+        }
+
+        int idx(int k) { // k-th newest
+            return (head + size - 1 - k + ts.length) % ts.length;
+        }
+
+        boolean ordered() { // no out-of-order tick left in the ring
+            return lastDisorder < adds - size;
+        }
+    }
+
+    private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public RecentTickBuffer(@Value("${trade.ticks.recent.capacity:512}") int capacity) {
+        this.capacity = Math.max(16, capacity);
+    }
+
+    public void add(String symbol, Instant ts, double ltp, Long qty) {
+        if (symbol == null || ts == null) return;
+        Ring r = rings.computeIfAbsent(symbol, k -> new Ring(capacity));
+        synchronized (r) {
+            r.add(ts.toEpochMilli(), ltp, qty);
+        }
+    }
+
+    /**
+     * Up to limit ticks newer than now - window, newest first; null when the ring cannot answer
+     * authoritatively and the caller should query the store.
+     */
+    public List<Tick> recent(String symbol, Duration window, int limit) {
+        Ring r = symbol == null ? null : rings.get(symbol);
+        if (r == null || limit <= 0) return null;
+
+        final long now = System.currentTimeMillis();
+        final long cutoff = now - window.toMillis();
+        synchronized (r) {
+            if (!r.ordered()) return null;
+            List<Tick> out = new ArrayList<>(Math.min(limit, r.size));
+            int k = 0;
+            for (; k < r.size && out.size() < limit; k++) {
+                int i = r.idx(k);
+                if (r.ts[i] <= cutoff) break;
+                out.add(Tick.builder()
+                        .symbol(symbol)
+                        .ts(Instant.ofEpochMilli(r.ts[i]))
+                        .ltp(r.ltp[i])
+                        .quantity(r.qty[i] == Long.MIN_VALUE ? null : r.qty[i])
+                        .build());
+            }
+            if (out.size() >= limit) return out;
+
+            // Fewer than limit: only authoritative if nothing older inside the window can exist
+            boolean reachedCutoff = k < r.size; // stopped on a tick older than the window
+            boolean coveredSinceStart = r.size < r.ts.length && r.sinceMs <= cutoff;
+            return (reachedCutoff || coveredSinceStart) ? out : null;
+        }
+    }
+
+    public List<String> symbols() {
+        return Collections.unmodifiableList(new ArrayList<>(rings.keySet()));
+    }
+}
@@ -0,0 +1,438 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.trade.frankenstein.trader.model.documents.Tick;
+import com.trade.frankenstein.trader.service.strategy.StrategyUpgrades;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Local append-only tick / 1m bar archive in a compact columnar binary format.
+ * <p>
+ * Layout: {@code <dir>/<symbol>/<yyyy-MM-dd>/ticks.bin|bars.bin}, one file per symbol per
+ * exchange day. A file is a 16-byte header followed by blocks of up to trade.archive.block-size
+ * rows. Each block stores a base timestamp and base price, then one column per field: timestamps
+ * as int ms deltas from the base, prices as int deltas of the scaled price (x100), quantities /
+ * volumes as ints / longs. That is 12 bytes per tick and 28 per bar.
+ * <p>
+ * Writers buffer one block per segment in primitive arrays and append it when full, on the
+ * periodic flush and on shutdown; a block cut short by a crash is ignored by readers. Reads map
+ * the file with {@link MappedByteBuffer} and decode rows in place: {@link #replayTicks} walks a
+ * single reused {@link TickCursor}, {@link #bars} returns {@link BarView}s that read from the
+ * mapping on access.
+ */
+@Slf4j
+@Component
+public class TickArchive {
+
+    private static final int FILE_MAGIC = 0x54464152;  // "TFAR"
+    private static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    private static final short VERSION = 1;
+    private static final byte KIND_TICKS = 1, KIND_BARS = 2;
+    private static final int FILE_HEADER = 16;
+    private static final int BLOCK_HEADER = 24;
+    private static final int TICK_ROW = 12, BAR_ROW = 28;
+    static final int PRICE_SCALE = 100;
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
+    private final boolean enabled;
+    private final Path root;
+    private final int blockSize;
+    private final Map<String, SegmentWriter> writers = new ConcurrentHashMap<>();
+
+    public TickArchive(@Value("${trade.archive.enabled:false}") boolean enabled,
+                       @Value("${trade.archive.dir:data/archive}") String dir,
+                       @Value("${trade.archive.block-size:1024}") int blockSize) {
+        this.enabled = enabled;
+        this.root = Paths.get(dir);
+        this.blockSize = Math.max(16, blockSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ---------------------------------------------------------------------
+    // Write side
+    // ---------------------------------------------------------------------
+
+    public void appendTick(String symbol, Instant ts, double ltp, Long qty) {
+        if (!enabled || symbol == null || ts == null) return;
+        long q = qty == null ? -1L : qty;
+        writer(symbol, ts, KIND_TICKS).append(ts.toEpochMilli(), scale(ltp), 0, 0, 0, q);
+    }
+
+    public void appendBar(String symbol, Instant openTime, double open, double high, double low, double close, Long volume) {
+        if (!enabled || symbol == null || openTime == null) return;
+        writer(symbol, openTime, KIND_BARS).append(openTime.toEpochMilli(),
+                scale(open), scale(high), scale(low), scale(close), volume == null ? 0L : volume);
+    }
+
+    /**
+     * Appends every buffered block; segments of past days are closed out.
+     */
+    @Scheduled(fixedDelayString = "${trade.archive.flush-ms:1000}")
+    public void flush() {
+        if (!enabled) return;
+        final LocalDate today = LocalDate.now(IST);
+        for (Iterator<Map.Entry<String, SegmentWriter>> it = writers.entrySet().iterator(); it.hasNext(); ) {
+            SegmentWriter w = it.next().getValue();
+            w.flush();
+            if (w.day.isBefore(today)) it.remove();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (SegmentWriter w : writers.values()) w.flush();
+        writers.clear();
+    }
+
+    private SegmentWriter writer(String symbol, Instant ts, byte kind) {
+        final LocalDate day = ts.atZone(IST).toLocalDate();
+        final String key = symbol + '|' + day + '|' + kind;
+        SegmentWriter w = writers.get(key);
+        if (w != null) return w;
+        return writers.computeIfAbsent(key, k -> new SegmentWriter(path(symbol, day, kind), day, kind, blockSize));
+    }
+
+    private Path path(String symbol, LocalDate day, byte kind) {
+        return root.resolve(safe(symbol)).resolve(day.toString()).resolve(kind == KIND_TICKS ? "ticks.bin" : "bars.bin");
+    }
+
+    private static String safe(String symbol) {
+        return symbol.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static long scale(double price) {
+        return Math.round(price * PRICE_SCALE);
+    }
+
+    /**
+     * One block of rows for one segment, kept as primitive columns until it is appended.
+     */
+    private static final class SegmentWriter {
+        final Path path;
+        final LocalDate day;
+        final byte kind;
+        final int cap;
+        final int[] ts, p0, p1, p2, p3;
+        final long[] q;
+        long baseTs, basePx;
+        int n;
+
+        SegmentWriter(Path path, LocalDate day, byte kind, int cap) {
+            this.path = path;
+            this.day = day;
+            this.kind = kind;
+            this.cap = cap;
+            this.ts = new int[cap];
+            this.p0 = new int[cap];
+            boolean bars = kind == KIND_BARS;
+            this.p1 = bars ? new int[cap] : null;
+            this.p2 = bars ? new int[cap] : null;
+            this.p3 = bars ? new int[cap] : null;
+            this.q = new long[cap];
+        }
+
+        synchronized void append(long tsMs, long a, long b, long c, long d, long qty) {
+            if (n > 0 && !(fits(tsMs - baseTs) && fits(a - basePx)
+                    && (kind == KIND_TICKS || (fits(b - basePx) && fits(c - basePx) && fits(d - basePx))))) {
+                flush();
+            }
+            if (n == 0) {
+                baseTs = tsMs;
+                basePx = a;
+            }
+            ts[n] = (int) (tsMs - baseTs);
+            p0[n] = (int) (a - basePx);
+            if (kind == KIND_BARS) {
+                p1[n] = (int) (b - basePx);
+                p2[n] = (int) (c - basePx);
+                p3[n] = (int) (d - basePx);
+            }
+            q[n] = qty;
+            if (++n == cap) flush();
+        }
+
+        synchronized void flush() {
+            if (n == 0) return;
+            final boolean bars = kind == KIND_BARS;
+            ByteBuffer bb = ByteBuffer.allocate(BLOCK_HEADER + n * (bars ? BAR_ROW : TICK_ROW));
+            bb.putInt(BLOCK_MAGIC).putInt(n).putLong(baseTs).putLong(basePx);
+            for (int i = 0; i < n; i++) bb.putInt(ts[i]);
+            for (int i = 0; i < n; i++) bb.putInt(p0[i]);
+            if (bars) {
+                for (int i = 0; i < n; i++) bb.putInt(p1[i]);
+                for (int i = 0; i < n; i++) bb.putInt(p2[i]);
+                for (int i = 0; i < n; i++) bb.putInt(p3[i]);
+                for (int i = 0; i < n; i++) bb.putLong(q[i]);
+            } else {
+                for (int i = 0; i < n; i++) bb.putInt((int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, q[i])));
+            }
+            bb.flip();
+            try {
+                Files.createDirectories(path.getParent());
+                try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    if (ch.size() == 0) {
+                        ByteBuffer h = ByteBuffer.allocate(FILE_HEADER);
+                        h.putInt(FILE_MAGIC).putShort(VERSION).put(kind).put((byte) 0).putInt(PRICE_SCALE).putInt(0);
+                        h.flip();
+                        while (h.hasRemaining()) ch.write(h);
+                    }
+                    while (bb.hasRemaining()) ch.write(bb);
+                }
+            } catch (IOException e) {
+                log.warn("Tick archive append failed for {} ({} rows dropped): {}", path, n, e.toString());
+            }
+            n = 0;
+        }
+
+        private static boolean fits(long delta) {
+            return delta >= Integer.MIN_VALUE && delta <= Integer.MAX_VALUE;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Read side
+    // ---------------------------------------------------------------------
+
+    /**
+     * Streams ticks of symbol in [from, to) in file order through one reused cursor; the cursor
+     * is only valid inside the callback. Returns the number of ticks delivered.
+     */
+    public long replayTicks(String symbol, Instant from, Instant to, Consumer<TickCursor> sink) {
+        long delivered = 0;
+        final long fromMs = from.toEpochMilli(), toMs = to.toEpochMilli();
+        final TickCursor cur = new TickCursor(symbol);
+        for (Segment seg : segments(symbol, from, to, KIND_TICKS)) {
+            for (int b = 0; b < seg.blocks.length; b++) {
+                cur.at(seg.buf, seg.blocks[b], seg.counts[b]);
+                for (int i = 0; i < cur.n; i++) {
+                    cur.i = i;
+                    long t = cur.tsMillis();
+                    if (t < fromMs || t >= toMs) continue;
+                    sink.accept(cur);
+                    delivered++;
+                }
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * 1m bars of symbol in [from, to), oldest first. Views read prices from the mapped file.
+     */
+    public List<BarView> bars(String symbol, Instant from, Instant to) {
+        final long fromMs = from.toEpochMilli(), toMs = to.toEpochMilli();
+        List<BarView> out = new ArrayList<>();
+        for (Segment seg : segments(symbol, from, to, KIND_BARS)) {
+            for (int b = 0; b < seg.blocks.length; b++) {
+                final int off = seg.blocks[b], n = seg.counts[b];
+                for (int i = 0; i < n; i++) {
+                    BarView v = new BarView(seg.buf, off, n, i);
+                    long t = v.openTimeMillis();
+                    if (t >= fromMs && t < toMs) out.add(v);
+                }
+            }
+        }
+        out.sort(Comparator.comparingLong(BarView::openTimeMillis));
+        return out;
+    }
+
+    private List<Segment> segments(String symbol, Instant from, Instant to, byte kind) {
+        List<Segment> out = new ArrayList<>();
+        if (symbol == null || from == null || to == null || !to.isAfter(from)) return out;
+        LocalDate d = from.atZone(IST).toLocalDate();
+        final LocalDate last = to.atZone(IST).toLocalDate();
+        for (; !d.isAfter(last); d = d.plusDays(1)) {
+            Path p = path(symbol, d, kind);
+            if (!Files.isRegularFile(p)) continue;
+            Segment s = Segment.open(p, kind);
+            if (s != null) out.add(s);
+        }
+        return out;
+    }
+
+    /**
+     * A mapped segment file plus the offsets of its complete blocks.
+     */
+    private static final class Segment {
+        final MappedByteBuffer buf;
+        final int[] blocks;
+        final int[] counts;
+
+        private Segment(MappedByteBuffer buf, int[] blocks, int[] counts) {
+            this.buf = buf;
+            this.blocks = blocks;
+            this.counts = counts;
+        }
+
+        static Segment open(Path p, byte kind) {
+            try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+                final long size = ch.size();
+                if (size < FILE_HEADER || size > Integer.MAX_VALUE) return null;
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buf.getInt(0) != FILE_MAGIC || buf.get(6) != kind || buf.getInt(8) != PRICE_SCALE) {
+                    log.warn("Tick archive: unrecognised segment {}", p);
+                    return null;
+                }
+                final int row = kind == KIND_BARS ? BAR_ROW : TICK_ROW;
+                int[] offs = new int[16], cnts = new int[16];
+                int nb = 0;
+                int off = FILE_HEADER;
+                while (off + BLOCK_HEADER <= size && buf.getInt(off) == BLOCK_MAGIC) {
+                    int n = buf.getInt(off + 4);
+                    long end = off + BLOCK_HEADER + (long) n * row;
+                    if (n <= 0 || end > size) break; // torn tail
+                    if (nb == offs.length) {
+                        offs = Arrays.copyOf(offs, nb * 2);
+                        cnts = Arrays.copyOf(cnts, nb * 2);
+                    }
+                    offs[nb] = off;
+                    cnts[nb++] = n;
+                    off = (int) end;
+                }
+                return new Segment(buf, Arrays.copyOf(offs, nb), Arrays.copyOf(cnts, nb));
+            } catch (IOException e) {
+                log.warn("Tick archive: cannot map {}: {}", p, e.toString());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Flyweight over one tick row of a mapped block.
+     */
+    public static final class TickCursor {
+        private final String symbol;
+        private ByteBuffer buf;
+        private int off, n, i;
+        private long baseTs, basePx;
+
+        TickCursor(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void at(ByteBuffer buf, int off, int n) {
+            this.buf = buf;
+            this.off = off;
+            this.n = n;
+            this.baseTs = buf.getLong(off + 8);
+            this.basePx = buf.getLong(off + 16);
+        }
+
+        public long tsMillis() {
+            return baseTs + buf.getInt(off + BLOCK_HEADER + 4 * i);
+        }
+
+        public double ltp() {
+            return (basePx + buf.getInt(off + BLOCK_HEADER + 4 * n + 4 * i)) / (double) PRICE_SCALE;
+        }
+
+        /**
+         * Last traded quantity, -1 if it was not reported.
+         */
+        public long qty() {
+            return buf.getInt(off + BLOCK_HEADER + 8 * n + 4 * i);
+        }
+
+        public Instant ts() {
+            return Instant.ofEpochMilli(tsMillis());
+        }
+
+        public Tick toTick() {
+            long q = qty();
+            return Tick.builder().symbol(symbol).ts(ts()).ltp(ltp()).quantity(q < 0 ? null : q).build();
+        }
+    }
+
+    /**
+     * One 1m bar in a mapped block; prices are decoded on access.
+     */
+    public static final class BarView implements StrategyUpgrades.CandleView {
+        private final ByteBuffer buf;
+        private final int off, n, i;
+
+        BarView(ByteBuffer buf, int off, int n, int i) {
+            this.buf = buf;
+            this.off = off;
+            this.n = n;
+            this.i = i;
+        }
+
+        public long openTimeMillis() {
+            return buf.getLong(off + 8) + buf.getInt(off + BLOCK_HEADER + 4 * i);
+        }
+
+        private double px(int column) {
+            return (buf.getLong(off + 16) + buf.getInt(off + BLOCK_HEADER + 4 * n * column + 4 * i)) / (double) PRICE_SCALE;
+        }
+
+        public double openPrice() {
+            return px(1);
+        }
+
+        public double highPrice() {
+            return px(2);
+        }
+
+        public double lowPrice() {
+            return px(3);
+        }
+
+        public double closePrice() {
+            return px(4);
+        }
+
+        @Override
+        public Instant openTime() {
+            return Instant.ofEpochMilli(openTimeMillis());
+        }
+
+        @Override
+        public BigDecimal open() {
+            return BigDecimal.valueOf(openPrice());
+        }
+
+        @Override
+        public BigDecimal high() {
+            return BigDecimal.valueOf(highPrice());
+        }
+
+        @Override
+        public BigDecimal low() {
+            return BigDecimal.valueOf(lowPrice());
+        }
+
+        @Override
+        public BigDecimal close() {
+            return BigDecimal.valueOf(closePrice());
+        }
+
+        @Override
+        public long volume() {
+            return buf.getLong(off + BLOCK_HEADER + 20 * n + 8 * i);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.trade.frankenstein.trader.service.market;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.trade.frankenstein.trader.model.documents.Candle;
+import com.trade.frankenstein.trader.model.documents.Tick;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer for the ticks / candles_1m time-series collections.
+ * <p>
+ * Producers enqueue into bounded queues; one flusher thread drains them into unordered bulk
+ * inserts once a batch is full or the flush interval elapses. When a queue stays full past the
+ * offer timeout (or the buffer is disabled) enqueue returns false and the caller writes
+ * synchronously, so back-pressure slows producers instead of dropping data.
+ * <p>
+ * A failed bulk insert is retried with backoff for the documents that did not land, then written
+ * one by one; only documents that still fail are logged and counted as lost.
+ * <p>
+ * Remaining documents are drained on shutdown.
+ * <p>
+ * Toggle with: trade.persist.write-behind.enabled=true
+ */
+@Slf4j
+@Component
+public class TimeSeriesWriteBehind {
+
+    private static final int MAX_BULK_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200L;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MetricsCollector metricsCollector;
+
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<Tick> ticks;
+    private final BlockingQueue<Candle> candles;
+
+    private volatile boolean running = false;
+    private volatile Thread flusher;
+
+    public TimeSeriesWriteBehind(
+            @Value("${trade.persist.write-behind.enabled:true}") boolean enabled,
+            @Value("${trade.persist.write-behind.capacity:50000}") int capacity,
+            @Value("${trade.persist.write-behind.flush-size:500}") int flushSize,
+            @Value("${trade.persist.write-behind.flush-interval-ms:250}") long flushIntervalMs,
+            @Value("${trade.persist.write-behind.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.enabled = enabled;
+        this.flushSize = Math.max(1, flushSize);
+        this.flushIntervalMs = Math.max(10L, flushIntervalMs);
+        this.offerTimeoutMs = Math.max(0L, offerTimeoutMs);
+        this.ticks = new ArrayBlockingQueue<>(Math.max(this.flushSize, capacity));
+        this.candles = new ArrayBlockingQueue<>(Math.max(this.flushSize, capacity / 10));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        Thread t = new Thread(this::runLoop, "ts-write-behind");
+        t.setDaemon(true);
+        flusher = t;
+        t.start();
+    }
+
+    /**
+     * @return false if the tick was not queued and must be written by the caller
+     */
+    public boolean enqueueTick(Tick t) {
+        return enqueue(ticks, t);
+    }
+
+    /**
+     * @return false if the candle was not queued and must be written by the caller
+     */
+    public boolean enqueueCandle(Candle c) {
+        return enqueue(candles, c);
+    }
+
+    private <T> boolean enqueue(BlockingQueue<T> q, T doc) {
+        if (!running || doc == null) return false;
+        try {
+            if (!q.offer(doc) && !q.offer(doc, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                metricsCollector.recordAnomaly("write-behind", "QUEUE_FULL");
+                return false;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (q.size() >= flushSize) {
+            Thread f = flusher;
+            if (f != null) LockSupport.unpark(f);
+        }
+        return true;
+    }
+
+    private void runLoop() {
+        long nextFlush = System.currentTimeMillis() + flushIntervalMs;
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now >= nextFlush || ticks.size() >= flushSize || candles.size() >= flushSize) {
+                    flushAll();
+                    nextFlush = System.currentTimeMillis() + flushIntervalMs;
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(nextFlush - now));
+                }
+            } catch (Exception e) {
+                // keep the flusher alive; queued documents are retried on the next pass
+                log.error("Write-behind flusher error: {}", e.toString(), e);
+                nextFlush = System.currentTimeMillis() + flushIntervalMs;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+    }
+
+    private void flushAll() {
+        metricsCollector.recordQueueDepth("ticks", ticks.size());
+        metricsCollector.recordQueueDepth("candles_1m", candles.size());
+        drain(ticks, Tick.class, "ticks");
+        drain(candles, Candle.class, "candles_1m");
+    }
+
+    private <T> void drain(BlockingQueue<T> q, Class<T> type, String sink) {
+        List<T> batch = new ArrayList<>(Math.min(flushSize, q.size()));
+        while (q.drainTo(batch, flushSize) > 0) {
+            write(batch, type, sink);
+            batch.clear();
+        }
+    }
+
+    private <T> void write(List<T> batch, Class<T> type, String sink) {
+        List<T> pending = batch;
+        for (int attempt = 0; attempt < MAX_BULK_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            if (attempt > 0 && !backoff(attempt)) break;
+            long t0 = System.currentTimeMillis();
+            boolean ok = false;
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(pending).execute();
+                pending = List.of();
+                ok = true;
+            } catch (BulkOperationException e) {
+                pending = notWritten(pending, e);
+                log.warn("Write-behind flush of {} {} document(s): {} not written (attempt {})",
+                        batch.size(), sink, pending.size(), attempt + 1);
+            } catch (Exception e) {
+                log.warn("Write-behind flush of {} {} document(s) failed (attempt {}): {}",
+                        pending.size(), sink, attempt + 1, e.toString());
+            } finally {
+                metricsCollector.recordFlush(sink, batch.size(), System.currentTimeMillis() - t0, ok);
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        // last resort: one insert per document
+        int lost = 0;
+        for (T doc : pending) {
+            try {
+                mongoTemplate.insert(doc);
+            } catch (Exception e) {
+                lost++;
+                if (lost == 1) log.error("Write-behind insert into {} failed: {}", sink, e.toString());
+            }
+        }
+        if (lost > 0) {
+            metricsCollector.recordAnomaly("write-behind", "WRITE_FAILED");
+            log.error("Write-behind lost {} of {} {} document(s) after retries", lost, batch.size(), sink);
+        }
+    }
+
+    // Documents of a partially failed bulk insert that did not land (duplicates count as written)
+    private static <T> List<T> notWritten(List<T> docs, BulkOperationException e) {
+        List<T> out = new ArrayList<>();
+        for (BulkWriteError err : e.getErrors()) {
+            if (err.getCode() != DUPLICATE_KEY && err.getIndex() < docs.size()) out.add(docs.get(err.getIndex()));
+        }
+        return out;
+    }
+
+    private static boolean backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MS << (attempt - 1));
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        Thread f = flusher;
+        if (f != null) {
+            LockSupport.unpark(f);
+            try {
+                f.join(5_000L);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int pending = ticks.size() + candles.size();
+        flushAll();
+        log.info("Write-behind drained {} pending document(s) on shutdown", pending);
+    }
+}
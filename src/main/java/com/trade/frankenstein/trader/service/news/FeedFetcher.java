@@ -0,0 +1,198 @@
+package com.trade.frankenstein.trader.service.news;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Non-blocking HTTP GET for news feeds.
+ * <p>
+ * One shared {@link HttpClient} (HTTP/2 with HTTP/1.1 fallback, pooled connections, redirects
+ * followed) runs every request asynchronously. At most perHost requests are in flight per host;
+ * the rest wait in a per-host queue and start as earlier ones finish, so no thread blocks on the
+ * limit. ETag / Last-Modified validators of the last 200 are replayed as If-None-Match /
+ * If-Modified-Since, and an unchanged feed comes back as {@link Response#notModified()}.
+ * <p>
+ * Bodies are handed over as a stream so the caller can parse while reading and stop early;
+ * the caller must close it. Cancelling the future returned by {@link #get} aborts the exchange
+ * (or drops it from the host queue) and frees its slot.
+ */
+@Slf4j
+final class FeedFetcher {
+
+    private static final String ACCEPT = "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8";
+
+    /**
+     * 200 with a body stream, or 304 with an empty one.
+     */
+    record Response(int status, InputStream raw, boolean gzip, String contentType) implements Closeable {
+        boolean notModified() {
+            return status == 304;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(raw);
+        }
+
+        /**
+         * The body, decompressed if the server gzipped it.
+         */
+        InputStream body() throws IOException {
+            return gzip ? new GZIPInputStream(raw) : raw;
+        }
+    }
+
+    private record Validators(String etag, String lastModified) {
+    }
+
+    private final class HostGate {
+        int active;
+        final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+        synchronized boolean enterOrQueue(Runnable start) {
+            if (active < perHost) {
+                active++;
+                return true;
+            }
+            waiting.add(start);
+            return false;
+        }
+
+        void exit() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) active--;
+            }
+            if (next != null) next.run(); // hand the slot over
+        }
+    }
+
+    private final HttpClient client;
+    private final int perHost;
+    private final Map<String, HostGate> gates = new ConcurrentHashMap<>();
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    FeedFetcher(Executor executor, Duration connectTimeout, int perHost) {
+        this.perHost = Math.max(1, perHost);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Conditional GET of url. Completes exceptionally on non-2xx/304 or I/O errors.
+     */
+    CompletableFuture<Response> get(String url, String userAgent, String referer, Duration timeout) {
+        final URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return limited(uri.getHost(), () -> send(url, uri, userAgent, referer, timeout));
+    }
+
+    /**
+     * Drops stored validators, so the next GET of url is unconditional.
+     */
+    void forget(String url) {
+        validators.remove(url);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private CompletableFuture<Response> send(String url, URI uri, String ua, String referer, Duration timeout) {
+        HttpRequest.Builder rb = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(timeout)
+                .header("User-Agent", ua == null ? "TradeFrankensteinBot/1.0" : ua)
+                .header("Accept", ACCEPT)
+                .header("Accept-Language", "en-IN,en;q=0.9")
+                .header("Accept-Encoding", "gzip");
+        if (referer != null) rb.header("Referer", referer);
+        Validators v = validators.get(url);
+        if (v != null) {
+            if (v.etag != null) rb.header("If-None-Match", v.etag);
+            if (v.lastModified != null) rb.header("If-Modified-Since", v.lastModified);
+        }
+
+        final CompletableFuture<HttpResponse<InputStream>> call =
+                client.sendAsync(rb.build(), HttpResponse.BodyHandlers.ofInputStream());
+        final CompletableFuture<Response> res = call.thenApply(r -> {
+                    int code = r.statusCode();
+                    if (code != 200) {
+                        closeQuietly(r.body());
+                        if (code == 304) return new Response(304, InputStream.nullInputStream(), false, null);
+                        throw new CompletionException(new IllegalStateException("HTTP " + code));
+                    }
+                    String etag = r.headers().firstValue("ETag").orElse(null);
+                    String lm = r.headers().firstValue("Last-Modified").orElse(null);
+                    if (etag != null || lm != null) validators.put(url, new Validators(etag, lm));
+                    else validators.remove(url);
+                    String enc = r.headers().firstValue("Content-Encoding").orElse("");
+                    return new Response(200, r.body(), "gzip".equals(enc.trim().toLowerCase(Locale.ROOT)),
+                            r.headers().firstValue("Content-Type").orElse(null));
+                });
+        // thenApply does not pass cancellation upstream; abort the exchange ourselves
+        res.whenComplete((ignored, e) -> {
+            if (res.isCancelled()) call.cancel(true);
+        });
+        return res;
+    }
+
+    private static void closeQuietly(Closeable in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Runs task now if host has a free slot, otherwise when one frees up.
+     */
+    private <T> CompletableFuture<T> limited(String host, Supplier<CompletableFuture<T>> task) {
+        final HostGate gate = gates.computeIfAbsent(host == null ? "" : host, h -> new HostGate());
+        final CompletableFuture<T> out = new CompletableFuture<>();
+        final Runnable start = () -> {
+            if (out.isDone()) { // caller gave up while queued
+                gate.exit();
+                return;
+            }
+            CompletableFuture<T> f;
+            try {
+                f = task.get();
+            } catch (Throwable t) {
+                f = CompletableFuture.failedFuture(t);
+            }
+            final CompletableFuture<T> inFlight = f;
+            inFlight.whenComplete((v, e) -> {
+                gate.exit();
+                if (e != null) out.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                else if (!out.complete(v) && v instanceof Closeable c) closeQuietly(c); // caller gave up meanwhile
+            });
+            out.whenComplete((v, e) -> {
+                if (out.isCancelled()) inFlight.cancel(true); // its completion above frees the slot
+            });
+        };
+        if (gate.enterOrQueue(start)) start.run();
+        return out;
+    }
+}
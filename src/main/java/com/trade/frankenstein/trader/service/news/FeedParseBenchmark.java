@@ -0,0 +1,202 @@
+package com.trade.frankenstein.trader.service.news;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Micro-benchmark of the streaming StAX feed parser ({@link NewsService#parseRssOrAtom}) against
+ * the DOM parser it replaced, kept here verbatim as the reference.
+ * <p>
+ * Usage: {@code java ... FeedParseBenchmark [maxItems] [feed.xml ...]}. Without files it builds an
+ * RSS and an Atom sample of 2000 entries each. Every sample goes through both paths from the raw
+ * bytes (the DOM path reads the whole body to a String first, as the old fetch did); the items are
+ * compared field by field, then each path is timed after a warm-up. Exits with status 1 if any
+ * sample parses differently.
+ */
+final class FeedParseBenchmark {
+
+    private static final int SAMPLE_ITEMS = 2000;
+    private static final int WARMUP_MS = 2000;
+    private static final int MEASURE_MS = 3000;
+    private static final String SOURCE_URL = "https://example.com/feed";
+
+    private interface Parser {
+        List<NewsService.NewsItem> parse(byte[] body, int maxItems) throws Exception;
+    }
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        int maxItems = 30;
+        List<String> files = new ArrayList<>(Arrays.asList(args));
+        if (!files.isEmpty() && files.get(0).matches("\\d+")) maxItems = Integer.parseInt(files.remove(0));
+
+        Map<String, byte[]> samples = new LinkedHashMap<>();
+        if (files.isEmpty()) {
+            samples.put("rss-" + SAMPLE_ITEMS, rssSample(SAMPLE_ITEMS));
+            samples.put("atom-" + SAMPLE_ITEMS, atomSample(SAMPLE_ITEMS));
+        } else {
+            for (String f : files) samples.put(f, Files.readAllBytes(Path.of(f)));
+        }
+
+        final Parser stax = (body, max) -> NewsService.parseRssOrAtom(new ByteArrayInputStream(body), SOURCE_URL, max);
+        final Parser dom = (body, max) -> domParse(readBody(new ByteArrayInputStream(body)), SOURCE_URL, max);
+
+        boolean allEqual = true;
+        System.out.printf("maxItems=%d%n", maxItems);
+        for (Map.Entry<String, byte[]> s : samples.entrySet()) {
+            byte[] body = s.getValue();
+            List<NewsService.NewsItem> a = stax.parse(body, maxItems);
+            List<NewsService.NewsItem> b = dom.parse(body, maxItems);
+            String diff = firstDifference(a, b);
+            allEqual &= diff == null;
+
+            double staxMs = time(stax, body, maxItems);
+            double domMs = time(dom, body, maxItems);
+            System.out.printf("%-24s %8d bytes  items=%d  equal=%s  stax=%.3f ms/op  dom=%.3f ms/op  (x%.1f)%n",
+                    s.getKey(), body.length, a.size(), diff == null ? "yes" : "NO: " + diff,
+                    staxMs, domMs, domMs / staxMs);
+        }
+        if (sink == 42) System.out.print(""); // keep results observable
+        if (!allEqual) System.exit(1);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static double time(Parser p, byte[] body, int maxItems) throws Exception {
+        run(p, body, maxItems, WARMUP_MS);
+        return run(p, body, maxItems, MEASURE_MS);
+    }
+
+    /**
+     * Parses repeatedly for about budgetMs; returns ms per parse.
+     */
+    private static double run(Parser p, byte[] body, int maxItems, long budgetMs) throws Exception {
+        final long end = System.nanoTime() + budgetMs * 1_000_000L;
+        final long t0 = System.nanoTime();
+        long ops = 0;
+        do {
+            sink += p.parse(body, maxItems).size();
+            ops++;
+        } while (System.nanoTime() < end);
+        return (System.nanoTime() - t0) / 1e6 / ops;
+    }
+
+    private static String firstDifference(List<NewsService.NewsItem> a, List<NewsService.NewsItem> b) {
+        if (a.size() != b.size()) return "count " + a.size() + " vs " + b.size();
+        for (int i = 0; i < a.size(); i++) {
+            NewsService.NewsItem x = a.get(i), y = b.get(i);
+            if (!Objects.equals(x.title(), y.title())) return "title @" + i;
+            if (!Objects.equals(x.description(), y.description())) return "description @" + i;
+            if (!Objects.equals(x.link(), y.link())) return "link @" + i;
+            if (!Objects.equals(x.publishedAt(), y.publishedAt())) return "publishedAt @" + i;
+            if (!Objects.equals(x.source(), y.source())) return "source @" + i;
+        }
+        return null;
+    }
+
+    private static String readBody(InputStream in) throws Exception {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    // ---- reference: the DOM parser before the StAX change ----
+
+    private static List<NewsService.NewsItem> domParse(String xml, String sourceUrl, int maxItems) throws Exception {
+        List<NewsService.NewsItem> items = new ArrayList<>();
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(false);
+        dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        DocumentBuilder db = dbf.newDocumentBuilder();
+        org.w3c.dom.Document doc = db.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        doc.getDocumentElement().normalize();
+
+        org.w3c.dom.NodeList rss = doc.getElementsByTagName("item");
+        if (rss != null && rss.getLength() > 0) {
+            int lim = Math.min(rss.getLength(), maxItems);
+            for (int i = 0; i < lim; i++) {
+                org.w3c.dom.Element e = (org.w3c.dom.Element) rss.item(i);
+                String title = text(e, "title");
+                String desc = text(e, "description");
+                String link = text(e, "link");
+                String pub = text(e, "pubDate");
+                Instant ts = NewsService.parseRfc1123(pub);
+                items.add(new NewsService.NewsItem(title, desc, link, ts, NewsService.hostOf(sourceUrl)));
+            }
+            return items;
+        }
+
+        org.w3c.dom.NodeList atom = doc.getElementsByTagName("entry");
+        int lim = Math.min(atom.getLength(), maxItems);
+        for (int i = 0; i < lim; i++) {
+            org.w3c.dom.Element e = (org.w3c.dom.Element) atom.item(i);
+            String title = text(e, "title");
+            String desc = text(e, "summary");
+            if (desc.isEmpty()) desc = text(e, "content");
+            String link = attrOf(e, "link", "href");
+            String updated = text(e, "updated");
+            if (updated.isEmpty()) updated = text(e, "published");
+            Instant ts = NewsService.parseIsoInstant(updated);
+            items.add(new NewsService.NewsItem(title, desc, link, ts, NewsService.hostOf(sourceUrl)));
+        }
+        return items;
+    }
+
+    private static String text(org.w3c.dom.Element p, String tag) {
+        org.w3c.dom.NodeList nl = p.getElementsByTagName(tag);
+        if (nl.getLength() == 0) return "";
+        org.w3c.dom.Node n = nl.item(0);
+        return (n == null) ? "" : n.getTextContent();
+    }
+
+    private static String attrOf(org.w3c.dom.Element parent, String tag, String attr) {
+        org.w3c.dom.NodeList nl = parent.getElementsByTagName(tag);
+        if (nl.getLength() == 0) return "";
+        org.w3c.dom.Element el = (org.w3c.dom.Element) nl.item(0);
+        String v = el.getAttribute(attr);
+        return v == null ? "" : v;
+    }
+
+    // ---- synthetic samples ----
+
+    private static byte[] rssSample(int n) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss version=\"2.0\"><channel>"
+                + "<title>Markets</title><link>https://example.com</link><description>Sample feed</description>\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("<item><title>Nifty closes ").append(i % 2 == 0 ? "higher" : "lower").append(" as banks rally, item ").append(i)
+                    .append("</title><link>https://example.com/news/").append(i)
+                    .append("</link><description><![CDATA[<p>Benchmark index moved on heavy volumes; story ").append(i)
+                    .append(" &amp; more.</p>]]></description><pubDate>")
+                    .append(DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochSecond(1_700_000_000L - i * 60L).atOffset(ZoneOffset.UTC)))
+                    .append("</pubDate><guid>n-").append(i).append("</guid></item>\n");
+        }
+        return sb.append("</channel></rss>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] atomSample(int n) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<feed xmlns=\"http://www.w3.org/2005/Atom\">"
+                + "<title>Markets</title><id>urn:sample</id>\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("<entry><title type=\"text\">Sensex update ").append(i)
+                    .append("</title><link rel=\"alternate\" href=\"https://example.com/a/").append(i)
+                    .append("\"/><id>urn:e:").append(i).append("</id><updated>")
+                    .append(Instant.ofEpochSecond(1_700_000_000L - i * 60L))
+                    .append("</updated>");
+            if (i % 3 == 0) sb.append("<content type=\"html\">Full text &lt;b&gt;").append(i).append("&lt;/b&gt;</content>");
+            else sb.append("<summary>Short summary ").append(i).append("</summary>");
+            sb.append("</entry>\n");
+        }
+        return sb.append("</feed>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private FeedParseBenchmark() {
+    }
+}
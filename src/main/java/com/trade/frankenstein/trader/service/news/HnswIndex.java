@@ -0,0 +1,609 @@
+package com.trade.frankenstein.trader.service.news;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process approximate nearest-neighbour index over embeddings (HNSW graph, cosine similarity).
+ * <p>
+ * Vectors are L2-normalised on insert, so similarity is a dot product. They are stored as float[]
+ * or, with quantize, as int8 codes with one scale per vector (a quarter of the memory, similarity
+ * off by about 1e-2). Each node carries a caller key (content hash); adding a known key is a no-op.
+ * The index holds at most capacity nodes: when full, the graph is rebuilt from the newest half.
+ * Searches share a read lock, inserts take the write lock.
+ * <p>
+ * {@link #save} / {@link #load} write and read a versioned binary snapshot including the graph.
+ */
+final class HnswIndex {
+
+    private static final int MAGIC = 0x54464E48; // "TFNH"
+    private static final int VERSION = 1;
+    private static final int MAX_LEVEL = 16;
+
+    /**
+     * A neighbour: its key and cosine similarity to the query.
+     */
+    record Hit(String key, double similarity) {
+    }
+
+    private final int dim;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int capacity;
+    private final boolean quantize;
+    private final double levelMult;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+    private final Map<String, Integer> byKey = new HashMap<>();
+
+    // Node storage, indexed by node id (= insertion order)
+    private int size;
+    private String[] keys;
+    private long[] stamps;
+    private float[][] vectors; // plain
+    private byte[][] codes;    // quantized
+    private float[] scales;    // quantized
+    private int[][][] links;   // node -> level -> {count, ids...}
+    private int entry = -1;
+    private int topLevel = -1;
+    private long watermark = Long.MIN_VALUE;
+    private long modCount;
+
+    HnswIndex(int dim, int m, int efConstruction, int efSearch, int capacity, boolean quantize) {
+        if (dim <= 0) throw new IllegalArgumentException("dim <= 0");
+        this.dim = dim;
+        this.m = Math.max(4, m);
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.capacity = Math.max(16, capacity);
+        this.quantize = quantize;
+        this.levelMult = 1.0 / Math.log(this.m);
+        allocate(Math.min(this.capacity, 1024));
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Largest stamp added so far (Long.MIN_VALUE if empty).
+     */
+    long watermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bumped by every successful add; lets callers skip snapshots of an unchanged index.
+     */
+    long modCount() {
+        lock.readLock().lock();
+        try {
+            return modCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts vector under key. Returns false for a known key, a wrong dimension or a zero vector.
+     */
+    boolean add(String key, float[] vector, long stamp) {
+        if (key == null) return false;
+        float[] v = normalized(vector);
+        if (v == null) return false;
+        lock.writeLock().lock();
+        try {
+            if (byKey.containsKey(key)) return false;
+            if (size == capacity) compact();
+            insert(key, v, stamp);
+            modCount++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The most similar indexed vector, or null if the index is empty or the query is invalid.
+     */
+    Hit nearest(float[] query) {
+        List<Hit> hits = search(query, 1);
+        return hits.isEmpty() ? null : hits.get(0);
+    }
+
+    /**
+     * Up to k most similar indexed vectors, best first.
+     */
+    List<Hit> search(float[] query, int k) {
+        float[] q = normalized(query);
+        if (q == null || k <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            if (entry < 0) return List.of();
+            int ep = entry;
+            for (int l = topLevel; l > 0; l--) ep = greedy(q, ep, l);
+            LongHeap found = searchLayer(q, ep, Math.max(efSearch, k), 0);
+            long[] best = found.drainDescending();
+            List<Hit> out = new ArrayList<>(Math.min(k, best.length));
+            for (int i = 0; i < best.length && i < k; i++) {
+                out.add(new Hit(keys[idOf(best[i])], simOf(best[i])));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Graph construction
+    // ---------------------------------------------------------------------
+
+    private void insert(String key, float[] v, long stamp) {
+        if (size == keys.length) allocate(Math.min(capacity, keys.length * 2));
+        final int id = size++;
+        final int level = randomLevel();
+        keys[id] = key;
+        stamps[id] = stamp;
+        store(id, v);
+        links[id] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) links[id][l] = new int[1 + maxLinks(l)];
+        byKey.put(key, id);
+        if (stamp > watermark) watermark = stamp;
+
+        if (entry < 0) {
+            entry = id;
+            topLevel = level;
+            return;
+        }
+        float[] q = quantize ? vectorOf(id, new float[dim]) : v; // link on what searches will see
+        int ep = entry;
+        for (int l = topLevel; l > level; l--) ep = greedy(q, ep, l);
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            long[] cand = searchLayer(q, ep, efConstruction, l).drainDescending();
+            int[] chosen = selectNeighbors(cand, m);
+            int[] own = links[id][l];
+            for (int n : chosen) own[1 + own[0]++] = n;
+            for (int n : chosen) connect(n, id, l);
+            ep = idOf(cand[0]);
+        }
+        if (level > topLevel) {
+            entry = id;
+            topLevel = level;
+        }
+    }
+
+    /**
+     * Adds id to n's level-l links, pruning with the neighbour heuristic when full.
+     */
+    private void connect(int n, int id, int l) {
+        int[] nl = links[n][l];
+        int max = nl.length - 1;
+        if (nl[0] < max) {
+            nl[1 + nl[0]++] = id;
+            return;
+        }
+        float[] base = vectorOf(n, new float[dim]);
+        long[] cand = new long[max + 1];
+        for (int i = 0; i < max; i++) cand[i] = pack(similarity(base, nl[1 + i]), nl[1 + i]);
+        cand[max] = pack(similarity(base, id), id);
+        Arrays.sort(cand);
+        reverse(cand);
+        int[] chosen = selectNeighbors(cand, max);
+        nl[0] = chosen.length;
+        System.arraycopy(chosen, 0, nl, 1, chosen.length);
+    }
+
+    /**
+     * HNSW neighbour heuristic: take candidates (best first) that are closer to the base than to
+     * any already chosen one, then top up with the skipped ones to keep the graph connected.
+     */
+    private int[] selectNeighbors(long[] candidates, int max) {
+        int[] chosen = new int[Math.min(max, candidates.length)];
+        int n = 0;
+        boolean[] skipped = new boolean[candidates.length];
+        float[] cv = new float[dim];
+        for (int i = 0; i < candidates.length && n < chosen.length; i++) {
+            int c = idOf(candidates[i]);
+            float toBase = simOf(candidates[i]);
+            vectorOf(c, cv);
+            boolean keep = true;
+            for (int j = 0; j < n; j++) {
+                if (similarity(cv, chosen[j]) > toBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) chosen[n++] = c;
+            else skipped[i] = true;
+        }
+        for (int i = 0; i < candidates.length && n < chosen.length; i++) {
+            if (skipped[i]) chosen[n++] = idOf(candidates[i]);
+        }
+        return n == chosen.length ? chosen : Arrays.copyOf(chosen, n);
+    }
+
+    /**
+     * Rebuilds the graph from the newest half of the nodes.
+     */
+    private void compact() {
+        int keep = capacity / 2;
+        int from = size - keep;
+        String[] k = Arrays.copyOfRange(keys, from, size);
+        long[] st = Arrays.copyOfRange(stamps, from, size);
+        float[][] vs = new float[keep][];
+        for (int i = 0; i < keep; i++) vs[i] = vectorOf(from + i, new float[dim]);
+
+        byKey.clear();
+        size = 0;
+        entry = -1;
+        topLevel = -1;
+        watermark = Long.MIN_VALUE;
+        allocate(keys.length);
+        for (int i = 0; i < keep; i++) insert(k[i], vs[i], st[i]);
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        return Math.min(MAX_LEVEL, (int) (-Math.log(u) * levelMult));
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    // ---------------------------------------------------------------------
+    // Search
+    // ---------------------------------------------------------------------
+
+    private int greedy(float[] q, int ep, int level) {
+        int cur = ep;
+        float curSim = similarity(q, cur);
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            int[] nl = links[cur][level];
+            for (int i = 1; i <= nl[0]; i++) {
+                float s = similarity(q, nl[i]);
+                if (s > curSim) {
+                    curSim = s;
+                    cur = nl[i];
+                    moved = true;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /**
+     * Best-first search of one layer; returns up to ef nearest as packed (similarity, id).
+     */
+    private LongHeap searchLayer(float[] q, int ep, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset(size);
+        LongHeap candidates = new LongHeap(true, ef * 2);
+        LongHeap found = new LongHeap(false, ef + 1); // worst on top
+        long e = pack(similarity(q, ep), ep);
+        seen.visit(ep);
+        candidates.push(e);
+        found.push(e);
+        while (!candidates.isEmpty()) {
+            long c = candidates.pop();
+            if (found.size() >= ef && simOf(c) < simOf(found.peek())) break;
+            int[] nl = links[idOf(c)][level];
+            for (int i = 1; i <= nl[0]; i++) {
+                int n = nl[i];
+                if (!seen.visit(n)) continue;
+                float s = similarity(q, n);
+                if (found.size() < ef || s > simOf(found.peek())) {
+                    long p = pack(s, n);
+                    candidates.push(p);
+                    found.push(p);
+                    if (found.size() > ef) found.pop();
+                }
+            }
+        }
+        return found;
+    }
+
+    // ---------------------------------------------------------------------
+    // Vectors
+    // ---------------------------------------------------------------------
+
+    private float[] normalized(float[] v) {
+        if (v == null || v.length != dim) return null;
+        double norm = 0;
+        for (float x : v) norm += (double) x * x;
+        if (norm == 0 || Double.isNaN(norm) || Double.isInfinite(norm)) return null;
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        float[] out = new float[dim];
+        for (int i = 0; i < dim; i++) out[i] = v[i] * inv;
+        return out;
+    }
+
+    private void store(int id, float[] v) {
+        if (!quantize) {
+            vectors[id] = v;
+            return;
+        }
+        float maxAbs = 0;
+        for (float x : v) maxAbs = Math.max(maxAbs, Math.abs(x));
+        float scale = maxAbs / 127f;
+        byte[] c = new byte[dim];
+        for (int i = 0; i < dim; i++) c[i] = (byte) Math.round(v[i] / scale);
+        codes[id] = c;
+        scales[id] = scale;
+    }
+
+    private float[] vectorOf(int id, float[] out) {
+        if (!quantize) {
+            System.arraycopy(vectors[id], 0, out, 0, dim);
+        } else {
+            byte[] c = codes[id];
+            float scale = scales[id];
+            for (int i = 0; i < dim; i++) out[i] = c[i] * scale;
+        }
+        return out;
+    }
+
+    // Four independent accumulators: lets the JIT overlap the multiply-adds
+    private float similarity(float[] q, int id) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0, end = dim & ~3;
+        if (!quantize) {
+            float[] v = vectors[id];
+            for (; i < end; i += 4) {
+                s0 += q[i] * v[i];
+                s1 += q[i + 1] * v[i + 1];
+                s2 += q[i + 2] * v[i + 2];
+                s3 += q[i + 3] * v[i + 3];
+            }
+            for (; i < dim; i++) s0 += q[i] * v[i];
+            return (s0 + s1) + (s2 + s3);
+        }
+        byte[] c = codes[id];
+        for (; i < end; i += 4) {
+            s0 += q[i] * c[i];
+            s1 += q[i + 1] * c[i + 1];
+            s2 += q[i + 2] * c[i + 2];
+            s3 += q[i + 3] * c[i + 3];
+        }
+        for (; i < dim; i++) s0 += q[i] * c[i];
+        return ((s0 + s1) + (s2 + s3)) * scales[id];
+    }
+
+    private void allocate(int n) {
+        keys = keys == null ? new String[n] : Arrays.copyOf(keys, n);
+        stamps = stamps == null ? new long[n] : Arrays.copyOf(stamps, n);
+        links = links == null ? new int[n][][] : Arrays.copyOf(links, n);
+        if (quantize) {
+            codes = codes == null ? new byte[n][] : Arrays.copyOf(codes, n);
+            scales = scales == null ? new float[n] : Arrays.copyOf(scales, n);
+        } else {
+            vectors = vectors == null ? new float[n][] : Arrays.copyOf(vectors, n);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Snapshot
+    // ---------------------------------------------------------------------
+
+    /**
+     * Writes the index to path (via a temp file and rename).
+     */
+    void save(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(dim);
+            out.writeInt(m);
+            out.writeBoolean(quantize);
+            out.writeInt(size);
+            out.writeInt(entry);
+            out.writeInt(topLevel);
+            out.writeLong(watermark);
+            for (int id = 0; id < size; id++) {
+                out.writeUTF(keys[id]);
+                out.writeLong(stamps[id]);
+                if (quantize) {
+                    out.writeFloat(scales[id]);
+                    out.write(codes[id]);
+                } else {
+                    for (float x : vectors[id]) out.writeFloat(x);
+                }
+                int[][] nl = links[id];
+                out.writeByte(nl.length);
+                for (int[] l : nl) {
+                    out.writeShort(l[0]);
+                    for (int i = 1; i <= l[0]; i++) out.writeInt(l[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written with the same dim, m and quantize; null if the file is missing
+     * or was written with other settings.
+     */
+    static HnswIndex load(Path path, int dim, int m, int efConstruction, int efSearch, int capacity,
+                          boolean quantize) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            HnswIndex idx = new HnswIndex(dim, m, efConstruction, efSearch, capacity, quantize);
+            if (in.readInt() != dim || in.readInt() != idx.m || in.readBoolean() != quantize) return null;
+            int n = in.readInt();
+            if (n < 0 || n > idx.capacity) return null;
+            idx.allocate(Math.max(n, Math.min(idx.capacity, 1024)));
+            idx.entry = in.readInt();
+            idx.topLevel = in.readInt();
+            idx.watermark = in.readLong();
+            for (int id = 0; id < n; id++) {
+                idx.keys[id] = in.readUTF();
+                idx.stamps[id] = in.readLong();
+                if (quantize) {
+                    idx.scales[id] = in.readFloat();
+                    idx.codes[id] = in.readNBytes(dim);
+                    if (idx.codes[id].length != dim) throw new EOFException();
+                } else {
+                    float[] v = new float[dim];
+                    for (int i = 0; i < dim; i++) v[i] = in.readFloat();
+                    idx.vectors[id] = v;
+                }
+                int levels = in.readUnsignedByte();
+                int[][] nl = new int[levels][];
+                for (int l = 0; l < levels; l++) {
+                    int count = in.readUnsignedShort();
+                    nl[l] = new int[1 + Math.max(count, idx.maxLinks(l))];
+                    nl[l][0] = count;
+                    for (int i = 1; i <= count; i++) nl[l][i] = in.readInt();
+                }
+                idx.links[id] = nl;
+                idx.byKey.put(idx.keys[id], id);
+            }
+            idx.size = n;
+            return idx;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Packed (similarity, id) keys: ordering of the long = ordering by similarity
+    // ---------------------------------------------------------------------
+
+    private static long pack(float sim, int id) {
+        int bits = Float.floatToIntBits(sim);
+        int sortable = bits ^ ((bits >> 31) & 0x7fffffff);
+        return ((long) sortable << 32) | (id & 0xffffffffL);
+    }
+
+    private static float simOf(long packed) {
+        int sortable = (int) (packed >> 32);
+        return Float.intBitsToFloat(sortable ^ ((sortable >> 31) & 0x7fffffff));
+    }
+
+    private static int idOf(long packed) {
+        return (int) packed;
+    }
+
+    private static void reverse(long[] a) {
+        for (int i = 0, j = a.length - 1; i < j; i++, j--) {
+            long t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /**
+     * Binary heap of longs; max-heap or min-heap.
+     */
+    private static final class LongHeap {
+        private final boolean max;
+        private long[] a;
+        private int n;
+
+        LongHeap(boolean max, int initial) {
+            this.max = max;
+            this.a = new long[Math.max(4, initial)];
+        }
+
+        int size() {
+            return n;
+        }
+
+        boolean isEmpty() {
+            return n == 0;
+        }
+
+        long peek() {
+            return a[0];
+        }
+
+        void push(long v) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            int i = n++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (!above(v, a[p])) break;
+                a[i] = a[p];
+                i = p;
+            }
+            a[i] = v;
+        }
+
+        long pop() {
+            long top = a[0];
+            long last = a[--n];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= n) break;
+                if (c + 1 < n && above(a[c + 1], a[c])) c++;
+                if (!above(a[c], last)) break;
+                a[i] = a[c];
+                i = c;
+            }
+            a[i] = last;
+            return top;
+        }
+
+        /**
+         * Empties the heap, returning its contents best (highest) first.
+         */
+        long[] drainDescending() {
+            long[] out = Arrays.copyOf(a, n);
+            n = 0;
+            Arrays.sort(out);
+            reverse(out);
+            return out;
+        }
+
+        private boolean above(long x, long y) {
+            return max ? x > y : x < y;
+        }
+    }
+
+    /**
+     * Per-thread visited marks, cleared in O(1) by bumping the epoch.
+     */
+    private static final class Visited {
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int n) {
+            if (marks.length < n) marks = new int[Math.max(n, marks.length * 2)];
+            if (++epoch == 0) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        boolean visit(int id) {
+            if (marks[id] == epoch) return false;
+            marks[id] = epoch;
+            return true;
+        }
+    }
+}
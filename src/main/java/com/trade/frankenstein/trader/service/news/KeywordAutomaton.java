@@ -0,0 +1,196 @@
+package com.trade.frankenstein.trader.service.news;
+
+import java.util.*;
+
+/**
+ * Case-insensitive multi-keyword matcher (Aho-Corasick, compiled to a dense DFA).
+ * <p>
+ * Keywords are added in numbered groups; {@link #count} scans a text once and returns the number
+ * of hits per group. Like a per-keyword {@code indexOf} loop, each keyword counts its own
+ * non-overlapping occurrences, while different keywords may overlap. The alphabet is the set of
+ * characters that occur in the keywords; any other character sends the scan back to the root.
+ * Immutable and safe to share between threads.
+ */
+final class KeywordAutomaton {
+
+    private final int groups;
+    private final int alphabetSize;
+    private final int[] charClass;     // char -> alphabet index, 0 = not in any keyword
+    private final int[] delta;         // state * alphabetSize + class -> next state
+    private final int[][] outputs;     // state -> keyword ids ending here (own + via fail links)
+    private final int[] keywordGroup;
+    private final int[] keywordLength;
+
+    private KeywordAutomaton(int groups, int alphabetSize, int[] charClass, int[] delta, int[][] outputs,
+                             int[] keywordGroup, int[] keywordLength) {
+        this.groups = groups;
+        this.alphabetSize = alphabetSize;
+        this.charClass = charClass;
+        this.delta = delta;
+        this.outputs = outputs;
+        this.keywordGroup = keywordGroup;
+        this.keywordLength = keywordLength;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int groups() {
+        return groups;
+    }
+
+    /**
+     * Hits per group over the parts, scanned as if joined by single spaces.
+     */
+    int[] count(CharSequence... parts) {
+        final int[] hits = new int[groups];
+        if (keywordGroup.length == 0) return hits;
+        final int[] nextFree = new int[keywordGroup.length]; // per keyword: first position a new hit may start
+        int state = 0, pos = 0;
+        for (int p = 0; p < parts.length; p++) {
+            CharSequence s = parts[p];
+            if (s == null) continue;
+            if (p > 0) {
+                state = step(state, ' ');
+                emit(state, pos++, hits, nextFree);
+            }
+            for (int i = 0, n = s.length(); i < n; i++) {
+                state = step(state, s.charAt(i));
+                emit(state, pos++, hits, nextFree);
+            }
+        }
+        return hits;
+    }
+
+    private int step(int state, char c) {
+        char lc = Character.toLowerCase(c);
+        int cls = lc < charClass.length ? charClass[lc] : 0;
+        return cls == 0 ? 0 : delta[state * alphabetSize + cls];
+    }
+
+    private void emit(int state, int pos, int[] hits, int[] nextFree) {
+        int[] out = outputs[state];
+        if (out != null) {
+            for (int k : out) {
+                int start = pos - keywordLength[k] + 1;
+                if (start >= nextFree[k]) {
+                    hits[keywordGroup[k]]++;
+                    nextFree[k] = pos + 1;
+                }
+            }
+        }
+    }
+
+    static final class Builder {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> groupOf = new ArrayList<>();
+        private int groups;
+
+        /**
+         * Adds keywords (trimmed, lower-cased; blanks and duplicates within the group skipped)
+         * under group.
+         */
+        Builder add(int group, Collection<String> words) {
+            if (group < 0) throw new IllegalArgumentException("group < 0");
+            groups = Math.max(groups, group + 1);
+            if (words == null) return this;
+            Set<String> seen = new HashSet<>();
+            for (String w : words) {
+                if (w == null) continue;
+                String k = w.trim().toLowerCase(Locale.ROOT);
+                if (k.isEmpty() || !seen.add(k)) continue;
+                keywords.add(k);
+                groupOf.add(group);
+            }
+            return this;
+        }
+
+        KeywordAutomaton build() {
+            // alphabet: class 0 is "any other character"
+            char maxChar = ' ';
+            for (String k : keywords) for (int i = 0; i < k.length(); i++) maxChar = (char) Math.max(maxChar, k.charAt(i));
+            final int[] charClass = new int[maxChar + 1];
+            int alphabet = 1;
+            for (String k : keywords) {
+                for (int i = 0; i < k.length(); i++) {
+                    char c = k.charAt(i);
+                    if (charClass[c] == 0) charClass[c] = alphabet++;
+                }
+            }
+
+            // trie
+            List<int[]> next = new ArrayList<>();
+            List<List<Integer>> own = new ArrayList<>();
+            next.add(newRow(alphabet));
+            own.add(null);
+            final int[] kwGroup = new int[keywords.size()];
+            final int[] kwLen = new int[keywords.size()];
+            for (int id = 0; id < keywords.size(); id++) {
+                String k = keywords.get(id);
+                kwGroup[id] = groupOf.get(id);
+                kwLen[id] = k.length();
+                int s = 0;
+                for (int i = 0; i < k.length(); i++) {
+                    int cls = charClass[k.charAt(i)];
+                    if (next.get(s)[cls] < 0) {
+                        next.get(s)[cls] = next.size();
+                        next.add(newRow(alphabet));
+                        own.add(null);
+                    }
+                    s = next.get(s)[cls];
+                }
+                if (own.get(s) == null) own.set(s, new ArrayList<>());
+                own.get(s).add(id);
+            }
+
+            // BFS: fail links folded into a full transition table, outputs merged along fail links
+            final int states = next.size();
+            final int[] delta = new int[states * alphabet];
+            final int[] fail = new int[states];
+            final int[][] outputs = new int[states][];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int c = 1; c < alphabet; c++) {
+                int t = next.get(0)[c];
+                if (t < 0) {
+                    delta[c] = 0;
+                } else {
+                    delta[c] = t;
+                    fail[t] = 0;
+                    queue.add(t);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                outputs[s] = merge(own.get(s), outputs[fail[s]]);
+                for (int c = 1; c < alphabet; c++) {
+                    int t = next.get(s)[c];
+                    if (t < 0) {
+                        delta[s * alphabet + c] = delta[fail[s] * alphabet + c];
+                    } else {
+                        delta[s * alphabet + c] = t;
+                        fail[t] = delta[fail[s] * alphabet + c];
+                        queue.add(t);
+                    }
+                }
+            }
+            return new KeywordAutomaton(groups, alphabet, charClass, delta, outputs, kwGroup, kwLen);
+        }
+
+        private static int[] newRow(int alphabet) {
+            int[] r = new int[alphabet];
+            Arrays.fill(r, -1);
+            return r;
+        }
+
+        private static int[] merge(List<Integer> own, int[] inherited) {
+            if (own == null) return inherited;
+            int n = own.size() + (inherited == null ? 0 : inherited.length);
+            int[] out = new int[n];
+            int i = 0;
+            for (int k : own) out[i++] = k;
+            if (inherited != null) for (int k : inherited) out[i++] = k;
+            return out;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.trade.frankenstein.trader.dto.RiskAssessment;
 import com.trade.frankenstein.trader.repo.documents.MarketSentimentSnapshotRepo;
 import com.trade.frankenstein.trader.service.StreamGateway;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -26,21 +27,25 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.BufferedReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
@@ -53,7 +58,9 @@ import java.util.zip.GZIPInputStream;
 @Service
 public class NewsService {
 
-    private static final int MAX_BUFFER_EVENTS = 2000; // ring buffer cap
+    private static final int MAX_BUFFER_EVENTS = 2000; // retained news events cap
+    private static final int NEWS_WINDOW_MINUTES = 180;   // burst / sentiment horizon
+    private static final int MAX_WINDOW_KEYS = 1024;       // symbol + category series
     // ==== Step-11 constants & field names (kept local to avoid touching other files) ====
     private static final String F_ID = "_id";
     private static final String F_TITLE = "title";
@@ -71,17 +78,65 @@ public class NewsService {
     private static final int K_NEIGHBORS = 20;
     private static final int K_REFINE = 50;
     private static final int LINEAR_SCAN_LIMIT = 1000;
+    private static final long ANN_CATCHUP_OVERLAP_MS = 86_400_000L; // re-read a day before the snapshot watermark
     private static final int MAX_TITLE_LEN = 400;
     private static final int MAX_DESC_LEN = 2000;
+    private static final int SNIFF_BYTES = 1024;
+    // Shared, hardened StAX factory: no DTDs, no external entities
+    private static final XMLInputFactory XML_INPUT = newXmlInputFactory();
+    // Marks a feed fetch whose caller has given up: no further attempt may start
+    private static final CompletableFuture<?> CANCELLED_FETCH = new CompletableFuture<>();
+    // Keyword groups of the sentiment automaton
+    private static final int G_BULLISH = 0;
+    private static final int G_BEARISH = 1;
+    private static final int G_EARNINGS = 2;
+    private static final int G_DEAL = 3;
+    private static final int G_POLICY = 4;
+    // Precompiled scraping patterns
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern HTML_TAG = Pattern.compile("(?is)<[^>]+>");
+    private static final Pattern HEADING = Pattern.compile("(?is)<h[1-3][^>]*>(.*?)</h[1-3]>");
+    private static final Pattern LINK_HREF = Pattern.compile("(?is)<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>");
+    private static final Pattern ANCHOR = Pattern.compile("(?is)<a([^>]*)>(.*?)</a>");
+    private static final Pattern HREF_ATTR = Pattern.compile("(?i)\\bhref\\s*=\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern TITLE_TAG = Pattern.compile("(?is)<title\\b[^>]*>(.*?)</title\\s*>");
+    private static final Pattern META_OG_TITLE = Pattern.compile("(?i)<meta[^>]*property=['\"]og:title['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
+    private static final Pattern META_OG_DESC = Pattern.compile("(?i)<meta[^>]*property=['\"]og:description['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
+    private static final Pattern META_DESC = Pattern.compile("(?i)<meta[^>]*name=['\"]description['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
+    private static final Pattern SEBI_NEWS = Pattern.compile(
+            "(?is)<div[^>]*class=['\"]news-list['\"][^>]*>\\s*"
+                    + "<div[^>]*class=['\"]date['\"][^>]*>(.*?)</div>\\s*"
+                    + "<div[^>]*class=['\"]title['\"][^>]*>(.*?)</div>\\s*"
+                    + "<div[^>]*class=['\"]desc['\"][^>]*>(.*?)</div>\\s*",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern SEBI_PDF_LINK = Pattern.compile("href=['\"]([^'\"]+\\.pdf)['\"]", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MONEYCONTROL_CARD = Pattern.compile(
+            "(?is)<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>\\s*"
+                    + "(?:<h3[^>]*>(.*?)</h3>|.*?class=['\"][^'\"]*headline[^'\"]*['\"][^>]*>(.*?))",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern YAHOO_NEWS = Pattern.compile(
+            "(?is)<li[^>]*class=['\"][^'\"]*Ov\\([^'\"]*\\)[^'\"]*['\"][^>]*>\\s*"
+                    + ".*?<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>(.*?)</a>",
+            Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
     private final int defaultBurstWindowMin = 10;
     /**
-     * In-memory rolling log of recent news events (append-only, auto-pruned).
+     * Recent news events in minute buckets, counted per symbol and category (auto-expiring).
      */
-    private final Deque<NewsEvent> newsEvents = new ConcurrentLinkedDeque<>();
+    private final TimeBucketIndex<NewsEvent> newsWindow =
+            new TimeBucketIndex<>(NEWS_WINDOW_MINUTES, MAX_WINDOW_KEYS, MAX_BUFFER_EVENTS);
     // ---------- Config ----------
     private final List<String> feedUrls = Arrays.asList(TradeNewsConstants.NEWS_URLS);
     private final List<String> bullish = TradeNewsConstants.bullish;
     private final List<String> bearish = TradeNewsConstants.bearish;
+    // Built once; scores bullish/bearish/category keywords of an item in one pass
+    private final KeywordAutomaton sentimentKeywords = KeywordAutomaton.builder()
+            .add(G_BULLISH, bullish)
+            .add(G_BEARISH, bearish)
+            .add(G_EARNINGS, List.of("earnings", "results"))
+            .add(G_DEAL, List.of("merger", "acquisition"))
+            .add(G_POLICY, List.of("regulator", "policy"))
+            .build();
+    private volatile SymbolTagger symbolTagger;
     private final int minItemsForHighConfidence = 12;
     private final int maxItemsPerFeed = 30;
     private final int maxTotalItems = 300;
@@ -101,7 +156,6 @@ public class NewsService {
     // ---- Data structures for signals, performance, and risk ----
     private final Map<String, Double> symbolSentimentWeights = new ConcurrentHashMap<>();
     private final Map<String, List<TradingSignal>> activeSignals = new ConcurrentHashMap<>();
-    private final Deque<PriceImpactEvent> priceImpactHistory = new ConcurrentLinkedDeque<>();
     private final Map<String, SignalPerformance> signalPerformanceMap = new ConcurrentHashMap<>();
     private final Map<String, Double> sourceAccuracyRatings = new ConcurrentHashMap<>();
     private final Map<String, MarketContext> symbolMarketContext = new ConcurrentHashMap<>();
@@ -119,6 +173,24 @@ public class NewsService {
     private EmbeddingClient embeddingClient; // optional embedder bean
     @Value("${tf.news.collection:news_articles}")
     private String newsCollection;
+    // ---- In-process ANN index over article embeddings ----
+    @Value("${tf.news.ann.enabled:true}")
+    private boolean annEnabled;
+    @Value("${tf.news.ann.quantize:false}")
+    private boolean annQuantize;
+    @Value("${tf.news.ann.max-items:50000}")
+    private int annMaxItems;
+    @Value("${tf.news.ann.m:16}")
+    private int annM;
+    @Value("${tf.news.ann.ef-construction:100}")
+    private int annEfConstruction;
+    @Value("${tf.news.ann.ef-search:64}")
+    private int annEfSearch;
+    @Value("${tf.news.ann.snapshot:data/news-ann.bin}")
+    private String annSnapshot;
+    private volatile HnswIndex annIndex;  // accepts inserts as soon as it exists
+    private volatile boolean annReady;    // answers queries once caught up with Mongo
+    private volatile long annSavedModCount = -1;
     // ---- Configuration for trading signals ----
     @Value("${tf.news.trading.enabled:false}")
     private boolean tradingSignalsEnabled;
@@ -126,6 +198,12 @@ public class NewsService {
     private double signalConfidenceThreshold;
     @Value("${tf.news.price.impact.threshold:0.02}")
     private double priceImpactThreshold;
+    // ---- Feed fetch stage ----
+    @Value("${tf.news.fetch.deadline-ms:20000}")
+    private long fetchDeadlineMs;
+    @Value("${tf.news.fetch.per-host:2}")
+    private int fetchPerHost;
+    private FeedFetcher feedFetcher;
     private volatile boolean emergencyNewsHalt = false;
 
     private static List<String> trim(List<String> in) {
@@ -144,23 +222,7 @@ public class NewsService {
     // ---------- Public API ----------
     private static String normalize(String s) {
         if (s == null) return "";
-        return s.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
-    }
-
-    private static int hits(NewsItem item, List<String> keys) {
-        if (keys == null || keys.isEmpty()) return 0;
-        String text = (item.title + " " + item.description).toLowerCase(Locale.ROOT);
-        int c = 0;
-        for (String k : keys) {
-            String kw = k.trim().toLowerCase(Locale.ROOT);
-            if (kw.isEmpty()) continue;
-            int idx = 0;
-            while ((idx = text.indexOf(kw, idx)) != -1) {
-                c++;
-                idx += kw.length();
-            }
-        }
-        return c;
+        return WHITESPACE.matcher(s.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
     }
 
     private static double clamp(double v, double lo, double hi) {
@@ -186,50 +248,110 @@ public class NewsService {
     private static boolean looksLikeXml(String s) {
         if (s == null) return false;
         String t = s.trim();
+        if (t.startsWith("\uFEFF")) t = t.substring(1).trim();
+        if (t.startsWith("<?xml")) return t.contains("<rss") || t.contains("<feed") || t.contains("<rdf:RDF");
         return t.startsWith("xml ") || t.startsWith("<rss") || t.startsWith("<feed");
     }
 
-    private static List<NewsItem> parseRssOrAtom(String xml, String sourceUrl, int maxItems) throws Exception {
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        f.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        f.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return f;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Single pass over an RSS (item) or Atom (entry) stream; stops reading once maxItems are
+     * built. Per item, the first title / description|summary|content / link / date element at
+     * any depth wins, as with the DOM lookups this replaced.
+     */
+    static List<NewsItem> parseRssOrAtom(InputStream in, String sourceUrl, int maxItems) throws XMLStreamException {
         List<NewsItem> items = new ArrayList<>();
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(false);
-        dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        DocumentBuilder db = dbf.newDocumentBuilder();
-        org.w3c.dom.Document doc = db.parse(new java.io.ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
-        doc.getDocumentElement().normalize();
-
-        org.w3c.dom.NodeList rss = doc.getElementsByTagName("item");
-        if (rss != null && rss.getLength() > 0) {
-            int lim = Math.min(rss.getLength(), maxItems);
-            for (int i = 0; i < lim; i++) {
-                org.w3c.dom.Element e = (org.w3c.dom.Element) rss.item(i);
-                String title = text(e, "title");
-                String desc = text(e, "description");
-                String link = text(e, "link");
-                String pub = text(e, "pubDate");
-                Instant ts = parseRfc1123(pub);
-                items.add(new NewsItem(title, desc, link, ts, hostOf(sourceUrl)));
+        if (maxItems <= 0) return items;
+        final String host = hostOf(sourceUrl);
+        final XMLStreamReader r = XML_INPUT.createXMLStreamReader(in);
+        try {
+            final String[] f = new String[6];
+            final StringBuilder text = new StringBuilder();
+            int depth = 0, itemDepth = -1, fieldDepth = -1, field = -1;
+            boolean atom = false;
+            while (r.hasNext()) {
+                switch (r.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        depth++;
+                        String name = r.getLocalName();
+                        if (itemDepth < 0) {
+                            if ("item".equals(name) || "entry".equals(name)) {
+                                itemDepth = depth;
+                                atom = "entry".equals(name);
+                                Arrays.fill(f, null);
+                            }
+                        } else if (field < 0) {
+                            int slot = slotOf(name, atom);
+                            if (slot == S_LINK && atom) {
+                                if (f[S_LINK] == null) f[S_LINK] = nvl(r.getAttributeValue(null, "href"));
+                            } else if (slot >= 0 && f[slot] == null) {
+                                field = slot;
+                                fieldDepth = depth;
+                                text.setLength(0);
+                            }
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                        if (field >= 0) text.append(r.getText());
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (field >= 0 && depth == fieldDepth) {
+                            f[field] = text.toString();
+                            field = -1;
+                        } else if (depth == itemDepth) {
+                            items.add(atom
+                                    ? new NewsItem(f[S_TITLE], f[S_DESC] != null ? f[S_DESC] : f[S_CONTENT], f[S_LINK],
+                                    parseIsoInstant(f[S_DATE] != null ? f[S_DATE] : f[S_PUBLISHED]), host)
+                                    : new NewsItem(f[S_TITLE], f[S_DESC], f[S_LINK], parseRfc1123(f[S_DATE]), host));
+                            if (items.size() >= maxItems) return items;
+                            itemDepth = -1;
+                        }
+                        depth--;
+                    }
+                    default -> {
+                    }
+                }
             }
             return items;
+        } finally {
+            r.close();
         }
-
-        org.w3c.dom.NodeList atom = doc.getElementsByTagName("entry");
-        int lim = Math.min(atom.getLength(), maxItems);
-        for (int i = 0; i < lim; i++) {
-            org.w3c.dom.Element e = (org.w3c.dom.Element) atom.item(i);
-            String title = text(e, "title");
-            String desc = text(e, "summary");
-            if (desc.isEmpty()) desc = text(e, "content");
-            String link = attrOf(e, "link", "href");
-            String updated = text(e, "updated");
-            if (updated.isEmpty()) updated = text(e, "published");
-            Instant ts = parseIsoInstant(updated);
-            items.add(new NewsItem(title, desc, link, ts, hostOf(sourceUrl)));
-        }
-        return items;
     }
 
-    private static Instant parseRfc1123(String s) {
+    // value slots of one item/entry while streaming
+    private static final int S_TITLE = 0, S_DESC = 1, S_CONTENT = 2, S_LINK = 3, S_DATE = 4, S_PUBLISHED = 5;
+
+    /**
+     * Slot of an element inside an item/entry; RSS description / pubDate share the Atom summary /
+     * updated slots.
+     */
+    private static int slotOf(String name, boolean atom) {
+        return switch (name) {
+            case "title" -> S_TITLE;
+            case "link" -> S_LINK;
+            case "description" -> atom ? -1 : S_DESC;
+            case "pubDate" -> atom ? -1 : S_DATE;
+            case "summary" -> atom ? S_DESC : -1;
+            case "content" -> atom ? S_CONTENT : -1;
+            case "updated" -> atom ? S_DATE : -1;
+            case "published" -> atom ? S_PUBLISHED : -1;
+            default -> -1;
+        };
+    }
+
+    static Instant parseRfc1123(String s) {
         if (s == null || s.trim().isEmpty()) return null;
         try {
             return ZonedDateTime.parse(s.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
@@ -238,7 +360,7 @@ public class NewsService {
         }
     }
 
-    private static Instant parseIsoInstant(String s) {
+    static Instant parseIsoInstant(String s) {
         if (s == null || s.trim().isEmpty()) return null;
         try {
             return Instant.parse(s.trim());
@@ -251,7 +373,7 @@ public class NewsService {
         }
     }
 
-    private static String hostOf(String url) {
+    static String hostOf(String url) {
         try {
             return new URI(url).getHost();
         } catch (Exception ignored) {
@@ -263,23 +385,21 @@ public class NewsService {
         List<NewsItem> out = new ArrayList<>();
         String source = hostOf(pageUrl);
 
-        String ogTitle = metaContent(html, "(?i)<meta[^>]*property=['\"]og:title['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
-        String ogDesc = metaContent(html, "(?i)<meta[^>]*property=['\"]og:description['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
-        if (ogTitle == null || ogTitle.trim().isEmpty()) ogTitle = extractTagText(html, "title");
-        String pageDesc = (ogDesc != null && !ogDesc.isEmpty()) ? ogDesc : metaContent(html, "(?i)<meta[^>]*name=['\"]description['\"][^>]*content=['\"]([^'\"]+)['\"][^>]*>");
+        String ogTitle = metaContent(html, META_OG_TITLE);
+        String ogDesc = metaContent(html, META_OG_DESC);
+        if (ogTitle == null || ogTitle.trim().isEmpty()) ogTitle = extractTagText(html, TITLE_TAG);
+        String pageDesc = (ogDesc != null && !ogDesc.isEmpty()) ? ogDesc : metaContent(html, META_DESC);
         if (ogTitle != null && !ogTitle.trim().isEmpty()) {
             out.add(new NewsItem(ogTitle.trim(), nvl(pageDesc), pageUrl, null, source));
         }
 
         try {
-            Pattern headingPattern = Pattern.compile("(?is)<h[1-3][^>]*>(.*?)</h[1-3]>");
-            Matcher hm = headingPattern.matcher(html);
+            Matcher hm = HEADING.matcher(html);
             while (hm.find() && out.size() < maxItems) {
                 String heading = stripTags(hm.group(1)).trim();
                 if (heading.length() > 20 && heading.length() < 150) {
                     String nearbyHtml = html.substring(Math.max(0, hm.start() - 100), Math.min(html.length(), hm.end() + 100));
-                    Pattern linkPattern = Pattern.compile("(?is)<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>");
-                    Matcher lm = linkPattern.matcher(nearbyHtml);
+                    Matcher lm = LINK_HREF.matcher(nearbyHtml);
                     if (lm.find()) {
                         String href = lm.group(1);
                         try {
@@ -296,8 +416,7 @@ public class NewsService {
         } catch (Exception ignored) {
         }
 
-        Pattern aTag = Pattern.compile("(?is)<a([^>]*)>(.*?)</a>");
-        Matcher m = aTag.matcher(html);
+        Matcher m = ANCHOR.matcher(html);
         Set<String> seen = new HashSet<>();
         try {
             URI base = new URI(pageUrl);
@@ -308,7 +427,7 @@ public class NewsService {
                 String attrs = m.group(1);
                 String text = stripTags(m.group(2)).trim();
                 if (text.length() < 20 || text.length() > 150) continue;
-                String href = attrValue(attrs, "href");
+                String href = hrefOf(attrs);
                 if (href == null || href.trim().isEmpty()) continue;
                 if (href.startsWith("javascript:")) continue;
                 String abs = resolve(base, href.trim());
@@ -334,47 +453,29 @@ public class NewsService {
     }
 
     private static String stripTags(String s) {
-        return s == null ? "" : s.replaceAll("(?is)<[^>]+>", " ").replaceAll("\\s+", " ").trim();
+        if (s == null) return "";
+        return WHITESPACE.matcher(HTML_TAG.matcher(s).replaceAll(" ")).replaceAll(" ").trim();
     }
 
-    private static String metaContent(String html, String regex) {
-        Pattern p = Pattern.compile(regex);
-        Matcher m = p.matcher(html);
+    private static String metaContent(String html, Pattern meta) {
+        Matcher m = meta.matcher(html);
         return m.find() ? m.group(1) : null;
     }
 
-    private static String attrValue(String attrs, String name) {
-        Pattern p = Pattern.compile("(?i)\\b" + Pattern.quote(name) + "\\s*=\\s*['\"]([^'\"]+)['\"]");
-        Matcher m = p.matcher(attrs);
+    private static String hrefOf(String attrs) {
+        Matcher m = HREF_ATTR.matcher(attrs);
         return m.find() ? m.group(1) : null;
     }
 
-    private static String text(org.w3c.dom.Element p, String tag) {
-        org.w3c.dom.NodeList nl = p.getElementsByTagName(tag);
-        if (nl.getLength() == 0) return "";
-        org.w3c.dom.Node n = nl.item(0);
-        return (n == null) ? "" : n.getTextContent();
-    }
-
-    private static String attrOf(org.w3c.dom.Element parent, String tag, String attr) {
-        org.w3c.dom.NodeList nl = parent.getElementsByTagName(tag);
-        if (nl.getLength() == 0) return "";
-        org.w3c.dom.Element el = (org.w3c.dom.Element) nl.item(0);
-        String v = el.getAttribute(attr);
-        return v == null ? "" : v;
-    }
-
     private static String nvl(String s) {
         return (s == null) ? "" : s;
     }
 
-    private static String extractTagText(String html, String tag) {
-        if (html == null || tag == null || tag.trim().isEmpty()) return "";
-        String regex = "(?is)<" + Pattern.quote(tag) + "\\b[^>]*>(.*?)</" + Pattern.quote(tag) + "\\s*>";
-        Matcher m = Pattern.compile(regex).matcher(html);
+    private static String extractTagText(String html, Pattern tag) {
+        if (html == null) return "";
+        Matcher m = tag.matcher(html);
         if (m.find()) {
-            String inner = m.group(1);
-            String text = stripTags(inner).replaceAll("\\s+", " ").trim();
+            String text = stripTags(m.group(1)); // already whitespace-collapsed
             return htmlDecode(text);
         }
         return "";
@@ -421,6 +522,8 @@ public class NewsService {
     // ---------- Lifecycle / Preflight ----------
     @PostConstruct
     public void init() {
+        feedFetcher = new FeedFetcher(newsProcessingPool, Duration.ofMillis(connectTimeoutMs), fetchPerHost);
+        if (annEnabled && mongoTemplate != null) newsProcessingPool.execute(this::loadAnnIndex);
         try {
             preflightValidateFeeds(); // warm health map at startup
         } catch (Exception t) {
@@ -465,15 +568,13 @@ public class NewsService {
 
             Map<String, Headline> byKey = new LinkedHashMap<>();
             int errorCount = 0;
-            int skippedUnhealthy = 0;
+            Map<String, FeedOutcome> fetched = fetchAll(urls);
+            int skippedUnhealthy = urls.size() - fetched.size();
 
-            for (String u : urls) {
-                if (isRecentlyUnhealthy(u)) {
-                    skippedUnhealthy++;
-                    continue;
-                }
+            for (Map.Entry<String, FeedOutcome> fo : fetched.entrySet()) {
+                String u = fo.getKey();
                 try {
-                    List<NewsItem> items = fetchAnyWithRetry(u, maxItemsPerFeed);
+                    List<NewsItem> items = fo.getValue().get();
                     for (NewsItem it : items) {
                         Headline h = it.toHeadline();
                         String key = dedupeKey(h);
@@ -521,15 +622,14 @@ public class NewsService {
             List<String> urls = (feedUrls == null) ? Collections.emptyList() : trim(feedUrls);
             if (urls.isEmpty()) return Result.fail("NEWS_DISABLED_OR_NO_FEEDS");
 
-            int bull = 0, bear = 0, total = 0, successfulFeeds = 0, skippedUnhealthy = 0;
+            int bull = 0, bear = 0, total = 0, successfulFeeds = 0;
+            Map<String, FeedOutcome> fetched = fetchAll(urls);
+            int skippedUnhealthy = urls.size() - fetched.size();
 
-            for (String u : urls) {
-                if (isRecentlyUnhealthy(u)) {
-                    skippedUnhealthy++;
-                    continue;
-                }
+            for (Map.Entry<String, FeedOutcome> fo : fetched.entrySet()) {
+                String u = fo.getKey();
                 try {
-                    List<NewsItem> items = fetchAnyWithRetry(u, maxItemsPerFeed);
+                    List<NewsItem> items = fo.getValue().get();
                     if (!items.isEmpty()) {
                         successfulFeeds++;
 
@@ -545,8 +645,9 @@ public class NewsService {
 
                         // ==== existing business logic (unchanged) ====
                         for (NewsItem it : items) {
-                            bull += hits(it, bullish);
-                            bear += hits(it, bearish);
+                            int[] h = score(it);
+                            bull += h[G_BULLISH];
+                            bear += h[G_BEARISH];
                         }
                         total += items.size();
                     }
@@ -649,74 +750,149 @@ public class NewsService {
     // ===================== Step-11 helpers (ADD-ONLY) =====================
 
     // ---- Fetch with caching + special handlers ----
-    private List<NewsItem> fetchAnyWithRetry(String url, int maxItems) throws Exception {
-        String cacheKey = url.toLowerCase(Locale.ROOT);
-        CachedResult cached = resultCache.get(cacheKey);
-        if (cached != null && !cached.isExpired(cacheTtlMinutes)) {
-            log.debug("Cache hit for {}", url);
-            return cached.items;
+
+    /**
+     * Fetches every healthy feed concurrently and waits at most fetchDeadlineMs for all of them.
+     * Outcomes come back in configuration order; feeds skipped as unhealthy are absent and feeds
+     * still running at the deadline are cancelled (aborting their HTTP exchange) and reported as
+     * timed out.
+     */
+    private Map<String, FeedOutcome> fetchAll(List<String> urls) {
+        final Map<String, CompletableFuture<List<NewsItem>>> pending = new LinkedHashMap<>();
+        for (String u : urls) {
+            if (!isRecentlyUnhealthy(u)) pending.put(u, fetchAnyWithRetry(u, maxItemsPerFeed));
         }
-        String lowercaseUrl = url.toLowerCase(Locale.ROOT);
         try {
-            List<NewsItem> items;
-            if (lowercaseUrl.contains("sebi.gov.in")) {
-                items = fetchSebiNews(url, maxItems);
-            } else if (lowercaseUrl.contains("moneycontrol.com")) {
-                items = fetchMoneycontrolNews(url, maxItems);
-            } else if (lowercaseUrl.contains("yahoo.com")) {
-                items = fetchYahooFinanceNews(url, maxItems);
-            } else {
-                items = fetchAny(url, maxItems);
+            CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0]))
+                    .get(fetchDeadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("News fetch deadline of {} ms reached", fetchDeadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // per-feed failures are read below
+        }
+
+        Map<String, FeedOutcome> out = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<List<NewsItem>>> e : pending.entrySet()) {
+            CompletableFuture<List<NewsItem>> f = e.getValue();
+            if (!f.isDone()) {
+                f.cancel(true);
+                out.put(e.getKey(), new FeedOutcome(null, new TimeoutException("deadline " + fetchDeadlineMs + " ms")));
+                continue;
             }
-            resultCache.put(cacheKey, new CachedResult(items));
-            return items;
-        } catch (Exception e) {
-            log.error("Initial fetch failed for {}, trying alternate UA", url, e);
-            String altUserAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/119.0.0.0 Safari/537.36 Edg/119.0.0.0";
-            String altReferer = "https://www.google.com/search?q=market+news";
-            String body = httpGet(url, connectTimeoutMs, readTimeoutMs, altUserAgent, altReferer, true);
-            List<NewsItem> items;
-            if (looksLikeXml(body)) {
-                items = parseRssOrAtom(body, url, maxItems);
-            } else if (allowHtmlScrape) {
-                items = parseHtmlBasic(url, body, maxItems);
-            } else {
-                items = Collections.emptyList();
+            try {
+                out.put(e.getKey(), new FeedOutcome(f.join(), null));
+            } catch (CompletionException | CancellationException ex) {
+                Throwable c = ex.getCause() != null ? ex.getCause() : ex;
+                out.put(e.getKey(), new FeedOutcome(null, c instanceof Exception ? (Exception) c : new ExecutionException(c)));
             }
-            resultCache.put(cacheKey, new CachedResult(items));
-            return items;
         }
+        return out;
     }
 
-    private List<NewsItem> fetchAny(String url, int maxItems) throws Exception {
-        String body;
-        try {
-            body = httpGet(url, connectTimeoutMs, readTimeoutMs, userAgent, null, true);
-        } catch (Exception e) {
-            String altUa = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0 Safari/537.36";
-            String referer = "https://www.google.com/";
-            body = httpGet(url, connectTimeoutMs, readTimeoutMs, altUa, referer, true);
-        }
-        if (looksLikeXml(body)) return parseRssOrAtom(body, url, maxItems);
-        if (allowHtmlScrape) return parseHtmlBasic(url, body, maxItems);
-        log.debug("Fallback fetch returned non-XML and HTML scraping disabled: {}", url);
+    private CompletableFuture<List<NewsItem>> fetchAnyWithRetry(String url, int maxItems) {
+        final String cacheKey = url.toLowerCase(Locale.ROOT);
+        CachedResult cached = resultCache.get(cacheKey);
+        if (cached != null && !cached.isExpired(cacheTtlMinutes)) {
+            log.debug("Cache hit for {}", url);
+            return CompletableFuture.completedFuture(cached.items);
+        }
+
+        final String ua, referer;
+        final int timeoutMs;
+        final FeedParser parser;
+        if (cacheKey.contains("sebi.gov.in")) {
+            ua = userAgent;
+            referer = null;
+            timeoutMs = readTimeoutMs;
+            parser = (u, in, max) -> parseSebiNews(u, readBody(in), max);
+        } else if (cacheKey.contains("moneycontrol.com")) {
+            ua = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+            referer = "https://www.google.com/";
+            timeoutMs = readTimeoutMs * 2;
+            parser = (u, in, max) -> parseMoneycontrolNews(u, readBody(in), max);
+        } else if (cacheKey.contains("yahoo.com")) {
+            ua = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36";
+            referer = "https://www.google.com/";
+            timeoutMs = readTimeoutMs;
+            parser = (u, in, max) -> parseYahooFinanceNews(u, readBody(in), max);
+        } else {
+            ua = userAgent;
+            referer = null;
+            timeoutMs = readTimeoutMs;
+            parser = this::parseAny;
+        }
+
+        // The GET currently in flight, so cancelling the composed result can abort it
+        final AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>();
+        final CompletableFuture<List<NewsItem>> out = fetchParsed(url, cacheKey, maxItems, ua, referer, timeoutMs, parser, inFlight)
+                .exceptionallyCompose(e -> {
+                    if (inFlight.get() == CANCELLED_FETCH) return CompletableFuture.failedFuture(e);
+                    log.warn("Initial fetch failed for {}, trying alternate UA: {}", url, e.toString());
+                    String altUserAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/119.0.0.0 Safari/537.36 Edg/119.0.0.0";
+                    String altReferer = "https://www.google.com/search?q=market+news";
+                    return fetchParsed(url, cacheKey, maxItems, altUserAgent, altReferer, readTimeoutMs, this::parseAny, inFlight);
+                });
+        out.whenComplete((v, e) -> {
+            if (!out.isCancelled()) return;
+            CompletableFuture<?> f = inFlight.getAndSet(CANCELLED_FETCH);
+            if (f != null) f.cancel(true);
+        });
+        return out;
+    }
+
+    /**
+     * One conditional GET + parse (on the news pool), reading the body as a stream. A 304 reuses
+     * the items parsed last time.
+     */
+    private CompletableFuture<List<NewsItem>> fetchParsed(String url, String cacheKey, int maxItems,
+                                                          String ua, String referer, int timeoutMs, FeedParser parser,
+                                                          AtomicReference<CompletableFuture<?>> inFlight) {
+        final CompletableFuture<FeedFetcher.Response> get = feedFetcher.get(url, ua, referer, Duration.ofMillis(timeoutMs));
+        if (inFlight.getAndSet(get) == CANCELLED_FETCH) {
+            inFlight.set(CANCELLED_FETCH);
+            get.cancel(true); // the caller gave up before this attempt started
+        }
+        return get
+                .thenApplyAsync(r -> {
+                    if (r.notModified()) {
+                        CachedResult prev = resultCache.get(cacheKey);
+                        if (prev != null) {
+                            log.debug("Not modified: {}", url);
+                            resultCache.put(cacheKey, new CachedResult(prev.items));
+                            return prev.items;
+                        }
+                        feedFetcher.forget(url); // nothing to reuse: next GET is unconditional
+                        throw new CompletionException(new IllegalStateException("HTTP 304 without cached items"));
+                    }
+                    try (InputStream in = new BufferedInputStream(r.body(), 8192)) {
+                        List<NewsItem> items = parser.parse(url, in, maxItems);
+                        resultCache.put(cacheKey, new CachedResult(items));
+                        return items;
+                    } catch (Exception e) {
+                        feedFetcher.forget(url);
+                        throw new CompletionException(e);
+                    }
+                }, newsProcessingPool);
+    }
+
+    private List<NewsItem> parseAny(String url, InputStream in, int maxItems) throws Exception {
+        in.mark(SNIFF_BYTES);
+        String head = new String(readUpTo(in, SNIFF_BYTES), StandardCharsets.UTF_8);
+        in.reset();
+        if (looksLikeXml(head)) return parseRssOrAtom(in, url, maxItems);
+        if (allowHtmlScrape) return parseHtmlBasic(url, readBody(in), maxItems);
+        log.debug("Fetch returned non-XML and HTML scraping disabled: {}", url);
         return Collections.emptyList();
     }
 
     // ---- Special handlers ----
-    private List<NewsItem> fetchSebiNews(String url, int maxItems) throws Exception {
-        String body = httpGet(url, connectTimeoutMs, readTimeoutMs, userAgent, null, true);
+    private static List<NewsItem> parseSebiNews(String url, String body, int maxItems) {
         List<NewsItem> items = new ArrayList<>();
         String source = "SEBI";
 
-        Pattern newsPattern = Pattern.compile(
-                "(?is)<div[^>]*class=['\"]news-list['\"][^>]*>\\s*"
-                        + "<div[^>]*class=['\"]date['\"][^>]*>(.*?)</div>\\s*"
-                        + "<div[^>]*class=['\"]title['\"][^>]*>(.*?)</div>\\s*"
-                        + "<div[^>]*class=['\"]desc['\"][^>]*>(.*?)</div>\\s*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
-        Matcher matcher = newsPattern.matcher(body);
+        Matcher matcher = SEBI_NEWS.matcher(body);
         int count = 0;
         while (matcher.find() && count < maxItems) {
             try {
@@ -724,8 +900,7 @@ public class NewsService {
                 String title = stripTags(matcher.group(2)).trim();
 
                 String pdfLink = null;
-                Matcher linkMatcher = Pattern.compile("href=['\"]([^'\"]+\\.pdf)['\"]", Pattern.CASE_INSENSITIVE)
-                        .matcher(matcher.group(2));
+                Matcher linkMatcher = SEBI_PDF_LINK.matcher(matcher.group(2));
                 if (linkMatcher.find()) {
                     pdfLink = linkMatcher.group(1);
                     if (pdfLink.startsWith("/")) pdfLink = "https://www.sebi.gov.in" + pdfLink;
@@ -742,20 +917,11 @@ public class NewsService {
         return items;
     }
 
-    private List<NewsItem> fetchMoneycontrolNews(String url, int maxItems) throws Exception {
-        String body = httpGet(url, connectTimeoutMs * 2, readTimeoutMs * 2,
-                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36",
-                "https://www.google.com/", true);
-
+    private static List<NewsItem> parseMoneycontrolNews(String url, String body, int maxItems) {
         List<NewsItem> items = new ArrayList<>();
         String source = "Moneycontrol";
 
-        Pattern cardPattern = Pattern.compile(
-                "(?is)<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>\\s*"
-                        + "(?:<h3[^>]*>(.*?)</h3>|.*?class=['\"][^'\"]*headline[^'\"]*['\"][^>]*>(.*?))",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
-        Matcher cardMatcher = cardPattern.matcher(body);
+        Matcher cardMatcher = MONEYCONTROL_CARD.matcher(body);
         int count = 0;
         while (cardMatcher.find() && count < maxItems) {
             try {
@@ -780,20 +946,11 @@ public class NewsService {
         return items;
     }
 
-    private List<NewsItem> fetchYahooFinanceNews(String url, int maxItems) throws Exception {
-        String body = httpGet(url, connectTimeoutMs, readTimeoutMs,
-                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36",
-                "https://www.google.com/", true);
-
+    private static List<NewsItem> parseYahooFinanceNews(String url, String body, int maxItems) {
         List<NewsItem> items = new ArrayList<>();
         String source = "Yahoo Finance";
 
-        Pattern newsPattern = Pattern.compile(
-                "(?is)<li[^>]*class=['\"][^'\"]*Ov\\([^'\"]*\\)[^'\"]*['\"][^>]*>\\s*"
-                        + ".*?<a[^>]*href=['\"]([^'\"]+)['\"][^>]*>(.*?)</a>",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
-        Matcher newsMatcher = newsPattern.matcher(body);
+        Matcher newsMatcher = YAHOO_NEWS.matcher(body);
         int count = 0;
         while (newsMatcher.find() && count < maxItems) {
             try {
@@ -859,92 +1016,55 @@ public class NewsService {
         return h;
     }
 
-    private String httpGet(String u, int ct, int rt, String ua, String referer, boolean handleGzip) throws Exception {
-        HttpURLConnection c = (HttpURLConnection) new URL(u).openConnection();
-        c.setRequestMethod("GET");
-        c.setInstanceFollowRedirects(true);
-        c.setConnectTimeout(ct);
-        c.setReadTimeout(rt);
-        c.setRequestProperty("User-Agent", ua == null ? "TradeFrankensteinBot/1.0" : ua);
-        c.setRequestProperty("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
-        c.setRequestProperty("Accept-Language", "en-IN,en;q=0.9");
-        c.setRequestProperty("Cache-Control", "max-age=0");
-        if (handleGzip) c.setRequestProperty("Accept-Encoding", "gzip, deflate");
-        if (referer != null) c.setRequestProperty("Referer", referer);
-
-        int code = c.getResponseCode();
-        if (code != HttpURLConnection.HTTP_OK) {
-            InputStream es = c.getErrorStream();
-            if (es != null) {
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(es, StandardCharsets.UTF_8))) {
-                    for (int i = 0; i < 10; i++) {
-                        if (br.readLine() == null) break;
-                    }
-                } catch (Exception ignored) {
-                }
-            }
-            throw new IllegalStateException("HTTP " + code);
-        }
-
-        InputStream is = c.getInputStream();
-        if (handleGzip && "gzip".equalsIgnoreCase(c.getContentEncoding())) {
-            is = new GZIPInputStream(is);
-        }
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) sb.append(line).append('\n');
-            return sb.toString();
-        }
-    }
-
     public void clearCache() {
         resultCache.clear();
     }
 
+    /**
+     * News events in the last minutes (whole minutes, up to 3 hours); O(1).
+     */
     public Optional<Integer> getRecentBurstCount(int minutes) {
-        try {
-            final int winMin = minutes > 0 ? minutes : Math.max(1, defaultBurstWindowMin);
-            final Instant now = Instant.now();
-            final Duration window = Duration.ofMinutes(winMin);
-
-            // Purge old entries beyond a reasonable cap (>= window, up to 3 hours)
-            final Duration purgeHorizon = window.compareTo(Duration.ofHours(3)) > 0 ? window : Duration.ofHours(3);
-            while (true) {
-                NewsEvent head = newsEvents.peekFirst();
-                if (head == null) break;
-                if (Duration.between(head.ts, now).compareTo(purgeHorizon) > 0) {
-                    newsEvents.pollFirst();
-                } else {
-                    break;
-                }
-            }
+        return getRecentBurstCount(null, minutes);
+    }
 
-            // Count events within the requested window (iterate newest→oldest; early break when older)
-            int count = 0;
-            for (Iterator<NewsEvent> it = newsEvents.descendingIterator(); it.hasNext(); ) {
-                NewsEvent e = it.next();
-                if (Duration.between(e.ts, now).compareTo(window) <= 0) {
-                    count++;
-                } else {
-                    // older than window; since list is time-ordered, we can stop
-                    break;
-                }
-            }
-            return Optional.of(count);
+    /**
+     * News events recorded for symbol (null = all) in the last minutes; O(1).
+     */
+    public Optional<Integer> getRecentBurstCount(String symbol, int minutes) {
+        try {
+            return Optional.of((int) newsWindow.stats(windowKey(symbol), burstWindow(minutes)).count());
         } catch (Exception t) {
             return Optional.of(0);
         }
     }
 
+    /**
+     * News events per minute for symbol (null = all) over the last minutes.
+     */
+    public Optional<Double> getRecentBurstRate(String symbol, int minutes) {
+        try {
+            return Optional.of(newsWindow.stats(windowKey(symbol), burstWindow(minutes)).perMinute());
+        } catch (Exception t) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Call this from your NewsIngestJob when a news item is ingested.
      */
     public void recordNewsEvent(String source, String symbol, String category, Instant publishedAt) {
         Instant ts = publishedAt != null ? publishedAt : Instant.now();
-        newsEvents.addLast(new NewsEvent(ts, source, symbol, category));
-        // ring-buffer trim
-        while (newsEvents.size() > MAX_BUFFER_EVENTS) newsEvents.pollFirst();
+        newsWindow.add(ts.toEpochMilli(), Double.NaN, new NewsEvent(ts, source, symbol, category),
+                windowKey(symbol), category != null ? "c:" + category.trim().toLowerCase(Locale.ROOT) : null);
+    }
+
+    private int burstWindow(int minutes) {
+        return minutes > 0 ? minutes : Math.max(1, defaultBurstWindowMin);
+    }
+
+    // Series key of a symbol in the news window; null = all events
+    private static String windowKey(String symbol) {
+        return symbol == null ? TimeBucketIndex.ALL : "s:" + symbol.trim().toLowerCase(Locale.ROOT);
     }
 
     // =====================================================================
@@ -976,7 +1096,9 @@ public class NewsService {
                 }
             }
 
-            // Optional ANN dedupe (we don't skip counting; this is only for storage/labels)
+            // Optional ANN dedupe (we don't skip counting; this is only for storage/labels).
+            // One lookup serves both the dedupe label and the topic cluster.
+            String topic = null;
             if (embedding != null) {
                 double sim = nearestSimilarity(embedding);
                 if (sim >= DEDUPE_SIMILARITY_THRESHOLD) {
@@ -985,12 +1107,7 @@ public class NewsService {
                             String.format(java.util.Locale.US, "%.3f", sim));
                     // still persist for history? choose to persist with topic
                 }
-            }
-
-            String topic = null;
-            if (embedding != null) {
-                double sim2 = nearestSimilarity(embedding);
-                topic = (sim2 >= CLUSTER_SIMILARITY_THRESHOLD)
+                topic = (sim >= CLUSTER_SIMILARITY_THRESHOLD)
                         ? "topic-" + java.time.LocalDate.now()
                         : "topic-" + java.time.LocalDate.now() + "-new";
             }
@@ -1042,7 +1159,14 @@ public class NewsService {
     private double nearestSimilarity(double[] embedding) {
         if (embedding == null || embedding.length != EMBEDDING_DIM) return -2.0d;
 
-        // Preferred: MongoDB Atlas Vector Search
+        // Preferred: in-process HNSW index, once it has caught up with the collection
+        HnswIndex ann = annReady ? annIndex : null;
+        if (ann != null) {
+            HnswIndex.Hit hit = ann.nearest(toFloats(embedding));
+            return hit != null ? hit.similarity() : -2.0d;
+        }
+
+        // Then: MongoDB Atlas Vector Search
         try {
             org.bson.Document vectorSearch = new org.bson.Document("$vectorSearch", new org.bson.Document()
                     .append("index", VECTOR_INDEX_NAME)
@@ -1110,11 +1234,101 @@ public class NewsService {
             if (topic != null) doc.put(F_TOPIC, topic);
             if (contentHash != null) doc.put(F_HASH, contentHash);
             mongoTemplate.insert(doc, newsCollection);
+            if (embedding != null) indexEmbedding(doc, toFloats(embedding));
         } catch (Throwable t) {
             // best-effort
         }
     }
 
+    // ---- ANN index lifecycle ----
+
+    /**
+     * Loads the snapshot (if any) and catches up from the collection; full rebuild without one.
+     */
+    private void loadAnnIndex() {
+        long t0 = System.currentTimeMillis();
+        HnswIndex idx = null;
+        try {
+            idx = HnswIndex.load(Paths.get(annSnapshot), EMBEDDING_DIM, annM, annEfConstruction, annEfSearch,
+                    annMaxItems, annQuantize);
+        } catch (Exception e) {
+            log.warn("NEWS_ANN snapshot unreadable, rebuilding: {}", e.toString());
+        }
+        boolean fromSnapshot = idx != null;
+        if (idx == null) {
+            idx = new HnswIndex(EMBEDDING_DIM, annM, annEfConstruction, annEfSearch, annMaxItems, annQuantize);
+        }
+        annSavedModCount = fromSnapshot ? idx.modCount() : -1;
+        annIndex = idx; // saveArticle feeds it from here on
+        try {
+            Criteria c = Criteria.where(F_EMBEDDING).exists(true);
+            long since = idx.watermark();
+            if (since != Long.MIN_VALUE) c = c.and(F_PUBLISHED_AT).gt(since - ANN_CATCHUP_OVERLAP_MS);
+            Query q = new Query(c).with(Sort.by(Sort.Direction.DESC, F_PUBLISHED_AT)).limit(annMaxItems);
+            q.fields().include(F_EMBEDDING).include(F_HASH).include(F_PUBLISHED_AT);
+            List<Document> docs = mongoTemplate.find(q, Document.class, newsCollection);
+            int added = 0;
+            for (int i = docs.size() - 1; i >= 0; i--) { // oldest first, so capacity keeps the newest
+                Document d = docs.get(i);
+                float[] v = toFloats(d.get(F_EMBEDDING));
+                if (v != null && indexEmbedding(d, v)) added++;
+            }
+            annReady = true;
+            log.info("NEWS_ANN ready: size={}, snapshot={}, caughtUp={}, {}ms",
+                    idx.size(), fromSnapshot, added, System.currentTimeMillis() - t0);
+        } catch (Throwable t) {
+            log.warn("NEWS_ANN rebuild failed, using Mongo lookups: {}", t.toString());
+        }
+    }
+
+    private boolean indexEmbedding(Document doc, float[] vector) {
+        HnswIndex idx = annIndex;
+        if (idx == null) return false;
+        Object hash = doc.get(F_HASH);
+        Object id = doc.get(F_ID);
+        String key = hash != null ? hash.toString() : (id != null ? id.toString() : null);
+        Object ts = doc.get(F_PUBLISHED_AT);
+        long stamp = ts instanceof Number ? ((Number) ts).longValue()
+                : ts instanceof Date ? ((Date) ts).getTime() : System.currentTimeMillis();
+        return idx.add(key, vector, stamp);
+    }
+
+    @Scheduled(fixedDelayString = "${tf.news.ann.snapshot-ms:600000}")
+    public void snapshotAnnIndex() {
+        HnswIndex idx = annIndex;
+        if (idx == null || !annReady) return;
+        long mod = idx.modCount();
+        if (mod == annSavedModCount) return;
+        try {
+            idx.save(Paths.get(annSnapshot));
+            annSavedModCount = mod;
+            log.debug("NEWS_ANN snapshot saved: size={}", idx.size());
+        } catch (Exception e) {
+            log.warn("NEWS_ANN snapshot failed: {}", e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotAnnIndex();
+    }
+
+    private static float[] toFloats(double[] v) {
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = (float) v[i];
+        return out;
+    }
+
+    private static float[] toFloats(Object stored) {
+        if (!(stored instanceof List<?> arr) || arr.size() != EMBEDDING_DIM) return null;
+        float[] out = new float[EMBEDDING_DIM];
+        for (int i = 0; i < EMBEDDING_DIM; i++) {
+            Object v = arr.get(i);
+            out[i] = (v instanceof Number) ? ((Number) v).floatValue() : 0f;
+        }
+        return out;
+    }
+
     /**
      * Generate trading signals from recent news for the provided symbols.
      */
@@ -1133,10 +1347,12 @@ public class NewsService {
             List<TradingSignal> signals = Collections.synchronizedList(new ArrayList<>());
             Instant cutoff = Instant.now().minus(Duration.ofMinutes(30));
 
+            Map<String, List<NewsItem>> newsBySymbol = getSymbolRecentNews(symbols, cutoff);
+
             List<Callable<Void>> tasks = new ArrayList<>();
             for (String symbol : symbols) {
                 tasks.add(() -> {
-                    List<NewsItem> recentNews = getSymbolRecentNews(symbol, cutoff);
+                    List<NewsItem> recentNews = newsBySymbol.getOrDefault(symbol, List.of());
                     if (recentNews.isEmpty()) return null;
 
                     SentimentAnalysis sentiment = calculateSymbolSentiment(symbol, recentNews);
@@ -1210,8 +1426,9 @@ public class NewsService {
         int bullishCount = 0, bearishCount = 0;
 
         for (NewsItem item : news) {
-            int bullHits = hits(item, bullish);
-            int bearHits = hits(item, bearish);
+            int[] h = score(item);
+            int bullHits = h[G_BULLISH];
+            int bearHits = h[G_BEARISH];
             if (bullHits + bearHits == 0) continue;
 
             double itemScore = (bullHits - bearHits) / (double) (bullHits + bearHits);
@@ -1219,7 +1436,7 @@ public class NewsService {
             double symbolWeight = symbolSentimentWeights.getOrDefault(symbol, 1.0);
             double sourceWeight = sourceAccuracyRatings.getOrDefault(item.source, 1.0);
             double timeWeight = calculateTimeDecay(item.publishedAt);
-            double categoryWeight = getCategoryWeight(item, symbol);
+            double categoryWeight = getCategoryWeight(item, h, symbol);
 
             double finalWeight = symbolWeight * sourceWeight * timeWeight * categoryWeight;
             totalScore += itemScore * finalWeight;
@@ -1248,17 +1465,34 @@ public class NewsService {
         return 0.1;
     }
 
-    private double getCategoryWeight(NewsItem item, String symbol) {
+    private double getCategoryWeight(NewsItem item, int[] hits, String symbol) {
         // Lightweight placeholder: can be extended with NLP/topic detection
-        String text = (nvl(item.title) + " " + nvl(item.description)).toLowerCase(Locale.ROOT);
         double w = 1.0;
-        if (text.contains("earnings") || text.contains("results")) w *= 1.3;
-        if (text.contains("merger") || text.contains("acquisition")) w *= 1.25;
-        if (text.contains("regulator") || text.contains("policy")) w *= 1.2;
-        if (symbol != null && text.contains(symbol.toLowerCase(Locale.ROOT))) w *= 1.15;
+        if (hits[G_EARNINGS] > 0) w *= 1.3;
+        if (hits[G_DEAL] > 0) w *= 1.25;
+        if (hits[G_POLICY] > 0) w *= 1.2;
+        if (symbol != null && (containsIgnoreCase(item.title, symbol) || containsIgnoreCase(item.description, symbol))) {
+            w *= 1.15;
+        }
         return w;
     }
 
+    /**
+     * Bullish/bearish/category hits of title + description, one pass.
+     */
+    private int[] score(NewsItem item) {
+        return sentimentKeywords.count(item.title, item.description);
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        if (text == null || part == null) return false;
+        if (part.isEmpty()) return true;
+        for (int i = 0, last = text.length() - part.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) return true;
+        }
+        return false;
+    }
+
     private double calculateSentimentConfidence(int newsCount, double totalWeight) {
         double base = Math.min(1.0, newsCount / 10.0);
         double weightFactor = Math.min(1.0, totalWeight / Math.max(1.0, newsCount));
@@ -1339,8 +1573,9 @@ public class NewsService {
     private double calculateConflictingNewsRisk(List<NewsItem> news) {
         int pos = 0, neg = 0;
         for (NewsItem n : news) {
-            int bullHits = hits(n, bullish);
-            int bearHits = hits(n, bearish);
+            int[] h = score(n);
+            int bullHits = h[G_BULLISH];
+            int bearHits = h[G_BEARISH];
             if (bullHits > bearHits) pos++;
             else if (bearHits > bullHits) neg++;
         }
@@ -1380,9 +1615,6 @@ public class NewsService {
 
             updateSourceAccuracyRatings(signal.getSourceNewsSources(), accurate);
 
-            priceImpactHistory.addLast(new PriceImpactEvent(Instant.now(), signal.getSymbol(), actualPriceChange));
-            while (priceImpactHistory.size() > 5000) priceImpactHistory.pollFirst();
-
             log.info("SIGNAL_OUTCOME: symbol={}, predicted={}, actual={}, accurate={}, confidence={}",
                     signal.getSymbol(), signal.getDirection(), actualPriceChange, accurate, signal.getConfidence());
         } catch (Exception e) {
@@ -1498,11 +1730,7 @@ public class NewsService {
         Instant cutoff = Instant.now().minus(Duration.ofHours(24));
         activeSignals.forEach((symbol, signals) ->
                 signals.removeIf(signal -> signal.getTimestamp().isBefore(cutoff)));
-
-        while (!priceImpactHistory.isEmpty()
-                && priceImpactHistory.peekFirst().timestamp().isBefore(cutoff)) {
-            priceImpactHistory.pollFirst();
-        }
+        // news / price impact windows expire by themselves
     }
 
     private void broadcastTradingSignals(List<TradingSignal> signals) {
@@ -1517,22 +1745,44 @@ public class NewsService {
         }
     }
 
-    private List<NewsItem> getSymbolRecentNews(String symbol, Instant since) {
-        List<NewsItem> list = new ArrayList<>();
-        for (NewsEvent e : newsEvents) {
-            if (e.ts.isAfter(since)) {
-                boolean match = (symbol != null && symbol.equalsIgnoreCase(e.symbol))
-                        || (e.category != null && e.category.toLowerCase(Locale.ROOT).contains(symbol.toLowerCase(Locale.ROOT)));
-                if (match) {
-                    list.add(new NewsItem(
+    /**
+     * Recent news per symbol in one pass over the events after since (only their minute buckets
+     * are read). An event belongs to a symbol when it was recorded for it or its category mentions
+     * it; the mentions are found by a single automaton scan over all symbols.
+     */
+    private Map<String, List<NewsItem>> getSymbolRecentNews(List<String> symbols, Instant since) {
+        SymbolTagger tagger = symbolTagger;
+        if (tagger == null || !tagger.symbols().equals(symbols)) {
+            tagger = SymbolTagger.of(symbols);
+            symbolTagger = tagger;
+        }
+        List<List<NewsItem>> lists = new ArrayList<>(symbols.size());
+        for (int i = 0; i < symbols.size(); i++) lists.add(new ArrayList<>());
+
+        for (NewsEvent e : newsWindow.since(since.toEpochMilli())) {
+            if (!e.ts.isAfter(since)) continue;
+            int[] mentions = e.category != null ? tagger.automaton().count(e.category) : null;
+            Integer own = e.symbol != null ? tagger.index().get(e.symbol.toLowerCase(Locale.ROOT)) : null;
+            NewsItem item = null;
+            for (int i = 0; i < lists.size(); i++) {
+                boolean match = (own != null && own == i) || (mentions != null && mentions[i] > 0);
+                if (!match) continue;
+                if (item == null) {
+                    item = new NewsItem(
                             e.category != null ? e.category : "",
                             "",
                             "", e.ts, e.source != null ? e.source : ""
-                    ));
+                    );
                 }
+                lists.get(i).add(item);
             }
         }
-        return list;
+
+        Map<String, List<NewsItem>> out = new HashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            if (symbols.get(i) != null) out.putIfAbsent(symbols.get(i), lists.get(i));
+        }
+        return out;
     }
 
     @Getter
@@ -1555,6 +1805,21 @@ public class NewsService {
     }
 
     // ---------- Models ----------
+    @FunctionalInterface
+    private interface FeedParser {
+        List<NewsItem> parse(String url, InputStream body, int maxItems) throws Exception;
+    }
+
+    /**
+     * Result of one feed in a fetch round: items, or the error that replaced them.
+     */
+    private record FeedOutcome(List<NewsItem> items, Exception error) {
+        List<NewsItem> get() throws Exception {
+            if (error != null) throw error;
+            return items;
+        }
+    }
+
     private static final class CachedResult {
         final List<NewsItem> items;
         final long timestamp;
@@ -1585,12 +1850,12 @@ public class NewsService {
 
     // ---------- NEW Inner classes & enums for auto-trading ----------
 
-    private record NewsItem(String title, String description, String link, Instant publishedAt, String source) {
+    record NewsItem(String title, String description, String link, Instant publishedAt, String source) {
         private NewsItem(String title, String description) {
             this(title, description, "", null, "");
         }
 
-        private NewsItem(String title, String description, String link, Instant publishedAt, String source) {
+        NewsItem(String title, String description, String link, Instant publishedAt, String source) {
             this.title = (title == null) ? "" : title;
             this.description = (description == null) ? "" : description;
             this.link = (link == null) ? "" : link;
@@ -1619,6 +1884,22 @@ public class NewsService {
         private Instant publishedAt;
     }
 
+    /**
+     * Symbol list with its mention automaton (group i = symbols[i]) and lower-cased index.
+     */
+    private record SymbolTagger(List<String> symbols, KeywordAutomaton automaton, Map<String, Integer> index) {
+        static SymbolTagger of(List<String> symbols) {
+            KeywordAutomaton.Builder b = KeywordAutomaton.builder();
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < symbols.size(); i++) {
+                String s = symbols.get(i);
+                b.add(i, s == null ? List.of() : List.of(s));
+                if (s != null) index.putIfAbsent(s.toLowerCase(Locale.ROOT), i);
+            }
+            return new SymbolTagger(List.copyOf(symbols), b.build(), index);
+        }
+    }
+
     private record NewsEvent(Instant ts, String source, String symbol, String category) {
     }
 
@@ -1709,9 +1990,6 @@ public class NewsService {
         private double profitabilityScore;
     }
 
-    private record PriceImpactEvent(Instant timestamp, String symbol, double priceChange) {
-    }
-
     @Getter
     @Setter
     public static class MarketContext {
@@ -0,0 +1,232 @@
+package com.trade.frankenstein.trader.service.news;
+
+import java.util.*;
+
+/**
+ * Rolling per-key counters over an event stream, in one-minute buckets.
+ * <p>
+ * Each event is counted under a few keys (everything, its symbol, its category) and may carry a
+ * value (sentiment, price change; NaN = none). A key keeps a ring of horizonMinutes buckets holding
+ * cumulative totals (events, valued events, value sum) up to the end of that minute, so count /
+ * mean over the last w minutes is the difference of two slots: O(1) per query. Moving the clock
+ * forward fills the skipped minutes (amortised O(1)). An event stamped m minutes in the past costs
+ * O(m) to fold into the later buckets; one older than the horizon is dropped. Windows are whole
+ * minutes, the current one included.
+ * <p>
+ * Payloads are kept per minute for the horizon (at most maxPayloads, oldest evicted first), so
+ * {@link #since} walks only the buckets after the cut-off. Every method touches a handful of
+ * slots and runs under the instance lock.
+ * <p>
+ * At most maxKeys series are kept. When a new key finds the table full, series with nothing left
+ * inside the horizon are dropped first (at most one sweep per minute).
+ */
+final class TimeBucketIndex<E> {
+
+    static final String ALL = "*";
+    private static final long MINUTE_MS = 60_000L;
+
+    /**
+     * Totals for one key over a window of minutes.
+     */
+    record Stats(long count, long valued, double valueSum, int minutes) {
+        /**
+         * Mean value of the valued events, NaN if none.
+         */
+        double mean() {
+            return valued == 0 ? Double.NaN : valueSum / valued;
+        }
+
+        double perMinute() {
+            return minutes == 0 ? 0.0 : count / (double) minutes;
+        }
+    }
+
+    private final int slots;
+    private final int maxKeys;
+    private final int maxPayloads;
+    private final Map<String, Series> series = new HashMap<>();
+    private final long[] payloadMinute;
+    private final List<List<E>> payloads;
+    private int payloadCount;
+    private long lastSweep = Long.MIN_VALUE;
+
+    TimeBucketIndex(int horizonMinutes, int maxKeys, int maxPayloads) {
+        this.slots = Math.max(2, horizonMinutes);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.maxPayloads = Math.max(0, maxPayloads);
+        this.payloadMinute = new long[maxPayloads > 0 ? slots : 0];
+        Arrays.fill(payloadMinute, Long.MIN_VALUE);
+        this.payloads = new ArrayList<>(Collections.nCopies(payloadMinute.length, null));
+    }
+
+    /**
+     * Largest window a query can cover, in minutes.
+     */
+    int horizonMinutes() {
+        return slots - 1;
+    }
+
+    /**
+     * Records one event at tsMillis under {@link #ALL} and each non-null key. New keys beyond
+     * maxKeys only count under ALL. Returns false if the event is older than the horizon.
+     */
+    synchronized boolean add(long tsMillis, double value, E payload, String... keys) {
+        final long now = minuteOf(System.currentTimeMillis());
+        final long m = Math.min(minuteOf(tsMillis), now); // clock skew: no future buckets
+        if (m <= now - slots) return false;
+
+        Series all = series(ALL, now);
+        if (all != null) all.add(m, now, value);
+        for (String k : keys) {
+            if (k == null) continue;
+            Series s = series(k, now);
+            if (s != null) s.add(m, now, value);
+        }
+        if (payload != null && maxPayloads > 0) keep(m, now, payload);
+        return true;
+    }
+
+    /**
+     * Totals under key for the last minutes (clamped to the horizon).
+     */
+    synchronized Stats stats(String key, int minutes) {
+        final int w = Math.max(1, Math.min(minutes, slots - 1));
+        Series s = series.get(key);
+        if (s == null) return new Stats(0, 0, 0.0, w);
+        return s.window(minuteOf(System.currentTimeMillis()), w);
+    }
+
+    /**
+     * Payloads stamped in or after the minute of sinceMillis, oldest minute first. The first
+     * minute may include a few events slightly before sinceMillis.
+     */
+    synchronized List<E> since(long sinceMillis) {
+        if (payloadCount == 0) return List.of();
+        final long now = minuteOf(System.currentTimeMillis());
+        List<E> out = new ArrayList<>();
+        for (long m = Math.max(minuteOf(sinceMillis), now - slots + 1); m <= now; m++) {
+            int i = slot(m);
+            if (payloadMinute[i] == m) out.addAll(payloads.get(i));
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /**
+     * The series for key, created if there is room (after sweeping idle series); null if full.
+     */
+    private Series series(String key, long now) {
+        Series s = series.get(key);
+        if (s != null) return s;
+        if (series.size() >= maxKeys && lastSweep < now) {
+            lastSweep = now;
+            // no event inside the horizon: every window of this series reads zero
+            series.values().removeIf(x -> x.lastEvent <= now - slots + 1);
+        }
+        if (series.size() >= maxKeys) return null;
+        s = new Series();
+        series.put(key, s);
+        return s;
+    }
+
+    private void keep(long m, long now, E payload) {
+        int i = slot(m);
+        if (payloadMinute[i] != m) {
+            List<E> stale = payloads.get(i);
+            if (stale != null) {
+                payloadCount -= stale.size();
+                stale.clear();
+            } else {
+                payloads.set(i, new ArrayList<>());
+            }
+            payloadMinute[i] = m;
+        }
+        payloads.get(i).add(payload);
+        payloadCount++;
+        // over the cap: drop from the oldest live minute
+        for (long o = now - slots + 1; payloadCount > maxPayloads && o <= now; o++) {
+            int j = slot(o);
+            if (payloadMinute[j] != o) continue;
+            List<E> l = payloads.get(j);
+            int drop = Math.min(l.size(), payloadCount - maxPayloads);
+            l.subList(0, drop).clear();
+            payloadCount -= drop;
+        }
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) slots);
+    }
+
+    private static long minuteOf(long millis) {
+        return Math.floorDiv(millis, MINUTE_MS);
+    }
+
+    /**
+     * Cumulative totals per minute; slots older than the series hold no events.
+     */
+    private final class Series {
+        final long[] minute = new long[slots];
+        final long[] count = new long[slots];
+        final long[] valued = new long[slots];
+        final double[] sum = new double[slots];
+        long head = Long.MIN_VALUE;
+        long lastEvent = Long.MIN_VALUE;
+        long totalCount;
+        long totalValued;
+        double totalSum;
+
+        Series() {
+            Arrays.fill(minute, Long.MIN_VALUE);
+        }
+
+        void advance(long now) {
+            if (now <= head) return;
+            long from = head == Long.MIN_VALUE ? now : Math.max(head + 1, now - slots + 1);
+            for (long m = from; m <= now; m++) {
+                int i = slot(m);
+                minute[i] = m;
+                count[i] = totalCount;
+                valued[i] = totalValued;
+                sum[i] = totalSum;
+            }
+            head = now;
+        }
+
+        void add(long m, long now, double value) {
+            advance(now);
+            lastEvent = Math.max(lastEvent, m);
+            boolean hasValue = !Double.isNaN(value);
+            totalCount++;
+            if (hasValue) {
+                totalValued++;
+                totalSum += value;
+            }
+            for (long t = m; t <= now; t++) { // the event counts in every total from its minute on
+                int i = slot(t);
+                if (minute[i] != t) { // before this series existed
+                    minute[i] = t;
+                    count[i] = 0;
+                    valued[i] = 0;
+                    sum[i] = 0.0;
+                }
+                count[i]++;
+                if (hasValue) {
+                    valued[i]++;
+                    sum[i] += value;
+                }
+            }
+        }
+
+        Stats window(long now, int w) {
+            advance(now);
+            int i = slot(now - w);
+            boolean known = minute[i] == now - w;
+            long c = totalCount - (known ? count[i] : 0);
+            long v = totalValued - (known ? valued[i] : 0);
+            double s = totalSum - (known ? sum[i] : 0.0);
+            return new Stats(c, v, s, w);
+        }
+    }
+}
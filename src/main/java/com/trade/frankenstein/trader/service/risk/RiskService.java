@@ -7,6 +7,7 @@ import com.trade.frankenstein.trader.bus.EventBusConfig;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.AuthCodeHolder;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.TickContext;
 import com.trade.frankenstein.trader.common.constants.BotConsts;
 import com.trade.frankenstein.trader.common.constants.RiskConstants;
 import com.trade.frankenstein.trader.core.FastStateStore;
@@ -192,9 +193,10 @@ public class RiskService {
             orderTimestamps.addLast(now);
             evictOlderThan(now.minusSeconds(60));
         }
+        TickContext.invalidate("risk.");
         try {
             JsonNode n = mapper.valueToTree(buildSnapshot());
-            stream.publishRisk("summary", n.toPrettyString());
+            stream.publishRisk("summary", n);
         } catch (Exception ignored) {
         }
         try {
@@ -206,9 +208,9 @@ public class RiskService {
     private double getOrdersPerMinutePct() {
         final int cap = Math.max(1, RiskConstants.ORDERS_PER_MINUTE);
         try {
-            Optional<String> v = fast.get("orders_per_min");
-            if (v.isPresent()) {
-                long count = Long.parseLong(v.get());
+            String v = TickContext.memo("risk.opm", () -> fast.get("orders_per_min").orElse(null));
+            if (v != null) {
+                long count = Long.parseLong(v);
                 return clamp01((count * 100.0) / cap);
             }
         } catch (Exception ignored) {
@@ -240,11 +242,16 @@ public class RiskService {
     @Transactional(readOnly = true)
     public Result getSummary() {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return Result.fail("user-not-logged-in");
+        // Built and published once per engine cycle; risk writers below invalidate it
+        return TickContext.memo("risk.summary", this::buildAndPublishSummary);
+    }
+
+    private Result buildAndPublishSummary() {
         try {
             RiskSnapshot snap = buildSnapshot();
             try {
                 JsonNode n = mapper.valueToTree(snap);
-                stream.publishRisk("summary", n.toPrettyString());
+                stream.publishRisk("summary", n);
             } catch (Exception ignored) {
                 log.error("stream.send failed", ignored);
             }
@@ -327,16 +334,16 @@ public class RiskService {
 
     public void updateDailyLossAbs(float lossAbs) {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return;
-        if (lossAbs >= 0f) dayLossAbs.set(lossAbs);
+        if (lossAbs >= 0f && nzf(dayLossAbs.getAndSet(lossAbs)) != lossAbs) TickContext.invalidate("risk.");
     }
 
     public int getMinutesSinceLastSl(String instrumentKey) {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return -1;
         if (instrumentKey == null || instrumentKey.isEmpty()) return -1;
         try {
-            Optional<String> v = fast.get("sl:last:" + instrumentKey);
-            if (!v.isPresent()) return -1;
-            long epochSec = Long.parseLong(v.get());
+            String v = slState(instrumentKey).get(slLastKey(instrumentKey));
+            if (v == null) return -1;
+            long epochSec = Long.parseLong(v);
             Instant ts = Instant.ofEpochSecond(epochSec);
             long mins = Duration.between(ts, Instant.now()).toMinutes();
             return (int) Math.max(mins, 0);
@@ -349,15 +356,29 @@ public class RiskService {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return 0;
         if (instrumentKey == null || instrumentKey.isEmpty()) return 0;
         try {
-            LocalDate d = LocalDate.now(ZoneId.of("Asia/Kolkata"));
-            String key = "sl:count:" + instrumentKey + ":" + d;
-            Optional<String> v = fast.get(key);
-            return v.isPresent() ? Integer.parseInt(v.get()) : 0;
+            String v = slState(instrumentKey).get(slCountKey(instrumentKey));
+            return v != null ? Integer.parseInt(v) : 0;
         } catch (Exception e) {
             return 0;
         }
     }
 
+    /**
+     * Last-SL time and today's restrike count in one multi-get, shared for the tick.
+     */
+    private Map<String, String> slState(String instrumentKey) {
+        return TickContext.memo("risk.sl:" + instrumentKey,
+                () -> fast.getAll(Arrays.asList(slLastKey(instrumentKey), slCountKey(instrumentKey))));
+    }
+
+    private static String slLastKey(String instrumentKey) {
+        return "sl:last:" + instrumentKey;
+    }
+
+    private static String slCountKey(String instrumentKey) {
+        return "sl:count:" + instrumentKey + ":" + LocalDate.now(ZoneId.of("Asia/Kolkata"));
+    }
+
     public boolean hasHeadroom(double minBudgetPct) {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return false;
         try {
@@ -379,22 +400,21 @@ public class RiskService {
         if (!AuthCodeHolder.getInstance().isLoggedIn()) return;
         if (instrumentKey == null || instrumentKey.isEmpty()) return;
         try {
-            fast.put("sl:last:" + instrumentKey, String.valueOf(Instant.now().getEpochSecond()), Duration.ofHours(24));
-        } catch (Exception ignored) {
-        }
-        try {
-            LocalDate d = LocalDate.now(ZoneId.of("Asia/Kolkata"));
-            String key = "sl:count:" + instrumentKey + ":" + d;
-            fast.incr(key, Duration.ofHours(16));
-        } catch (Exception ignored) {
+            fast.batch()
+                    .put(slLastKey(instrumentKey), String.valueOf(Instant.now().getEpochSecond()), Duration.ofHours(24))
+                    .incr(slCountKey(instrumentKey), Duration.ofHours(16))
+                    .execute();
+        } catch (Exception e) {
+            log.warn("recordStopLoss: state write failed for {}: {}", instrumentKey, e.toString());
         }
+        TickContext.invalidate("risk.");
     }
 
     private void publishRiskEvent(String subTopic, RiskSnapshot snap, String reason) {
         try {
             try {
                 JsonNode n = mapper.valueToTree(snap);
-                stream.publishRisk(subTopic, n.toPrettyString());
+                stream.publishRisk(subTopic, n);
             } catch (Throwable ignored) {
             }
             try {
@@ -0,0 +1,598 @@
+package com.trade.frankenstein.trader.service.strategy;
+
+import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.model.documents.Candle;
+import com.trade.frankenstein.trader.repo.documents.CandleRepo;
+import com.trade.frankenstein.trader.service.market.TickArchive;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Array-based backtester for the SL / TP / trailing exit model of
+ * {@link StrategyUpgrades#runBacktest}.
+ * <p>
+ * Bars are loaded once into primitive columns (tick archive first, candles_1m as fallback).
+ * ADX(14), day VWAP and the entry signal are precomputed as columns, so a run is one pass of
+ * double arithmetic with no allocation per bar. Up to maxPositions positions can be open at
+ * once; fills pay slippage (bps) and charges (flat per order + % of turnover). A sweep expands
+ * a parameter grid and fans the runs out on a dedicated fork-join pool, sharing the columns.
+ */
+@Slf4j
+@Service
+public class BacktestEngine {
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final int ADX_PERIOD = 14;
+
+    @Autowired
+    private CandleRepo candleRepo;
+    @Autowired
+    private TickArchive tickArchive;
+
+    private final ForkJoinPool pool;
+    private final int maxCombinations;
+    private final int equityPoints;
+
+    public BacktestEngine(@Value("${trade.backtest.parallelism:0}") int parallelism,
+                          @Value("${trade.backtest.max-combinations:5000}") int maxCombinations,
+                          @Value("${trade.backtest.equity-points:500}") int equityPoints) {
+        int p = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(Math.max(1, p));
+        this.maxCombinations = Math.max(1, maxCombinations);
+        this.equityPoints = Math.max(2, equityPoints);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // ---------------------------------------------------------------------
+    // API
+    // ---------------------------------------------------------------------
+
+    /**
+     * Single run when the request has no grid, otherwise a sweep over the grid.
+     */
+    public Result<Report> run(Request req) {
+        if (req == null || req.symbol == null || req.symbol.trim().isEmpty()) return Result.fail("BAD_REQUEST", "symbol is required");
+        if (req.from == null || req.to == null || !req.to.isAfter(req.from)) return Result.fail("BAD_REQUEST", "from/to window is invalid");
+        final Params base = req.params == null ? new Params() : req.params;
+        final boolean hasGrid = req.grid != null && !req.grid.isEmpty();
+        if (hasGrid) {
+            // checked before expanding: a few long lists multiply into more objects than the heap holds
+            long size = req.grid.size();
+            if (size > maxCombinations) {
+                return Result.fail("BAD_REQUEST", "grid has " + (size == Long.MAX_VALUE ? "too many" : String.valueOf(size))
+                        + " combinations, max " + maxCombinations);
+            }
+        }
+        try {
+            final long t0 = System.nanoTime();
+            Bars bars = load(req.symbol.trim(), req.from, req.to);
+            if (bars.n == 0) return Result.fail("NOT_FOUND", "no 1m bars for " + req.symbol + " in window");
+            Columns cols = Columns.of(bars);
+            boolean[] signal = adxVwapSignal(bars, cols, base.adxMin);
+
+            Report rep = new Report();
+            rep.symbol = req.symbol.trim();
+            rep.bars = bars.n;
+            if (!hasGrid) {
+                rep.best = simulate(bars, cols, signal, base, equityPoints);
+                rep.runs = 1;
+            } else {
+                List<Params> combos = req.grid.expand(base);
+                rep.runs = combos.size();
+                rep.sweep = sweep(bars, cols, signal, combos, req.top > 0 ? req.top : 20);
+                if (!rep.sweep.isEmpty()) {
+                    // re-run the winner with its equity curve
+                    rep.best = simulate(bars, cols, signal, rep.sweep.get(0).params, equityPoints);
+                }
+            }
+            rep.elapsedMs = (System.nanoTime() - t0) / 1_000_000L;
+            return Result.ok(rep);
+        } catch (Exception e) {
+            log.error("backtest failed for {}", req.symbol, e);
+            return Result.fail(e);
+        }
+    }
+
+    /**
+     * Runs every combination in parallel; results sorted by Sharpe, then PnL.
+     */
+    public List<Summary> sweep(Bars bars, Columns cols, boolean[] signal, List<Params> combos, int top) {
+        List<Summary> all = pool.submit(() -> combos.parallelStream()
+                .map(p -> simulate(bars, cols, signal, p, 0))
+                .collect(Collectors.toList())).join();
+        all.sort(Comparator.comparingDouble((Summary s) -> s.sharpe).thenComparingDouble(s -> s.pnl).reversed());
+        return all.size() > top ? new ArrayList<>(all.subList(0, top)) : all;
+    }
+
+    /**
+     * 1m bars in [from, to). The archive only holds days since it was enabled and its first day
+     * may be partial, so it serves only from its first fully covered day on; everything before
+     * that comes from candles_1m.
+     */
+    public Bars load(String symbol, Instant from, Instant to) {
+        List<TickArchive.BarView> archived = tickArchive.isEnabled() ? tickArchive.bars(symbol, from, to) : List.of();
+        Instant archiveFrom = to;
+        if (!archived.isEmpty()) {
+            LocalDate first = Instant.ofEpochMilli(archived.get(0).openTimeMillis()).atZone(IST).toLocalDate();
+            Instant dayStart = first.atStartOfDay(IST).toInstant();
+            // first day is complete only if the archive already ran on an earlier session
+            boolean fullDay = !tickArchive.bars(symbol, dayStart.minus(Duration.ofDays(7)), dayStart).isEmpty();
+            archiveFrom = fullDay ? dayStart : first.plusDays(1).atStartOfDay(IST).toInstant();
+            if (archiveFrom.isBefore(from)) archiveFrom = from;
+        }
+
+        Bars b = new Bars(archived.size());
+        if (archiveFrom.isAfter(from)) {
+            List<Candle> rows = candleRepo.findBySymbolAndOpenTimeBetweenOrderByOpenTimeAsc(symbol, from, archiveFrom);
+            for (Candle c : rows) {
+                if (!c.getOpenTime().isBefore(archiveFrom)) break;
+                b.add(c.getOpenTime().toEpochMilli(), c.getOpenPrice(), c.getHighPrice(), c.getLowPrice(), c.getClosePrice(),
+                        c.getVolume() == null ? 0L : c.getVolume());
+            }
+        }
+        final long cut = archiveFrom.toEpochMilli();
+        for (TickArchive.BarView v : archived) {
+            if (v.openTimeMillis() < cut) continue;
+            b.add(v.openTimeMillis(), v.openPrice(), v.highPrice(), v.lowPrice(), v.closePrice(), v.volume());
+        }
+        log.debug("backtest bars {}: {} total, archive from {}", symbol, b.n, archiveFrom);
+        return b;
+    }
+
+    /**
+     * Default entry: ADX rising and at least adxMin, close above day VWAP (the live trailing gate).
+     */
+    public static boolean[] adxVwapSignal(Bars b, Columns c, double adxMin) {
+        boolean[] s = new boolean[b.n];
+        for (int i = 1; i < b.n; i++) {
+            s[i] = c.adx[i] >= adxMin && c.adx[i] > c.adx[i - 1] && b.close[i] > c.vwap[i];
+        }
+        return s;
+    }
+
+    // ---------------------------------------------------------------------
+    // Simulation
+    // ---------------------------------------------------------------------
+
+    /**
+     * One pass over the bars. Exits are checked on the close, as in runBacktest: time stop first,
+     * then SL (filled at the stop), TP (filled at the target), else trailing. New entries fill at
+     * the close of a signal bar while fewer than maxPositions are open. curvePoints &gt; 0 also
+     * returns a downsampled equity curve.
+     */
+    public static Summary simulate(Bars b, Columns c, boolean[] signal, Params p, int curvePoints) {
+        final int maxPos = Math.max(1, p.maxPositions);
+        final double slip = p.slippageBps / 10_000.0;
+        final long timeStopMs = p.timeStopMin > 0 ? p.timeStopMin * 60_000L : Long.MAX_VALUE;
+        final double capital = p.capital > 0 ? p.capital : 100_000;
+
+        final double[] entry = new double[maxPos], stop = new double[maxPos], target = new double[maxPos];
+        final long[] entryTs = new long[maxPos];
+        final boolean[] trailed = new boolean[maxPos];
+        int open = 0;
+
+        final double[] equity = curvePoints > 0 ? new double[b.n] : null;
+        double realized = 0, peak = 0, maxDd = 0, maxDdPct = 0;
+        double grossWin = 0, grossLoss = 0;
+        int wins = 0, losses = 0;
+
+        // daily returns for Sharpe, from end-of-day equity
+        double dayStartEq = 0, prevEq = 0, sumR = 0, sumR2 = 0;
+        int days = 0;
+        long day = b.n > 0 ? c.day[0] : 0;
+
+        for (int i = 0; i < b.n; i++) {
+            final double px = b.close[i];
+            final long ts = b.ts[i];
+            final long d = c.day[i];
+            if (d != day) {
+                double r = (prevEq - dayStartEq) / capital;
+                sumR += r;
+                sumR2 += r * r;
+                days++;
+                dayStartEq = prevEq;
+                day = d;
+            }
+            final boolean gate = i > 0 && c.adx[i] > c.adx[i - 1] && px > c.vwap[i];
+
+            for (int k = open - 1; k >= 0; k--) {
+                double exit = Double.NaN;
+                if (ts - entryTs[k] > timeStopMs) {
+                    exit = px;
+                } else if (px <= stop[k]) {
+                    exit = stop[k];
+                } else if (px >= target[k]) {
+                    exit = target[k];
+                } else if (gate) {
+                    if (!trailed[k]) {
+                        if ((px - entry[k]) / entry[k] >= p.trailTriggerPct) {
+                            stop[k] = entry[k];
+                            trailed[k] = true;
+                        }
+                    } else {
+                        stop[k] = Math.max(stop[k], px * (1 - p.trailStepPct));
+                    }
+                }
+                if (!Double.isNaN(exit)) {
+                    double pnl = closePnl(entry[k], exit, slip, p);
+                    realized += pnl;
+                    if (pnl >= 0) {
+                        wins++;
+                        grossWin += pnl;
+                    } else {
+                        losses++;
+                        grossLoss -= pnl;
+                    }
+                    open--;
+                    entry[k] = entry[open];
+                    stop[k] = stop[open];
+                    target[k] = target[open];
+                    entryTs[k] = entryTs[open];
+                    trailed[k] = trailed[open];
+                }
+            }
+
+            if (signal[i] && open < maxPos && px > 0) {
+                entry[open] = px;
+                stop[open] = px * (1 - p.slPct);
+                target[open] = px * (1 + p.tpPct);
+                entryTs[open] = ts;
+                trailed[open] = false;
+                open++;
+            }
+
+            double eq = realized;
+            for (int k = 0; k < open; k++) eq += (px - entry[k]) * p.qty;
+            if (equity != null) equity[i] = eq;
+            peak = Math.max(peak, eq);
+            double dd = peak - eq;
+            if (dd > maxDd) maxDd = dd;
+            double base = capital + peak;
+            if (base > 0 && dd / base > maxDdPct) maxDdPct = dd / base;
+            prevEq = eq;
+        }
+        if (b.n > 0) {
+            double r = (prevEq - dayStartEq) / capital;
+            sumR += r;
+            sumR2 += r * r;
+            days++;
+        }
+
+        // mark-to-market anything still open at the last close
+        if (b.n > 0) {
+            final double last = b.close[b.n - 1];
+            for (int k = 0; k < open; k++) {
+                double pnl = closePnl(entry[k], last, slip, p);
+                realized += pnl;
+                if (pnl >= 0) {
+                    wins++;
+                    grossWin += pnl;
+                } else {
+                    losses++;
+                    grossLoss -= pnl;
+                }
+            }
+        }
+
+        Summary s = new Summary();
+        s.params = p;
+        s.trades = wins + losses;
+        s.wins = wins;
+        s.losses = losses;
+        s.pnl = realized;
+        s.winRate = s.trades == 0 ? 0 : (double) wins / s.trades;
+        s.profitFactor = grossLoss == 0 ? (grossWin > 0 ? Double.POSITIVE_INFINITY : 0) : grossWin / grossLoss;
+        s.maxDrawdown = maxDd;
+        s.maxDrawdownPct = maxDdPct;
+        if (days > 1) {
+            double mean = sumR / days;
+            double var = (sumR2 - days * mean * mean) / (days - 1);
+            s.sharpe = var > 0 ? mean / Math.sqrt(var) * Math.sqrt(252) : 0;
+        }
+        if (equity != null) s.equity = downsample(b, equity, curvePoints);
+        return s;
+    }
+
+    private static double closePnl(double entryPx, double exitPx, double slip, Params p) {
+        double buy = entryPx * (1 + slip), sell = exitPx * (1 - slip);
+        double charges = 2 * p.chargePerOrder + (buy + sell) * p.qty * p.chargePct;
+        return (sell - buy) * p.qty - charges;
+    }
+
+    private static long dayOf(long epochMs) {
+        return Instant.ofEpochMilli(epochMs).atZone(IST).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * At most maxPoints [epochMs, equity, drawdown] rows, always including the last bar.
+     */
+    private static List<double[]> downsample(Bars b, double[] equity, int maxPoints) {
+        List<double[]> out = new ArrayList<>();
+        if (b.n == 0) return out;
+        int step = Math.max(1, (b.n + maxPoints - 1) / maxPoints);
+        double peak = 0;
+        for (int i = 0; i < b.n; i++) {
+            peak = Math.max(peak, equity[i]);
+            if (i % step == 0 || i == b.n - 1) out.add(new double[]{b.ts[i], equity[i], peak - equity[i]});
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+    // Columns
+    // ---------------------------------------------------------------------
+
+    /**
+     * 1m bars as primitive columns.
+     */
+    public static final class Bars {
+        long[] ts;
+        double[] open, high, low, close;
+        long[] volume;
+        int n;
+
+        Bars(int capacity) {
+            int c = Math.max(16, capacity);
+            ts = new long[c];
+            open = new double[c];
+            high = new double[c];
+            low = new double[c];
+            close = new double[c];
+            volume = new long[c];
+        }
+
+        void add(long t, double o, double h, double l, double c, long v) {
+            if (n == ts.length) {
+                int cap = n * 2;
+                ts = Arrays.copyOf(ts, cap);
+                open = Arrays.copyOf(open, cap);
+                high = Arrays.copyOf(high, cap);
+                low = Arrays.copyOf(low, cap);
+                close = Arrays.copyOf(close, cap);
+                volume = Arrays.copyOf(volume, cap);
+            }
+            ts[n] = t;
+            open[n] = o;
+            high[n] = h;
+            low[n] = l;
+            close[n] = c;
+            volume[n] = v;
+            n++;
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public static Bars of(List<? extends StrategyUpgrades.CandleView> candles) {
+            Bars b = new Bars(candles.size());
+            for (StrategyUpgrades.CandleView c : candles) {
+                if (c instanceof TickArchive.BarView v) {
+                    b.add(v.openTimeMillis(), v.openPrice(), v.highPrice(), v.lowPrice(), v.closePrice(), v.volume());
+                } else {
+                    b.add(c.openTime().toEpochMilli(), c.open().doubleValue(), c.high().doubleValue(),
+                            c.low().doubleValue(), c.close().doubleValue(), c.volume());
+                }
+            }
+            return b;
+        }
+    }
+
+    /**
+     * Columns aligned with {@link Bars}: IST day number, Wilder ADX(14) and day VWAP.
+     */
+    public static final class Columns {
+        final long[] day;
+        final double[] adx;
+        final double[] vwap;
+
+        private Columns(long[] day, double[] adx, double[] vwap) {
+            this.day = day;
+            this.adx = adx;
+            this.vwap = vwap;
+        }
+
+        public static Columns of(Bars b) {
+            long[] day = new long[b.n];
+            for (int i = 0; i < b.n; i++) day[i] = dayOf(b.ts[i]);
+            return new Columns(day, adx(b), dayVwap(b, day));
+        }
+
+        private static double[] dayVwap(Bars b, long[] days) {
+            double[] out = new double[b.n];
+            double pv = 0, vol = 0;
+            long day = Long.MIN_VALUE;
+            int barsToday = 0;
+            for (int i = 0; i < b.n; i++) {
+                long d = days[i];
+                if (d != day) {
+                    day = d;
+                    pv = 0;
+                    vol = 0;
+                    barsToday = 0;
+                }
+                double tp = (b.high[i] + b.low[i] + b.close[i]) / 3.0;
+                double v = b.volume[i];
+                barsToday++;
+                if (v > 0) {
+                    pv += tp * v;
+                    vol += v;
+                }
+                // index bars carry no volume: fall back to the running mean of typical price
+                out[i] = vol > 0 ? pv / vol : (i > 0 && barsToday > 1 ? (out[i - 1] * (barsToday - 1) + tp) / barsToday : tp);
+            }
+            return out;
+        }
+
+        private static double[] adx(Bars b) {
+            final int n = b.n, p = ADX_PERIOD;
+            double[] out = new double[n];
+            if (n < 2) return out;
+            double trS = 0, pdmS = 0, mdmS = 0, adx = 0, dxSum = 0;
+            for (int i = 1; i < n; i++) {
+                double up = b.high[i] - b.high[i - 1];
+                double down = b.low[i - 1] - b.low[i];
+                double pdm = up > down && up > 0 ? up : 0;
+                double mdm = down > up && down > 0 ? down : 0;
+                double tr = Math.max(b.high[i] - b.low[i],
+                        Math.max(Math.abs(b.high[i] - b.close[i - 1]), Math.abs(b.low[i] - b.close[i - 1])));
+                if (i <= p) {
+                    trS += tr;
+                    pdmS += pdm;
+                    mdmS += mdm;
+                } else {
+                    trS = trS - trS / p + tr;
+                    pdmS = pdmS - pdmS / p + pdm;
+                    mdmS = mdmS - mdmS / p + mdm;
+                }
+                if (i < p) continue;
+                double pdi = trS > 0 ? 100 * pdmS / trS : 0;
+                double mdi = trS > 0 ? 100 * mdmS / trS : 0;
+                double dx = pdi + mdi > 0 ? 100 * Math.abs(pdi - mdi) / (pdi + mdi) : 0;
+                if (i < 2 * p - 1) {
+                    dxSum += dx;
+                } else if (i == 2 * p - 1) {
+                    adx = (dxSum + dx) / p;
+                    out[i] = adx;
+                } else {
+                    adx = (adx * (p - 1) + dx) / p;
+                    out[i] = adx;
+                }
+            }
+            return out;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Request / result
+    // ---------------------------------------------------------------------
+
+    public static class Params {
+        public double slPct = 0.25;
+        public double tpPct = 0.30;
+        public int timeStopMin = 40;
+        public double trailTriggerPct = 0.20;
+        public double trailStepPct = 0.05;
+        public double adxMin = 20;
+        public int maxPositions = 1;
+        public double qty = 1;
+        public double slippageBps = 0;
+        public double chargePerOrder = 0;
+        public double chargePct = 0;
+        public double capital = 100_000;
+
+        Params copy() {
+            Params c = new Params();
+            c.slPct = slPct;
+            c.tpPct = tpPct;
+            c.timeStopMin = timeStopMin;
+            c.trailTriggerPct = trailTriggerPct;
+            c.trailStepPct = trailStepPct;
+            c.adxMin = adxMin;
+            c.maxPositions = maxPositions;
+            c.qty = qty;
+            c.slippageBps = slippageBps;
+            c.chargePerOrder = chargePerOrder;
+            c.chargePct = chargePct;
+            c.capital = capital;
+            return c;
+        }
+    }
+
+    /**
+     * Values to sweep; an empty or missing list keeps the base value.
+     */
+    public static class Grid {
+        public List<Double> slPct;
+        public List<Double> tpPct;
+        public List<Integer> timeStopMin;
+        public List<Double> trailTriggerPct;
+        public List<Double> trailStepPct;
+
+        boolean isEmpty() {
+            return empty(slPct) && empty(tpPct) && empty(timeStopMin) && empty(trailTriggerPct) && empty(trailStepPct);
+        }
+
+        /**
+         * Number of combinations expand would build; Long.MAX_VALUE if that overflows.
+         */
+        long size() {
+            long n = 1L;
+            for (List<?> l : Arrays.asList(slPct, tpPct, timeStopMin, trailTriggerPct, trailStepPct)) {
+                if (empty(l)) continue;
+                if (n > Long.MAX_VALUE / l.size()) return Long.MAX_VALUE;
+                n *= l.size();
+            }
+            return n;
+        }
+
+        List<Params> expand(Params base) {
+            List<Params> out = new ArrayList<>();
+            for (double sl : or(slPct, base.slPct))
+                for (double tp : or(tpPct, base.tpPct))
+                    for (int ts : or(timeStopMin, base.timeStopMin))
+                        for (double tt : or(trailTriggerPct, base.trailTriggerPct))
+                            for (double st : or(trailStepPct, base.trailStepPct)) {
+                                Params p = base.copy();
+                                p.slPct = sl;
+                                p.tpPct = tp;
+                                p.timeStopMin = ts;
+                                p.trailTriggerPct = tt;
+                                p.trailStepPct = st;
+                                out.add(p);
+                            }
+            return out;
+        }
+
+        private static boolean empty(List<?> l) {
+            return l == null || l.isEmpty();
+        }
+
+        private static <T> List<T> or(List<T> l, T dflt) {
+            return empty(l) ? Collections.singletonList(dflt) : l;
+        }
+    }
+
+    public static class Request {
+        public String symbol;
+        public Instant from;
+        public Instant to;
+        public Params params;
+        public Grid grid;
+        public int top;
+    }
+
+    public static class Summary {
+        public Params params;
+        public int trades, wins, losses;
+        public double pnl, winRate, profitFactor, maxDrawdown, maxDrawdownPct, sharpe;
+        /**
+         * [epochMs, equity, drawdown] rows; only on single runs and the sweep winner.
+         */
+        public List<double[]> equity;
+    }
+
+    public static class Report {
+        public String symbol;
+        public int bars;
+        public int runs;
+        public long elapsedMs;
+        public Summary best;
+        public List<Summary> sweep;
+    }
+}
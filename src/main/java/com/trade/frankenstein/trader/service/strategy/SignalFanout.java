@@ -0,0 +1,77 @@
+package com.trade.frankenstein.trader.service.strategy;
+
+import com.trade.frankenstein.trader.common.TickContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * One strategy cycle's concurrent lookups.
+ * <p>
+ * Every source runs on the shared bounded executor with its own deadline. A source that fails,
+ * misses its deadline or is rejected by a saturated executor completes with null, which is what
+ * the sequential code already treats as "skip" / "NA", so callers just {@link #await} and keep
+ * their existing null handling. A late source's task is cancelled with an interrupt, so a call
+ * blocked in interruptible I/O gives its worker back instead of holding it past the deadline.
+ * Lookups share the caller's {@link TickContext}, so memoized reads are not repeated.
+ */
+@Slf4j
+final class SignalFanout {
+
+    private final ExecutorService executor;
+    private final TickContext tickContext = TickContext.current();
+    private final Map<String, String> misses = new ConcurrentHashMap<>();
+
+    SignalFanout(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    <T> CompletableFuture<T> fetch(String source, long deadlineMs, Supplier<T> call) {
+        final long t0 = System.nanoTime();
+        final Supplier<T> task = TickContext.propagate(tickContext, call);
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            final Future<?> worker = executor.submit(() -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            return result.orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+                    .whenComplete((v, ex) -> {
+                        if (ex != null) worker.cancel(true);
+                    })
+                    .exceptionally(ex -> miss(source, ex, t0));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(miss(source, e, t0));
+        }
+    }
+
+    static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sources that timed out or failed in this cycle (source -> reason), for the debug payload.
+     */
+    Map<String, String> misses() {
+        return misses;
+    }
+
+    private <T> T miss(String source, Throwable ex, long t0) {
+        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        String reason = (cause instanceof TimeoutException) ? "timeout"
+                : (cause instanceof RejectedExecutionException) ? "rejected"
+                : cause.getClass().getSimpleName();
+        misses.put(source, reason);
+        log.debug("Strategy source {} -> {} after {} ms", source, reason, (System.nanoTime() - t0) / 1_000_000L);
+        return null;
+    }
+}
@@ -5,6 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonObject;
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.Ta4jSeriesCache;
+import com.trade.frankenstein.trader.common.constants.Ta4jProperties;
+import com.trade.frankenstein.trader.common.indicators.PrimitiveIndicators;
 import com.trade.frankenstein.trader.common.Underlyings;
 import com.trade.frankenstein.trader.dto.MLFeatures;
 import com.trade.frankenstein.trader.dto.MLRiskAssessment;
@@ -28,12 +31,12 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
-import org.ta4j.core.BaseBar;
-import org.ta4j.core.BaseBarSeriesBuilder;
 import org.ta4j.core.indicators.ATRIndicator;
 import org.ta4j.core.indicators.EMAIndicator;
 import org.ta4j.core.indicators.RSIIndicator;
@@ -48,6 +51,8 @@ import java.math.RoundingMode;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -116,6 +121,7 @@ public class StrategyService {
     private static final long PATTERN_LOOK_BACK_MINUTES = 60;
     private static final double ALTERNATIVE_DATA_WEIGHT = 0.3;
     private static final double MICROSTRUCTURE_IMBALANCE_THRESHOLD = 0.6;
+    private static final double NEWS_BURST_PER_MIN = 0.5;       // 5+ items in a 10-minute window
     // Metrics
     private final AtomicLong advicesCreated = new AtomicLong(0);
     private final AtomicLong advicesSkipped = new AtomicLong(0);
@@ -131,6 +137,12 @@ public class StrategyService {
     @Autowired
     private MarketDataService marketDataService;
     @Autowired
+    private Ta4jSeriesCache ta4jSeriesCache;
+    @Autowired
+    private Ta4jProperties ta4jProperties;
+    @Autowired
+    private PrimitiveIndicators primitiveIndicators;
+    @Autowired
     private OptionChainService optionChainService;
     @Autowired
     private UpstoxService upstoxService;
@@ -168,6 +180,14 @@ public class StrategyService {
     private MarketMicrostructureService marketMicrostructureService;
     @Autowired
     private PerformanceAnalyticsService performanceAnalyticsService;
+    @Autowired
+    @Qualifier("strategyFanoutExecutor")
+    private ExecutorService fanoutExecutor;
+
+    @Value("${trade.strategy.fanout.deadline-ms:1500}")
+    private long fanoutDeadlineMs;
+    @Value("${trade.strategy.fanout.model-deadline-ms:2500}")
+    private long fanoutModelDeadlineMs;
 
     private static List<String> safeList(List<String> a) {
         return a == null ? Collections.emptyList() : a;
@@ -243,40 +263,60 @@ public class StrategyService {
         Map<String, Object> dbg = new LinkedHashMap<>();
         log.info("Enhanced strategy execution started");
 
+        // Lookups run concurrently; each degrades to null on failure / deadline / rejection.
+        // The gate inputs go first, the rest only once the cycle is known to proceed.
+        final SignalFanout fan = new SignalFanout(fanoutExecutor);
+        dbg.put("fanout.misses", fan.misses());
+        final CompletableFuture<Result<DecisionQuality>> dqF = fan.fetch("decision.quality", fanoutDeadlineMs, decisionService::getQuality);
+        final CompletableFuture<BigDecimal> spotF = fan.fetch("spot", fanoutDeadlineMs, this::getIndexLtp);
+        final CompletableFuture<LocalDate> expiryF = fan.fetch("expiry", fanoutDeadlineMs, this::nearestExpiry);
+
         try {
             // 1) Enhanced Decision Quality with ML
-            Result<DecisionQuality> dqR = decisionService.getQuality();
+            Result<DecisionQuality> dqR = SignalFanout.await(dqF);
             if (dqR == null || !dqR.isOk() || dqR.get() == null) {
                 log.info("Strategy execution skipped - no valid decision quality available");
                 return skipTick(dbg, "no-decision-quality");
             }
 
-            DecisionQuality dq = dqR.get();
-            String trend = up(dq.getTrend() == null ? "NEUTRAL" : dq.getTrend().name());
-            List<String> baseReasons = safeList(dq.getReasons());
-
-            // NEW: Get ML-enhanced trend prediction
-            MLPrediction mlTrend = mlPredictionService.predictTrend(30); // 30-minute horizon
-            if (mlTrend != null && mlTrend.getConfidence().compareTo(bd(String.valueOf(ML_CONFIDENCE_THRESHOLD))) >= 0) {
-                trend = mlTrend.getPredictedDirection();
-                baseReasons.add("ML-Enhanced Trend: " + trend + " (confidence: " + mlTrend.getConfidence() + ")");
-            }
-
             // 2) Enhanced Market Data with Alternative Sources
-            BigDecimal spot = getIndexLtp();
+            BigDecimal spot = SignalFanout.await(spotF);
             if (spot == null) {
                 log.info("Strategy execution skipped - no spot price available");
                 return skipTick(dbg, "no-spot");
             }
 
-            LocalDate expiry = nearestExpiry();
+            LocalDate expiry = SignalFanout.await(expiryF);
             if (expiry == null) {
                 log.info("Strategy execution skipped - no valid expiry date available");
                 return skipTick(dbg, "no-expiry");
             }
 
+            final CompletableFuture<MLPrediction> mlTrendF = fan.fetch("ml.trend", fanoutModelDeadlineMs, () -> mlPredictionService.predictTrend(30));
+            final CompletableFuture<AlternativeDataSignal> altF = fan.fetch("alt.data", fanoutModelDeadlineMs, alternativeDataService::getAggregatedSignal);
+            final CompletableFuture<IntraDayCandleData> c5F = fan.fetch("candles.5m", fanoutDeadlineMs, () -> candles(NIFTY, "minutes", "5"));
+            final CompletableFuture<IntraDayCandleData> c15F = fan.fetch("candles.15m", fanoutDeadlineMs, () -> candles(NIFTY, "minutes", "15"));
+            final CompletableFuture<IntraDayCandleData> c60F = fan.fetch("candles.60m", fanoutDeadlineMs, () -> candles(NIFTY, "minutes", "60"));
+            final CompletableFuture<MarketMicrostructure> microF = fan.fetch("microstructure", fanoutDeadlineMs, () -> marketMicrostructureService.analyze(NIFTY, expiry));
+            final CompletableFuture<Pcr> pcrF = fan.fetch("pcr", fanoutDeadlineMs, () -> pcr(expiry));
+            final CompletableFuture<OiDelta> oiDeltaF = fan.fetch("oi.delta", fanoutDeadlineMs, () -> oiDeltaTrend(expiry));
+            final CompletableFuture<IvStats> ivStatsF = fan.fetch("iv.stats", fanoutDeadlineMs, () -> ivStatsNearAtm(expiry, spot));
+            final CompletableFuture<VolatilityPrediction> volPredF = fan.fetch("vol.prediction", fanoutModelDeadlineMs,
+                    () -> volatilityPredictionService.predictVolatility(NIFTY, expiry, VOLATILITY_PREDICTION_HORIZON_MINUTES));
+
+            DecisionQuality dq = dqR.get();
+            String trend = up(dq.getTrend() == null ? "NEUTRAL" : dq.getTrend().name());
+            List<String> baseReasons = safeList(dq.getReasons());
+
+            // NEW: Get ML-enhanced trend prediction
+            MLPrediction mlTrend = SignalFanout.await(mlTrendF); // 30-minute horizon
+            if (mlTrend != null && mlTrend.getConfidence().compareTo(bd(String.valueOf(ML_CONFIDENCE_THRESHOLD))) >= 0) {
+                trend = mlTrend.getPredictedDirection();
+                baseReasons.add("ML-Enhanced Trend: " + trend + " (confidence: " + mlTrend.getConfidence() + ")");
+            }
+
             // NEW: Alternative Data Integration
-            AlternativeDataSignal altData = alternativeDataService.getAggregatedSignal();
+            AlternativeDataSignal altData = SignalFanout.await(altF);
             boolean altDataBlock = (altData != null && altData.getStrength().compareTo(bd("-0.7")) <= 0);
             if (altDataBlock) {
                 dbg.put("gate.alternative.data", altData.getStrength());
@@ -284,7 +324,7 @@ public class StrategyService {
             }
 
             // 3) Enhanced Candle Data Analysis
-            IntraDayCandleData c5 = candles(NIFTY, "minutes", "5");
+            IntraDayCandleData c5 = SignalFanout.await(c5F);
             logCandleOrder("strategy.m5", c5);
             if (isStale(c5, 6)) {
                 log.info("Strategy execution skipped - stale candle data");
@@ -320,8 +360,8 @@ public class StrategyService {
             }
 
             // 5) Enhanced Multi-timeframe with ML Ensemble
-            IntraDayCandleData c15 = candles(NIFTY, "minutes", "15");
-            IntraDayCandleData c60 = candles(NIFTY, "minutes", "60");
+            IntraDayCandleData c15 = SignalFanout.await(c15F);
+            IntraDayCandleData c60 = SignalFanout.await(c60F);
 
             EnsemblePrediction ensemblePred = ensembleService.getMultiTimeframePrediction(c5, c15, c60, spot);
             boolean mlMtfAgree = (ensemblePred != null &&
@@ -341,7 +381,7 @@ public class StrategyService {
 
             // 6) Enhanced Structure Filters with ML
             Structure struct = structure(c5);
-            MarketMicrostructure microStructure = marketMicrostructureService.analyze(NIFTY, expiry);
+            MarketMicrostructure microStructure = SignalFanout.await(microF);
             PDRange pd = marketDataService.getPreviousDayRange(NIFTY).orElse(null);
 
             boolean enhancedBreakout = isEnhancedBreakoutWithTrend(struct, effectiveTrend, microStructure);
@@ -376,13 +416,12 @@ public class StrategyService {
             }
 
             // 8) Enhanced Options Chain Intelligence with ML
-            Pcr pcr = pcr(expiry);
-            IvStats ivStats = ivStatsNearAtm(expiry, spot);
-            OiDelta oiDelta = oiDeltaTrend(expiry);
+            Pcr pcr = SignalFanout.await(pcrF);
+            IvStats ivStats = SignalFanout.await(ivStatsF);
+            OiDelta oiDelta = SignalFanout.await(oiDeltaF);
 
             // NEW: Volatility Prediction with LSTM
-            VolatilityPrediction volPred = volatilityPredictionService.predictVolatility(
-                    NIFTY, expiry, VOLATILITY_PREDICTION_HORIZON_MINUTES);
+            VolatilityPrediction volPred = SignalFanout.await(volPredF);
 
             if (volPred != null && volPred.getConfidence().compareTo(bd("0.8")) >= 0) {
                 baseReasons.add("LSTM Vol Prediction: " + volPred.getPredictedVolatility() +
@@ -964,40 +1003,46 @@ public class StrategyService {
             if (cs == null || cs.getCandles() == null || cs.getCandles().size() < 10) return out;
 
             Duration timeframe = inferTimeframe(cs);
-            BarSeries series = toBarSeries(cs, timeframe);
-            int minBars = Math.max(EMA_SLOW, Math.max(RSI_N, Math.max(ATR_N, ADX_N)));
-            if (series == null || series.getBarCount() < minBars) {
-                out.ema20 = out.ema50 = out.rsi = out.adx = out.atr = out.atrPct = null;
-                return out;
-            }
+            if (ta4jProperties.isPrimitiveEngine()) return indicatorsPrimitive(cs, timeframe, spot);
+
+            // Long-lived series: only new bars are appended, indicator caches survive between ticks
+            Ta4jSeriesCache.Entry entry = ta4jSeriesCache.update("NIFTY-" + timeframe, cs.getCandles(), timeframe);
+            synchronized (entry) {
+                BarSeries series = entry.series();
+                int minBars = Math.max(EMA_SLOW, Math.max(RSI_N, Math.max(ATR_N, ADX_N)));
+                if (series == null || series.getBarCount() < minBars) {
+                    out.ema20 = out.ema50 = out.rsi = out.adx = out.atr = out.atrPct = null;
+                    return out;
+                }
 
-            final int end = series.getEndIndex();
-
-            ClosePriceIndicator close = new ClosePriceIndicator(series);
-            EMAIndicator emaFastInd = new EMAIndicator(close, EMA_FAST);
-            EMAIndicator emaSlowInd = new EMAIndicator(close, EMA_SLOW);
-            RSIIndicator rsiInd = new RSIIndicator(close, RSI_N);
-            ADXIndicator adxInd = new ADXIndicator(series, ADX_N);
-            ATRIndicator atrInd = new ATRIndicator(series, ATR_N);
-
-            SMAIndicator sma = new SMAIndicator(close, BB_N);
-            StandardDeviationIndicator stdev = new StandardDeviationIndicator(close, BB_N);
-            double mid = sma.getValue(end).doubleValue();
-            double sd = stdev.getValue(end).doubleValue();
-            double bbU = mid + (BB_K * sd);
-            double bbL = mid - (BB_K * sd);
-
-            VWAPIndicator vwapInd = new VWAPIndicator(series, 30);
-
-            out.ema20 = bd(emaFastInd.getValue(end).doubleValue());
-            out.ema50 = bd(emaSlowInd.getValue(end).doubleValue());
-            out.rsi = bd(rsiInd.getValue(end).doubleValue());
-            out.adx = bd(adxInd.getValue(end).doubleValue());
-            out.atr = bd(atrInd.getValue(end).doubleValue());
-            out.bbU = bd(bbU);
-            out.bbL = bd(bbL);
-            out.vwap = bd(vwapInd.getValue(end).doubleValue());
-            out.close = bd(close.getValue(end).doubleValue());
+                final int end = series.getEndIndex();
+
+                ClosePriceIndicator close = entry.indicator("close", ClosePriceIndicator::new);
+                EMAIndicator emaFastInd = entry.indicator("emaFast", s -> new EMAIndicator(close, EMA_FAST));
+                EMAIndicator emaSlowInd = entry.indicator("emaSlow", s -> new EMAIndicator(close, EMA_SLOW));
+                RSIIndicator rsiInd = entry.indicator("rsi", s -> new RSIIndicator(close, RSI_N));
+                ADXIndicator adxInd = entry.indicator("adx", s -> new ADXIndicator(s, ADX_N));
+                ATRIndicator atrInd = entry.indicator("atr", s -> new ATRIndicator(s, ATR_N));
+
+                SMAIndicator sma = entry.indicator("bbSma", s -> new SMAIndicator(close, BB_N));
+                StandardDeviationIndicator stdev = entry.indicator("bbStd", s -> new StandardDeviationIndicator(close, BB_N));
+                double mid = sma.getValue(end).doubleValue();
+                double sd = stdev.getValue(end).doubleValue();
+                double bbU = mid + (BB_K * sd);
+                double bbL = mid - (BB_K * sd);
+
+                VWAPIndicator vwapInd = entry.indicator("vwap", s -> new VWAPIndicator(s, 30));
+
+                out.ema20 = bd(emaFastInd.getValue(end).doubleValue());
+                out.ema50 = bd(emaSlowInd.getValue(end).doubleValue());
+                out.rsi = bd(rsiInd.getValue(end).doubleValue());
+                out.adx = bd(adxInd.getValue(end).doubleValue());
+                out.atr = bd(atrInd.getValue(end).doubleValue());
+                out.bbU = bd(bbU);
+                out.bbL = bd(bbL);
+                out.vwap = bd(vwapInd.getValue(end).doubleValue());
+                out.close = bd(close.getValue(end).doubleValue());
+            }
 
             if (spot != null && spot.compareTo(BigDecimal.ZERO) > 0) {
                 out.atrPct = out.atr.multiply(bd(100)).divide(spot, 2, java.math.RoundingMode.HALF_UP);
@@ -1008,39 +1053,29 @@ public class StrategyService {
         return out;
     }
 
-    private BarSeries toBarSeries(IntraDayCandleData cs, Duration timeframe) {
-        try {
-            BarSeries series = new BaseBarSeriesBuilder().withName("NIFTY-" + timeframe).build();
-            ZoneId zone = ZoneId.of("Asia/Kolkata");
-            List<List<Object>> rows = cs.getCandles();
-            if (rows == null || rows.isEmpty()) return series;
-
-            // ---- enforce chronological order (oldest -> newest)
-            rows.sort((a, b) -> {
-                long ta = toEpochMillis(a.get(0));
-                long tb = toEpochMillis(b.get(0));
-                return Long.compare(ta, tb);
-            });
-
-            for (List<Object> row : rows) {
-                if (row == null || row.size() < 6) continue;
-                long epochMs = toEpochMillis(row.get(0));
-                if (epochMs <= 0L) continue;
-
-                ZonedDateTime endZdt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMs), zone);
-                double open = row.get(1) instanceof Number ? ((Number) row.get(1)).doubleValue() : 0d;
-                double high = row.get(2) instanceof Number ? ((Number) row.get(2)).doubleValue() : open;
-                double low = row.get(3) instanceof Number ? ((Number) row.get(3)).doubleValue() : open;
-                double close = row.get(4) instanceof Number ? ((Number) row.get(4)).doubleValue() : open;
-                double vol = row.get(5) instanceof Number ? ((Number) row.get(5)).doubleValue() : 0d;
+    private static final PrimitiveIndicators.Spec IND_SPEC =
+            new PrimitiveIndicators.Spec(EMA_FAST, EMA_SLOW, RSI_N, ATR_N, ADX_N, BB_N, BB_K, 30);
 
-                series.addBar(new BaseBar(timeframe, endZdt, open, high, low, close, vol));
-            }
-            return series;
-        } catch (Throwable t) {
-            log.warn("toBarSeries(): failed to convert candles to BarSeries: {}", t.toString());
-            return null;
+    // Same outputs as indicators(), computed with the double[] kernels (trade.ta4j.engine=primitive)
+    private Ind indicatorsPrimitive(IntraDayCandleData cs, Duration timeframe, BigDecimal spot) {
+        Ind out = new Ind();
+        PrimitiveIndicators.Snapshot s = primitiveIndicators.update("NIFTY-" + timeframe, cs.getCandles(), IND_SPEC);
+        int minBars = Math.max(EMA_SLOW, Math.max(RSI_N, Math.max(ATR_N, ADX_N)));
+        if (s == null || s.barCount() < minBars) return out;
+
+        out.ema20 = bd(s.emaFast());
+        out.ema50 = bd(s.emaSlow());
+        out.rsi = bd(s.rsi());
+        out.adx = bd(s.adx());
+        out.atr = bd(s.atr());
+        out.bbU = bd(s.bbUpper());
+        out.bbL = bd(s.bbLower());
+        out.vwap = Double.isNaN(s.vwap()) ? null : bd(s.vwap());
+        out.close = bd(s.close());
+        if (spot != null && spot.compareTo(BigDecimal.ZERO) > 0) {
+            out.atrPct = out.atr.multiply(bd(100)).divide(spot, 2, java.math.RoundingMode.HALF_UP);
         }
+        return out;
     }
 
     // StrategyService.java
@@ -1088,7 +1123,7 @@ public class StrategyService {
 
     private IntraDayCandleData candles(String key, String unit, String interval) {
         try {
-            GetIntraDayCandleResponse ic = upstoxService.getIntradayCandleData(key, unit, interval);
+            GetIntraDayCandleResponse ic = marketDataService.getIntradayCandles(key, unit, interval);
             return ic == null ? null : ic.getData();
         } catch (Exception t) {
             return null;
@@ -1145,8 +1180,7 @@ public class StrategyService {
     // -------------------- News & sentiment --------------------
     private boolean newsBurstBlock(int minutes) {
         try {
-            Integer burst = newsService.getRecentBurstCount(minutes).orElse(0);
-            return burst != null && burst >= 5;
+            return newsService.getRecentBurstRate(null, minutes).orElse(0.0) >= NEWS_BURST_PER_MIN;
         } catch (Exception t) {
             return false;
         }
@@ -1240,7 +1274,7 @@ public class StrategyService {
         p.put("ts", Instant.now());
         try {
             JsonNode node = mapper.valueToTree(p);
-            stream.publishDecision("decision.debug", node.toPrettyString());
+            stream.publishDecision("decision.debug", node);
         } catch (Exception ignored) {
         }
     }
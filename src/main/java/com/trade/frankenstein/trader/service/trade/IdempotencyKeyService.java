@@ -3,12 +3,20 @@ package com.trade.frankenstein.trader.service.trade;
 import com.trade.frankenstein.trader.core.FastStateStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Order idempotency keys.
+ * <p>
+ * A key this instance has already claimed within the TTL, or seen claimed in Redis before that
+ * claim's own expiry, is rejected locally without a round-trip; otherwise the FastStateStore
+ * decides, which keeps the guarantee across instances. If the store is missing or failing, the
+ * local registry's atomic claim is the fallback.
+ */
 @Slf4j
 @Service
 public class IdempotencyKeyService {
@@ -16,40 +24,52 @@ public class IdempotencyKeyService {
     @Autowired(required = false)
     private FastStateStore fastStateStore;
 
-    // Fallback in-memory store
-    private final ConcurrentMap<String, Long> inMemoryKeys = new ConcurrentHashMap<>();
-    private static final Duration TTL = Duration.ofMinutes(10);
+    private final Duration ttl;
+    private final IdempotencyRegistry local;
+
+    public IdempotencyKeyService(@Value("${trade.idempotency.ttl-ms:600000}") long ttlMs,
+                                 @Value("${trade.idempotency.shards:5}") int shards,
+                                 @Value("${trade.idempotency.expected-keys-per-shard:4096}") int expectedKeysPerShard) {
+        this.ttl = Duration.ofMillis(Math.max(1L, ttlMs));
+        this.local = new IdempotencyRegistry(this.ttl.toMillis(), shards, expectedKeysPerShard);
+    }
 
     public boolean acquire(String key) {
+        final long now = System.currentTimeMillis();
+        if (local.seen(key, now)) return false; // duplicate of a claim we already know about
+
         if (fastStateStore != null) {
             try {
-                return fastStateStore.setIfAbsent("idempotency:" + key, "1", TTL);
+                final String storeKey = "idempotency:" + key;
+                boolean first = fastStateStore.setIfAbsent(storeKey, "1", ttl);
+                if (first) {
+                    local.claim(key, now);
+                } else {
+                    rememberRemote(storeKey, key, now);
+                }
+                return first;
             } catch (Throwable t) {
                 log.warn("FastStateStore failed for idempotency key: {}, falling back to in-memory", key, t);
             }
         }
 
-        // Fallback to in-memory with timestamp-based TTL
-        long now = System.currentTimeMillis();
-        long expiry = now + TTL.toMillis();
-
-        Long existing = inMemoryKeys.putIfAbsent(key, expiry);
-        if (existing == null) {
-            return true; // Successfully acquired
-        }
+        // Fallback: atomic local claim (replaces an expired claim in the same step)
+        return local.claim(key, now);
+    }
 
-        // Check if existing key has expired
-        if (existing < now) {
-            inMemoryKeys.put(key, expiry);
-            return true;
+    // Mirror only what is left of the other claim, so the key frees up here when it does there.
+    // Best effort: the duplicate verdict already stands if the TTL lookup fails.
+    private void rememberRemote(String storeKey, String key, long now) {
+        try {
+            fastStateStore.ttl(storeKey).ifPresent(left -> local.remember(key, now, left.toMillis()));
+        } catch (Exception e) {
+            log.debug("TTL lookup failed for idempotency key: {}: {}", key, e.toString());
         }
-
-        return false; // Key already exists and not expired
     }
 
-    // Cleanup expired keys periodically
+    // Rotate out expired buckets even when no orders arrive
+    @Scheduled(fixedDelayString = "${trade.idempotency.cleanup-ms:60000}")
     public void cleanup() {
-        long now = System.currentTimeMillis();
-        inMemoryKeys.entrySet().removeIf(entry -> entry.getValue() < now);
+        local.rotate(System.currentTimeMillis());
     }
 }
@@ -0,0 +1,176 @@
+package com.trade.frankenstein.trader.service.trade;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Local, time-bucketed idempotency registry.
+ * <p>
+ * Claims live in one map of key → expiry; {@link #claim(String, long)} is a single atomic
+ * compute, so two callers racing on a new or expired key cannot both win. Every claim is also
+ * noted in the shard of its time bucket: a small Bloom filter plus the list of keys. The ring
+ * holds just enough shards to cover the TTL; when a bucket's slot is reused, its keys are dropped
+ * from the map (unless re-claimed since), so memory follows the order rate over one TTL and no
+ * sweep over the whole map is ever needed.
+ * <p>
+ * {@link #seen(String, long)} first asks the Bloom filters of the live shards; if none might hold
+ * the key it is definitely new here and the map is not touched.
+ */
+final class IdempotencyRegistry {
+
+    private static final int HASHES = 7;
+
+    private static final class Shard {
+        final long gen;
+        final AtomicLongArray bits;
+        final ConcurrentLinkedQueue<String> keys = new ConcurrentLinkedQueue<>();
+
+        Shard(long gen, int words) {
+            this.gen = gen;
+            this.bits = new AtomicLongArray(words);
+        }
+    }
+
+    private final long ttlMs;
+    private final long bucketMs;
+    private final int bitCount;
+    private final Shard[] ring;
+    private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+    /**
+     * @param shards              buckets covering one TTL (the ring holds one more)
+     * @param expectedKeysPerShard Bloom filter sizing at ~1% false positives
+     */
+    IdempotencyRegistry(long ttlMs, int shards, int expectedKeysPerShard) {
+        this.ttlMs = Math.max(1L, ttlMs);
+        int n = Math.max(1, shards);
+        this.bucketMs = Math.max(1L, (this.ttlMs + n - 1) / n);
+        // ~9.6 bits per key for 1% at 7 hashes, rounded up to whole words
+        int words = Math.max(1, (int) Math.ceil(Math.max(64, expectedKeysPerShard) * 9.6 / 64.0));
+        this.bitCount = words * 64;
+        this.ring = new Shard[n + 1];
+        long gen = System.currentTimeMillis() / bucketMs;
+        for (int i = 0; i < ring.length; i++) ring[i] = new Shard(gen - ring.length + 1 + i, words);
+    }
+
+    /**
+     * True if key is claimed locally and not yet expired.
+     */
+    boolean seen(String key, long now) {
+        if (!mightContain(key, now)) return false;
+        Long exp = expiries.get(key);
+        return exp != null && exp > now;
+    }
+
+    /**
+     * Atomically claims key for one TTL; false if a live claim already exists.
+     */
+    boolean claim(String key, long now) {
+        final long exp = now + ttlMs;
+        final boolean[] won = {false};
+        expiries.compute(key, (k, cur) -> {
+            if (cur != null && cur > now) return cur;
+            won[0] = true;
+            return exp;
+        });
+        if (won[0]) note(key, now);
+        return won[0];
+    }
+
+    /**
+     * Records a claim made elsewhere (e.g. Redis said it exists) that expires remainingMs from now,
+     * so repeats are answered locally until then (never longer than one TTL). Keeps any later
+     * local expiry.
+     */
+    void remember(String key, long now, long remainingMs) {
+        if (remainingMs <= 0) return;
+        final long exp = now + Math.min(remainingMs, ttlMs);
+        expiries.merge(key, exp, Math::max);
+        note(key, now);
+    }
+
+    int size() {
+        return expiries.size();
+    }
+
+    /**
+     * Rotates out buckets older than one TTL; also done lazily on every claim.
+     */
+    void rotate(long now) {
+        final long gen = now / bucketMs;
+        for (int i = 0; i < ring.length; i++) shardFor(gen - i, now);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void note(String key, long now) {
+        final long gen = now / bucketMs;
+        final long h = hash(key);
+        final int h1 = (int) h, h2 = (int) (h >>> 32);
+        Shard s = shardFor(gen, now);
+        for (; ; ) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                int w = bit >>> 6;
+                long mask = 1L << (bit & 63);
+                long cur;
+                while (((cur = s.bits.get(w)) & mask) == 0 && !s.bits.compareAndSet(w, cur, cur | mask)) {
+                    // retry
+                }
+            }
+            s.keys.add(key);
+            // The slot was recycled while we wrote; note again so the key is not orphaned
+            Shard current = shardFor(gen, now);
+            if (current == s) return;
+            s = current;
+        }
+    }
+
+    private boolean mightContain(String key, long now) {
+        final long gen = now / bucketMs;
+        long h = hash(key);
+        int h1 = (int) h, h2 = (int) (h >>> 32);
+        for (Shard s : ring) {
+            if (s.gen <= gen - ring.length) continue; // stale, about to be reused
+            boolean all = true;
+            for (int i = 0; i < HASHES && all; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                all = (s.bits.get(bit >>> 6) & (1L << (bit & 63))) != 0;
+            }
+            if (all) return true;
+        }
+        return false;
+    }
+
+    private Shard shardFor(long gen, long now) {
+        final int idx = (int) Math.floorMod(gen, (long) ring.length);
+        Shard s = ring[idx];
+        if (s.gen == gen) return s;
+        synchronized (this) {
+            s = ring[idx];
+            if (s.gen >= gen) return s;
+            Shard fresh = new Shard(gen, s.bits.length());
+            ring[idx] = fresh;
+            purge(s, now);
+            return fresh;
+        }
+    }
+
+    private void purge(Shard old, long now) {
+        for (String k : old.keys) {
+            expiries.computeIfPresent(k, (kk, exp) -> exp <= now ? null : exp);
+        }
+    }
+
+    /**
+     * 64-bit mix of the String hash, split into two 32-bit halves for double hashing.
+     */
+    private static long hash(String key) {
+        long z = key.hashCode() * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -2,53 +2,169 @@ package com.trade.frankenstein.trader.service.trade;
 
 import com.trade.frankenstein.trader.bus.EventPublisher;
 import com.trade.frankenstein.trader.model.documents.OutboxEvent;
-import com.trade.frankenstein.trader.repo.documents.OutboxEventRepo;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Relays outbox_events to Kafka in leased, pipelined batches.
+ * <p>
+ * Each round claims the oldest page of unpublished, unleased rows by stamping them with a batch
+ * token and lease expiry, sends the whole page without waiting between records, then waits for
+ * the broker acks and marks every acked row published with one bulk update. Rows that were not
+ * acked get their lease released and are retried next round; rows of a relay that died mid-batch
+ * become claimable again once its lease expires. Delivery stays at-least-once.
+ * <p>
+ * Pending rows are found through a partial index on created_at covering only published=false,
+ * so the published history is never scanned.
+ */
 @Slf4j
 @Component
 public class OutboxPublisher {
 
+    private static final String F_PUBLISHED = "published";
+    private static final String F_PUBLISHED_AT = "published_at";
+    private static final String F_CREATED_AT = "created_at";
+    private static final String F_CLAIM_TOKEN = "claim_token";
+    private static final String F_LEASE_UNTIL = "lease_until";
+
     @Autowired
-    private OutboxEventRepo outboxEventRepo;
+    private MongoTemplate mongoTemplate;
 
     @Autowired
     private EventPublisher eventPublisher;
 
+    @Value("${trade.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trade.outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${trade.outbox.ack-timeout-ms:10000}")
+    private long ackTimeoutMs;
+
+    @Value("${trade.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(OutboxEvent.class).ensureIndex(new Index()
+                    .on(F_CREATED_AT, Sort.Direction.ASC)
+                    .named("outbox_pending_created_at")
+                    .partial(PartialIndexFilter.of(Criteria.where(F_PUBLISHED).is(false))));
+        } catch (Exception e) {
+            log.warn("Failed to ensure outbox pending index: {}", e.getMessage());
+        }
+    }
+
     @Scheduled(fixedRateString = "${trade.outbox.publish-interval-ms:1000}")
     public void publishPendingEvents() {
         try {
-            List<OutboxEvent> pendingEvents = outboxEventRepo.findByPublishedFalseOrderByCreatedAtAsc();
-
-            if (pendingEvents.isEmpty()) {
-                return;
+            for (int round = 0; round < Math.max(1, maxBatchesPerRun); round++) {
+                int claimed = relayBatch();
+                if (claimed < batchSize) break; // drained
             }
+        } catch (Exception e) {
+            log.error("Error in outbox publisher", e);
+        }
+    }
+
+    /**
+     * Claims, sends and acknowledges one page; returns how many rows were claimed.
+     */
+    private int relayBatch() {
+        final Instant now = Instant.now();
+        final String token = UUID.randomUUID().toString();
 
-            log.debug("Publishing {} outbox events", pendingEvents.size());
+        List<OutboxEvent> batch = claim(token, now);
+        if (batch.isEmpty()) return 0;
 
-            for (OutboxEvent event : pendingEvents) {
-                try {
-                    eventPublisher.publish(event.getTopic(), event.getKey(), event.getPayload());
+        log.debug("Publishing {} outbox events (claim {})", batch.size(), token);
 
-                    // Mark as published
-                    event.setPublished(true);
-                    event.setPublishedAt(Instant.now());
-                    outboxEventRepo.save(event);
+        // Pipeline the whole page, then wait for the acks
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            acks.add(eventPublisher.send(event.getTopic(), event.getKey(), event.getPayload()));
+        }
+        eventPublisher.flush();
 
-                    log.debug("Published outbox event: {}", event.getId());
-                } catch (Exception e) {
-                    log.error("Failed to publish outbox event: {}", event.getId(), e);
-                    // Will retry on next cycle
-                }
+        List<String> acked = new ArrayList<>(batch.size());
+        List<String> failed = new ArrayList<>();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        for (int i = 0; i < batch.size(); i++) {
+            String id = batch.get(i).getId();
+            try {
+                long waitNs = Math.max(0L, deadline - System.nanoTime());
+                acks.get(i).get(waitNs, TimeUnit.NANOSECONDS);
+                acked.add(id);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                failed.add(id);
+            } catch (Exception e) {
+                log.error("Failed to publish outbox event: {}", id, e);
+                failed.add(id);
             }
-        } catch (Exception e) {
-            log.error("Error in outbox publisher", e);
         }
+
+        if (!acked.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(acked).and(F_CLAIM_TOKEN).is(token)),
+                    new Update().set(F_PUBLISHED, true).set(F_PUBLISHED_AT, Instant.now())
+                            .unset(F_CLAIM_TOKEN).unset(F_LEASE_UNTIL),
+                    OutboxEvent.class);
+        }
+        if (!failed.isEmpty()) {
+            // Will retry on next cycle
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(failed).and(F_CLAIM_TOKEN).is(token)),
+                    new Update().unset(F_CLAIM_TOKEN).unset(F_LEASE_UNTIL),
+                    OutboxEvent.class);
+        }
+        return batch.size();
+    }
+
+    /**
+     * Stamps the oldest claimable page with token and returns the rows this relay actually won.
+     */
+    private List<OutboxEvent> claim(String token, Instant now) {
+        Criteria claimable = Criteria.where(F_PUBLISHED).is(false)
+                .orOperator(Criteria.where(F_LEASE_UNTIL).exists(false), Criteria.where(F_LEASE_UNTIL).lt(now));
+
+        Query page = Query.query(claimable)
+                .with(Sort.by(Sort.Direction.ASC, F_CREATED_AT))
+                .limit(Math.max(1, batchSize));
+        page.fields().include("_id");
+        List<Object> ids = new ArrayList<>();
+        for (OutboxEvent e : mongoTemplate.find(page, OutboxEvent.class)) ids.add(e.getId());
+        if (ids.isEmpty()) return List.of();
+
+        // Re-check the claimable predicate so a concurrent relay's claim is not stolen
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update().set(F_CLAIM_TOKEN, token).set(F_LEASE_UNTIL, now.plusMillis(leaseMs)),
+                OutboxEvent.class);
+
+        return mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids).and(F_CLAIM_TOKEN).is(token))
+                        .with(Sort.by(Sort.Direction.ASC, F_CREATED_AT)),
+                OutboxEvent.class);
     }
 }
@@ -39,7 +39,7 @@ public class TradeEventPublisher {
 
             eventPublisher.publish(EventBusConfig.TOPIC_TRADE,
                     trade.getSymbol(),
-                    payload.toString());
+                    payload);
         } catch (Exception e) {
             log.error("Failed to publish trade DLQ event for trade: {}", trade.getId(), e);
         }
@@ -52,7 +52,7 @@ public class TradeEventPublisher {
 
             eventPublisher.publish(EventBusConfig.TOPIC_TRADE,
                     trade.getSymbol(),
-                    payload.toString());
+                    payload);
         } catch (Exception e) {
             log.error("Failed to publish {} event for trade: {}", eventType, trade.getId(), e);
         }
@@ -475,7 +475,7 @@ public class TradesService {
         try {
             ObjectNode payload = toJsonTrade(t, eventName);
             String key = nz(t.getSymbol());
-            events.publish(EventBusConfig.TOPIC_TRADE, key, payload.toString());
+            events.publish(EventBusConfig.TOPIC_TRADE, key, (Object) payload); // tree -> bytes, no String
         } catch (Throwable ignored) { /* best-effort */ }
     }
 
@@ -491,7 +491,7 @@ public class TradesService {
                     .put("ts", asIso(Instant.now()));
 
             final String key = instrumentKey == null ? "" : instrumentKey;
-            events.publish(EventBusConfig.TOPIC_TRADE, key, mapper.writeValueAsString(b));
+            events.publish(EventBusConfig.TOPIC_TRADE, key, (Object) b);
         } catch (Throwable ignored) { /* best-effort */ }
     }
 
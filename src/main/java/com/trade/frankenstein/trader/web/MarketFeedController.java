@@ -0,0 +1,73 @@
+package com.trade.frankenstein.trader.web;
+
+import com.trade.frankenstein.trader.common.Result;
+import com.trade.frankenstein.trader.common.exception.Http;
+import com.trade.frankenstein.trader.service.market.MarketDataFeedClient;
+import com.trade.frankenstein.trader.service.market.MarketFeedReplayer;
+import com.trade.frankenstein.trader.service.market.MarketFeedSubscriptions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "trade.feed", name = "enabled", havingValue = "true")
+public class MarketFeedController {
+
+    private final MarketDataFeedClient feed;
+    private final MarketFeedSubscriptions subscriptions;
+    private final ObjectProvider<MarketFeedReplayer> replayer; // dev-only, see trade.feed.replay.enabled
+
+    /**
+     * Connection state, counters and current subscriptions.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<?> status() {
+        return Http.from(Result.ok(feed.status()));
+    }
+
+    /**
+     * Subscribe an instrument key (mode: ltpc | option_greeks | full).
+     */
+    @PostMapping("/subscribe")
+    public ResponseEntity<?> subscribe(@RequestParam("instrumentKey") String instrumentKey,
+                                       @RequestParam(name = "mode", defaultValue = "ltpc") String mode) {
+        subscriptions.subscribe(instrumentKey, MarketFeedSubscriptions.Mode.of(mode));
+        return Http.from(Result.ok(subscriptions.instrumentKeys()));
+    }
+
+    @PostMapping("/unsubscribe")
+    public ResponseEntity<?> unsubscribe(@RequestParam("instrumentKey") String instrumentKey) {
+        subscriptions.unsubscribe(instrumentKey);
+        return Http.from(Result.ok(subscriptions.instrumentKeys()));
+    }
+
+    /**
+     * Replays stored ticks through the feed decode path (sandbox use; needs trade.feed.replay.enabled).
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<?> replay(
+            @RequestParam("instrumentKey") String instrumentKey,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(name = "speed", defaultValue = "1") double speed) {
+        MarketFeedReplayer r = replayer.getIfAvailable();
+        if (r == null) return Http.from(Result.fail("NOT_FOUND", "Feed replay is disabled"));
+        int n = r.start(instrumentKey, from, to, speed);
+        if (n < 0) return Http.from(Result.fail("ERR-REQ-003", "A replay is already running"));
+        return Http.from(Result.ok(n));
+    }
+
+    @PostMapping("/replay/stop")
+    public ResponseEntity<?> stopReplay() {
+        MarketFeedReplayer r = replayer.getIfAvailable();
+        if (r == null) return Http.from(Result.fail("NOT_FOUND", "Feed replay is disabled"));
+        return Http.from(Result.ok(r.stop()));
+    }
+}
@@ -1,12 +1,13 @@
 package com.trade.frankenstein.trader.web;
 
+import com.trade.frankenstein.trader.common.exception.Http;
+import com.trade.frankenstein.trader.service.strategy.BacktestEngine;
 import com.trade.frankenstein.trader.service.strategy.StrategyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -20,6 +21,9 @@ public class StrategyController {
     @Autowired
     private StrategyService strategyService;
 
+    @Autowired
+    private BacktestEngine backtestEngine;
+
     @GetMapping("/generate")
     public Map<String, Object> generate() {
         int created = 0;
@@ -33,4 +37,12 @@ public class StrategyController {
         resp.put("created", created);
         return resp;
     }
+
+    /**
+     * Backtest over stored 1m bars; a body with a grid runs a parameter sweep.
+     */
+    @PostMapping("/backtest")
+    public ResponseEntity<?> backtest(@RequestBody BacktestEngine.Request req) {
+        return Http.from(backtestEngine.run(req));
+    }
 }
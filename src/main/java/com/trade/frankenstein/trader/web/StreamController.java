@@ -1,8 +1,10 @@
 package com.trade.frankenstein.trader.web;
 
+import com.trade.frankenstein.trader.common.exception.Http;
 import com.trade.frankenstein.trader.service.StreamGateway;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -43,4 +45,14 @@ public class StreamController {
         // CSV: "advice.new,trade.created"
         return stream.subscribeCsv(id, topicsCsv);        // subscribeCsv(String)
     }
+
+    @GetMapping("/stream/stats")
+    public ResponseEntity<?> stats() {
+        return Http.from(stream.getSubscriberStats());
+    }
+
+    @GetMapping("/stream/kafka")
+    public ResponseEntity<?> kafkaStats() {
+        return Http.from(stream.getKafkaStats());
+    }
 }